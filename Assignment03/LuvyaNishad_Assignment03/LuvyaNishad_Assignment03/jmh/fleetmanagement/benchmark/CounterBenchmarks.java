@@ -0,0 +1,44 @@
+package fleetmanagement.benchmark;
+
+import fleetmanagement.interfaces.HighwayTracker;
+import fleetmanagement.simulation.StripedHighwayCounter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+ * The shared highway counter, striped against the original synchronized one.
+ * All benchmark threads share one counter; pick the thread count with -t
+ * (e.g. -t 1, -t 4, -t max) to see how each scales.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 2, jvmArgs = {"-Xms1g", "-Xmx1g"})
+@Threads(Threads.MAX)
+public class CounterBenchmarks {
+
+    private final HighwayTracker striped = new StripedHighwayCounter();
+    private final HighwayTracker locked = new Fixtures.SynchronizedCounter();
+
+    @Benchmark
+    public void striped() {
+        striped.incrementHighwayCounter();
+    }
+
+    @Benchmark
+    public void synchronizedCounter() {
+        locked.incrementHighwayCounter();
+    }
+}
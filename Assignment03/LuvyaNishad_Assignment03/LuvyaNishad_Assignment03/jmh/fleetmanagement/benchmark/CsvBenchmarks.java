@@ -0,0 +1,110 @@
+package fleetmanagement.benchmark;
+
+import fleetmanagement.exceptions.InvalidOperationException;
+import fleetmanagement.persistence.FleetCsvReader;
+import fleetmanagement.persistence.FleetCsvWriter;
+import fleetmanagement.vehicles.FleetStore;
+import fleetmanagement.vehicles.Vehicle;
+import fleetmanagement.vehicles.VehicleFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * CSV export and import: one vehicle per type, and a whole FILE_FLEET file.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 2, jvmArgs = {"-Xms1g", "-Xmx1g"})
+public class CsvBenchmarks {
+
+    @State(Scope.Thread)
+    public static class OneVehicle {
+        @Param({"Car", "Truck", "Airplane"})
+        public String type;
+
+        Vehicle vehicle;
+        String line;
+        private FleetStore store;
+        private int parsed;
+
+        @Setup
+        public void setup() throws InvalidOperationException {
+            vehicle = Fixtures.sample(type);
+            line = vehicle.toCSVString();
+            store = new FleetStore();
+        }
+
+        // Fresh store now and then, so parsed vehicles do not pile up slots
+        FleetStore store() {
+            if ((++parsed & 0xFFFF) == 0) store = new FleetStore();
+            return store;
+        }
+    }
+
+    // One file per benchmark thread, so writes never overlap
+    @State(Scope.Thread)
+    public static class FleetFile {
+        List<Vehicle> fleet;
+        Path file;
+
+        @Setup
+        public void setup() throws InvalidOperationException, IOException {
+            fleet = VehicleFactory.createFleet(Fixtures.FILE_FLEET, new FleetStore());
+            file = Files.createTempFile("fleet-bench", ".csv");
+            FleetCsvWriter.write(file, fleet);
+        }
+
+        @TearDown
+        public void tearDown() throws IOException {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public String toCSVString(OneVehicle state) {
+        return state.vehicle.toCSVString();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Vehicle roundTrip(OneVehicle state) throws InvalidOperationException {
+        return Fixtures.parse(state.vehicle.toCSVString().split(","), state.store());
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Vehicle fromCSV(OneVehicle state) throws InvalidOperationException {
+        return Fixtures.parse(state.line.split(","), state.store());
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Path writeFile(FleetFile state) throws IOException, InvalidOperationException {
+        FleetCsvWriter.write(state.file, state.fleet);
+        return state.file;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Vehicle> readFile(FleetFile state) throws IOException, InvalidOperationException {
+        return FleetCsvReader.read(state.file, new FleetStore());
+    }
+}
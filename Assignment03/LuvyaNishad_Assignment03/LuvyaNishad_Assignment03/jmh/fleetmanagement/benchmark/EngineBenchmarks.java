@@ -0,0 +1,67 @@
+package fleetmanagement.benchmark;
+
+import fleetmanagement.exceptions.InvalidOperationException;
+import fleetmanagement.simulation.ShardedSimulationEngine;
+import fleetmanagement.simulation.StripedHighwayCounter;
+import fleetmanagement.vehicles.FleetStore;
+import fleetmanagement.vehicles.Vehicle;
+import fleetmanagement.vehicles.VehicleFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * One compressed pass of the sharded engine over a FILE_FLEET fleet, per shard count.
+ * runPasses() expects a single driving thread, so every benchmark thread gets a fleet
+ * and an engine of its own.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 2, jvmArgs = {"-Xms1g", "-Xmx1g"})
+public class EngineBenchmarks {
+
+    @Param({"1", "2", "4"})
+    public int shards;
+
+    private List<Vehicle> fleet;
+    private ShardedSimulationEngine engine;
+    private int passes;
+
+    @Setup(Level.Trial)
+    public void setup() throws InvalidOperationException {
+        fleet = VehicleFactory.createFleet(Fixtures.FILE_FLEET, new FleetStore());
+        StripedHighwayCounter counter = new StripedHighwayCounter();
+        for (Vehicle v : fleet) v.setSimulator(counter);
+        engine = new ShardedSimulationEngine(shards, 0);
+        engine.start(fleet);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        engine.shutdown();
+    }
+
+    @Benchmark
+    public int pass() throws InterruptedException, InvalidOperationException {
+        // Vehicles run dry after a few hundred passes; top them up now and then
+        if ((++passes & 0xFF) == 0) Fixtures.refillEmpty(fleet);
+        engine.runPasses(1);
+        return engine.getActiveCount();
+    }
+}
@@ -0,0 +1,65 @@
+package fleetmanagement.benchmark;
+
+import fleetmanagement.exceptions.InvalidOperationException;
+import fleetmanagement.interfaces.FuelConsumable;
+import fleetmanagement.interfaces.HighwayTracker;
+import fleetmanagement.vehicles.Airplane;
+import fleetmanagement.vehicles.Car;
+import fleetmanagement.vehicles.FleetStore;
+import fleetmanagement.vehicles.Truck;
+import fleetmanagement.vehicles.Vehicle;
+import fleetmanagement.vehicles.VehicleFactory;
+import fleetmanagement.vehicles.VehicleState;
+
+import java.util.List;
+
+/*
+ * Fleets and helpers shared by the benchmark classes.
+ */
+final class Fixtures {
+
+    static final int SORT_FLEET = 10_000;
+    static final int LABEL_FLEET = 3;
+    static final int FILE_FLEET = 100_000;
+    static final int PLAN_SIZE = 1_000;
+
+    private Fixtures() {}
+
+    // The vehicle of the given type ("Car", "Truck" or "Airplane"), in its own store
+    static Vehicle sample(String type) throws InvalidOperationException {
+        for (Vehicle v : VehicleFactory.createFleet(3, new FleetStore())) {
+            if (v.getClass().getSimpleName().equals(type)) return v;
+        }
+        throw new InvalidOperationException("Unknown vehicle type: " + type);
+    }
+
+    static void refill(FuelConsumable tank) throws InvalidOperationException {
+        tank.refuel(1_000.0);
+    }
+
+    static void refillEmpty(List<Vehicle> fleet) throws InvalidOperationException {
+        for (Vehicle v : fleet) {
+            if (v.getState() == VehicleState.OUT_OF_FUEL) refill((FuelConsumable) v);
+        }
+    }
+
+    static Vehicle parse(String[] data, FleetStore store) throws InvalidOperationException {
+        switch (data[0]) {
+            case "Car": return Car.fromCSV(data, store);
+            case "Truck": return Truck.fromCSV(data, store);
+            case "Airplane": return Airplane.fromCSV(data, store);
+            default: throw new InvalidOperationException("Unknown vehicle type: " + data[0]);
+        }
+    }
+
+    // The original synchronized counter, kept as the reference point for the striped one
+    static final class SynchronizedCounter implements HighwayTracker {
+        private long distance;
+
+        @Override
+        public synchronized void add(long delta) { distance += delta; }
+
+        @Override
+        public synchronized long getHighwayDistance() { return distance; }
+    }
+}
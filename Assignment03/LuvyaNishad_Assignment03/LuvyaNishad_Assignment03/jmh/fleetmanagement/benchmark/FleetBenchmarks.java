@@ -0,0 +1,145 @@
+package fleetmanagement.benchmark;
+
+import fleetmanagement.analytics.FleetAnalytics;
+import fleetmanagement.analytics.JourneyPlanner;
+import fleetmanagement.exceptions.InvalidOperationException;
+import fleetmanagement.interfaces.FuelConsumable;
+import fleetmanagement.simulation.StripedHighwayCounter;
+import fleetmanagement.vehicles.FleetStore;
+import fleetmanagement.vehicles.Vehicle;
+import fleetmanagement.vehicles.VehicleFactory;
+import fleetmanagement.vehicles.VehicleState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Whole-fleet operations: sorting, the running aggregates against a full recompute,
+ * journey planning and the GUI label refresh.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 2, jvmArgs = {"-Xms1g", "-Xmx1g"})
+public class FleetBenchmarks {
+
+    @State(Scope.Thread)
+    public static class SortFleet {
+        List<Vehicle> fleet;
+        List<Vehicle> work;
+
+        @Setup
+        public void setup() throws InvalidOperationException {
+            fleet = VehicleFactory.createFleet(Fixtures.SORT_FLEET, new FleetStore());
+            Collections.shuffle(fleet, new Random(42));
+            work = new ArrayList<>(fleet);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class AnalyticsFleet {
+        FleetAnalytics analytics;
+
+        @Setup
+        public void setup() throws InvalidOperationException {
+            analytics = new FleetAnalytics(VehicleFactory.createFleet(Fixtures.FILE_FLEET, new FleetStore()));
+        }
+
+        @TearDown
+        public void tearDown() {
+            analytics.detach();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class PlanFleet {
+        List<Vehicle> fleet;
+        double[] routes;
+
+        @Setup
+        public void setup() throws InvalidOperationException {
+            fleet = VehicleFactory.createFleet(Fixtures.PLAN_SIZE, new FleetStore());
+            routes = new double[Fixtures.PLAN_SIZE];
+            for (int r = 0; r < routes.length; r++) routes[r] = 5.0 + r * 1.5;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class LabelFleet {
+        List<Vehicle> fleet;
+        StripedHighwayCounter counter;
+
+        @Setup
+        public void setup() throws InvalidOperationException {
+            fleet = VehicleFactory.createFleet(Fixtures.LABEL_FLEET, new FleetStore());
+            counter = new StripedHighwayCounter();
+        }
+    }
+
+    // Vehicle.compareTo, most efficient first
+    @Benchmark
+    public Vehicle sortByEfficiency(SortFleet state) {
+        state.work.clear();
+        state.work.addAll(state.fleet);
+        Collections.sort(state.work);
+        return state.work.get(0);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void analyticsRead(AnalyticsFleet state, Blackhole blackhole) {
+        blackhole.consume(state.analytics.getTotalMileage());
+        blackhole.consume(state.analytics.getOutOfFuelCount());
+    }
+
+    @Benchmark
+    public FleetAnalytics.Totals analyticsRecompute(AnalyticsFleet state) {
+        return state.analytics.recompute();
+    }
+
+    // PLAN_SIZE vehicles x PLAN_SIZE routes per plan
+    @Benchmark
+    public JourneyPlanner.Plan plan(PlanFleet state) throws InvalidOperationException {
+        return JourneyPlanner.plan(state.fleet, state.routes);
+    }
+
+    // Same aggregation and formatting as HighwaySimulatorGUI.updateGUILabels()
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void guiLabels(LabelFleet state, Blackhole blackhole) {
+        double realTotalMileage = 0;
+        for (Vehicle v : state.fleet) {
+            realTotalMileage += v.getCurrentMileage();
+        }
+        blackhole.consume(String.format("Shared Highway Distance: %d  |  Real Total: %.0f",
+                state.counter.getHighwayDistance(), realTotalMileage));
+        blackhole.consume(String.format("%d stripes, %d CAS retries",
+                state.counter.getStripeCount(), state.counter.getRetryCount()));
+        for (Vehicle v : state.fleet) {
+            double fuel = v instanceof FuelConsumable ? ((FuelConsumable) v).getFuelLevel() : 0;
+            VehicleState status = v.getState();
+            String color = "black";
+            if (status == VehicleState.RUNNING) color = "green";
+            else if (status == VehicleState.OUT_OF_FUEL) color = "red";
+            else if (status == VehicleState.PAUSED) color = "orange";
+            blackhole.consume(String.format("<html><b>%s</b> (%s): %.0f km travelled<br/>Fuel: %.1f L  |  Status: <font color='%s'>%s</font></html>",
+                    v.getClass().getSimpleName(), v.getId(), v.getCurrentMileage(), fuel, color, status.getLabel()));
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package fleetmanagement.benchmark;
+
+import fleetmanagement.exceptions.InvalidOperationException;
+import fleetmanagement.interfaces.FuelConsumable;
+import fleetmanagement.simulation.SegmentedHighway;
+import fleetmanagement.vehicles.Vehicle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * A tick with the vehicle on the segmented highway index, which moves it to the next
+ * 1 km segment on nearly every tick; compare with TravelBenchmarks.tick. Like the
+ * bare tick, it must stay at 0 B/op under -prof gc.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 2, jvmArgs = {"-Xms1g", "-Xmx1g"})
+public class HighwayBenchmarks {
+
+    @Param({"Car", "Truck", "Airplane"})
+    public String type;
+
+    private SegmentedHighway highway;
+    private Vehicle vehicle;
+    private FuelConsumable tank;
+
+    @Setup
+    public void setup() throws InvalidOperationException {
+        vehicle = Fixtures.sample(type);
+        tank = (FuelConsumable) vehicle;
+        highway = new SegmentedHighway(List.of(vehicle));
+    }
+
+    @TearDown
+    public void tearDown() {
+        highway.detach();
+    }
+
+    @Benchmark
+    public boolean tick() throws InvalidOperationException {
+        boolean moved = vehicle.tick();
+        if (!moved) Fixtures.refill(tank);
+        return moved;
+    }
+}
@@ -0,0 +1,71 @@
+package fleetmanagement.benchmark;
+
+import fleetmanagement.exceptions.InvalidOperationException;
+import fleetmanagement.interfaces.FuelConsumable;
+import fleetmanagement.persistence.EventJournal;
+import fleetmanagement.vehicles.Vehicle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/*
+ * A tick with its changes marked for the event journal's group commit; compare with
+ * TravelBenchmarks.tick for the cost of journaling.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 2, jvmArgs = {"-Xms1g", "-Xmx1g"})
+public class JournalBenchmarks {
+
+    @Param({"Car", "Truck", "Airplane"})
+    public String type;
+
+    private Path directory;
+    private EventJournal journal;
+    private Vehicle vehicle;
+    private FuelConsumable tank;
+
+    @Setup
+    public void setup() throws InvalidOperationException, IOException {
+        vehicle = Fixtures.sample(type);
+        tank = (FuelConsumable) vehicle;
+        directory = Files.createTempDirectory("fleet-journal");
+        journal = new EventJournal(directory, List.of(vehicle));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        journal.sync();
+        journal.close();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) Files.delete(file);
+        }
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    public boolean tick() throws InvalidOperationException {
+        boolean moved = vehicle.tick();
+        if (!moved) Fixtures.refill(tank);
+        return moved;
+    }
+}
@@ -0,0 +1,59 @@
+package fleetmanagement.benchmark;
+
+import fleetmanagement.interfaces.HighwayTracker;
+import fleetmanagement.simulation.TelemetryRing;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Vehicles publishing into the telemetry ring while its drain thread feeds a consumer
+ * in the background, per overflow policy. Pick the producer count with -t.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 2, jvmArgs = {"-Xms1g", "-Xmx1g"})
+@Threads(Threads.MAX)
+public class TelemetryBenchmarks {
+
+    @Param({"DROP", "BLOCK", "SAMPLE"})
+    public TelemetryRing.Policy policy;
+
+    private TelemetryRing ring;
+    private HighwayTracker tracker;
+    private long consumed;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        ring = new TelemetryRing(policy);
+        ring.subscribe(batch -> consumed += batch.getWeightedTotal());
+        ring.start();
+        tracker = ring.tracker(0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ring.close();
+    }
+
+    @Benchmark
+    public void publish() {
+        tracker.incrementHighwayCounter();
+    }
+}
@@ -0,0 +1,68 @@
+package fleetmanagement.benchmark;
+
+import fleetmanagement.exceptions.InsufficientFuelException;
+import fleetmanagement.exceptions.InvalidOperationException;
+import fleetmanagement.interfaces.FuelConsumable;
+import fleetmanagement.vehicles.Vehicle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+ * One simulated kilometre per vehicle type. tick() is what the engines call for every
+ * vehicle every second, so with -prof gc its gc.alloc.rate.norm must stay at 0 B/op.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 2, jvmArgs = {"-Xms1g", "-Xmx1g"})
+public class TravelBenchmarks {
+
+    @Param({"Car", "Truck", "Airplane"})
+    public String type;
+
+    private Vehicle vehicle;
+    private FuelConsumable tank;
+
+    @Setup
+    public void setup() throws InvalidOperationException {
+        vehicle = Fixtures.sample(type);
+        tank = (FuelConsumable) vehicle;
+    }
+
+    @Benchmark
+    public boolean simulateTravel() throws InvalidOperationException {
+        boolean moved = vehicle.simulateTravel(1.0);
+        if (!moved) Fixtures.refill(tank);
+        return moved;
+    }
+
+    @Benchmark
+    public double consumeFuel() throws InvalidOperationException {
+        try {
+            tank.consumeFuel(1.0);
+        } catch (InsufficientFuelException e) {
+            Fixtures.refill(tank);
+        }
+        return tank.getFuelLevel();
+    }
+
+    @Benchmark
+    public boolean tick() throws InvalidOperationException {
+        boolean moved = vehicle.tick();
+        if (!moved) Fixtures.refill(tank);
+        return moved;
+    }
+}
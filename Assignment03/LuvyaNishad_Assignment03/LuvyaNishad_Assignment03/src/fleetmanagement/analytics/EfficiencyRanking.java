@@ -0,0 +1,266 @@
+package fleetmanagement.analytics;
+
+import fleetmanagement.exceptions.InvalidOperationException;
+import fleetmanagement.interfaces.VehicleListener;
+import fleetmanagement.vehicles.FleetStore;
+import fleetmanagement.vehicles.Vehicle;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/*
+ * The fleet ranked by fuel efficiency (most efficient first, the order of
+ * Vehicle.compareTo), kept current without re-sorting.
+ *
+ * Vehicles are nodes of a treap (a randomized balanced search tree) whose nodes
+ * also count their subtree size, so:
+ *   - a load change re-positions one vehicle in O(log n),
+ *   - rankOf(vehicle) and get(rank) are O(log n),
+ *   - top(k) is O(log n + k).
+ * Trucks' efficiency drops with cargo; the ranking re-reads it from the FleetStore
+ * whenever a vehicle reports a load change. Ties are broken by fleet position.
+ *
+ * Node i is fleet.get(i); all vehicles must share one FleetStore.
+ */
+public class EfficiencyRanking implements VehicleListener {
+
+    private static final int NIL = -1;
+
+    private final List<? extends Vehicle> fleet;
+    private final FleetStore store;
+    private final int[] indexBySlot;
+
+    // Guarded by 'this'
+    private final double[] key;
+    private final int[] priority;
+    private final int[] left;
+    private final int[] right;
+    private final int[] size;
+    private int root = NIL;
+
+    // Results of split(), to avoid allocating a pair per call
+    private int splitLeft;
+    private int splitRight;
+
+    public EfficiencyRanking(List<? extends Vehicle> fleet) throws InvalidOperationException {
+        this.fleet = fleet;
+        this.store = fleet.isEmpty() ? null : fleet.get(0).getStore();
+        this.indexBySlot = new int[store == null ? 0 : store.size()];
+        int n = fleet.size();
+        this.key = new double[n];
+        this.priority = new int[n];
+        this.left = new int[n];
+        this.right = new int[n];
+        this.size = new int[n];
+
+        Random random = new Random();
+        for (int i = 0; i < n; i++) {
+            Vehicle v = fleet.get(i);
+            if (v.getStore() != store) {
+                throw new InvalidOperationException("All vehicles in the efficiency ranking must share one FleetStore");
+            }
+            indexBySlot[v.getSlot()] = i;
+            priority[i] = random.nextInt();
+        }
+        synchronized (this) {
+            for (int i = 0; i < n; i++) {
+                key[i] = store.getEfficiency(fleet.get(i).getSlot());
+                insert(i);
+            }
+        }
+        for (Vehicle v : fleet) {
+            v.addVehicleListener(this);
+        }
+    }
+
+    public void detach() {
+        for (Vehicle v : fleet) {
+            v.removeVehicleListener(this);
+        }
+    }
+
+    // --- QUERIES ---
+
+    // The k most efficient vehicles, best first
+    public synchronized List<Vehicle> top(int k) {
+        List<Vehicle> result = new ArrayList<>(Math.max(0, Math.min(k, fleet.size())));
+        int[] stack = new int[64];
+        int depth = 0;
+        int node = root;
+        while ((node != NIL || depth > 0) && result.size() < k) {
+            while (node != NIL) {
+                if (depth == stack.length) stack = Arrays.copyOf(stack, depth * 2);
+                stack[depth++] = node;
+                node = left[node];
+            }
+            node = stack[--depth];
+            result.add(fleet.get(node));
+            node = right[node];
+        }
+        return result;
+    }
+
+    /*
+     * The whole ranking in one pass under the lock: the fleet position of every ranked
+     * vehicle, best first, into 'order' and the efficiency it is ranked by into
+     * 'efficiency' (both at least fleet-sized). Returns the number of ranked vehicles.
+     */
+    public synchronized int copyRanking(int[] order, double[] efficiency) {
+        int count = 0;
+        int[] stack = new int[64];
+        int depth = 0;
+        int node = root;
+        while (node != NIL || depth > 0) {
+            while (node != NIL) {
+                if (depth == stack.length) stack = Arrays.copyOf(stack, depth * 2);
+                stack[depth++] = node;
+                node = left[node];
+            }
+            node = stack[--depth];
+            order[count] = node;
+            efficiency[count] = key[node];
+            count++;
+            node = right[node];
+        }
+        return count;
+    }
+
+    // 1 for the most efficient vehicle, size() for the least; 0 if it is not in this fleet
+    public synchronized int rankOf(Vehicle vehicle) {
+        int target = indexOf(vehicle);
+        if (target == NIL) return 0;
+        int rank = 0;
+        int node = root;
+        while (node != NIL) {
+            if (node == target) {
+                return rank + sizeOf(left[node]) + 1;
+            }
+            if (before(target, node)) {
+                node = left[node];
+            } else {
+                rank += sizeOf(left[node]) + 1;
+                node = right[node];
+            }
+        }
+        return 0;
+    }
+
+    // Vehicle at the given rank (1-based)
+    public synchronized Vehicle get(int rank) {
+        if (rank < 1 || rank > sizeOf(root)) {
+            throw new IndexOutOfBoundsException("Rank " + rank + " of " + sizeOf(root));
+        }
+        int node = root;
+        while (true) {
+            int leftSize = sizeOf(left[node]);
+            if (rank <= leftSize) {
+                node = left[node];
+            } else if (rank == leftSize + 1) {
+                return fleet.get(node);
+            } else {
+                rank -= leftSize + 1;
+                node = right[node];
+            }
+        }
+    }
+
+    // Efficiency the vehicle is currently ranked by (km/l)
+    public synchronized double getRankedEfficiency(Vehicle vehicle) {
+        int i = indexOf(vehicle);
+        return i == NIL ? Double.NaN : key[i];
+    }
+
+    public synchronized int size() { return sizeOf(root); }
+
+    // --- VehicleListener (simulation threads) ---
+
+    @Override
+    public void onLoadChanged(Vehicle vehicle, double cargo, int passengers) {
+        int i = indexOf(vehicle);
+        if (i == NIL) return;
+        synchronized (this) {
+            double efficiency = store.getEfficiency(vehicle.getSlot());
+            if (Double.compare(efficiency, key[i]) == 0) {
+                return; // Passengers do not change efficiency
+            }
+            remove(i);
+            key[i] = efficiency;
+            insert(i);
+        }
+    }
+
+    private int indexOf(Vehicle vehicle) {
+        if (vehicle.getStore() != store || vehicle.getSlot() >= indexBySlot.length) return NIL;
+        int i = indexBySlot[vehicle.getSlot()];
+        return fleet.get(i) == vehicle ? i : NIL;
+    }
+
+    // --- TREAP ---
+
+    // True if node a ranks ahead of node b
+    private boolean before(int a, int b) {
+        int c = Double.compare(key[b], key[a]); // Higher efficiency first
+        return c < 0 || (c == 0 && a < b);
+    }
+
+    private int sizeOf(int node) { return node == NIL ? 0 : size[node]; }
+
+    private void update(int node) {
+        size[node] = sizeOf(left[node]) + sizeOf(right[node]) + 1;
+    }
+
+    private void insert(int node) {
+        left[node] = NIL;
+        right[node] = NIL;
+        size[node] = 1;
+        split(root, node, false);
+        root = merge(merge(splitLeft, node), splitRight);
+    }
+
+    private void remove(int node) {
+        split(root, node, false);  // [ahead of node] [node, rest]
+        int ahead = splitLeft;
+        split(splitRight, node, true); // [node] [rest]
+        root = merge(ahead, splitRight);
+    }
+
+    /*
+     * Splits the subtree t into nodes ranked ahead of 'pivot' (splitLeft) and the rest
+     * (splitRight); with 'inclusive' the pivot itself goes to the left part.
+     */
+    private void split(int t, int pivot, boolean inclusive) {
+        if (t == NIL) {
+            splitLeft = NIL;
+            splitRight = NIL;
+            return;
+        }
+        boolean goesLeft = before(t, pivot) || (inclusive && t == pivot);
+        if (goesLeft) {
+            split(right[t], pivot, inclusive);
+            right[t] = splitLeft;
+            update(t);
+            splitLeft = t;
+        } else {
+            split(left[t], pivot, inclusive);
+            left[t] = splitRight;
+            update(t);
+            splitRight = t;
+        }
+    }
+
+    // Joins two treaps where every node of a ranks ahead of every node of b
+    private int merge(int a, int b) {
+        if (a == NIL) return b;
+        if (b == NIL) return a;
+        if (priority[a] > priority[b]) {
+            right[a] = merge(right[a], b);
+            update(a);
+            return a;
+        }
+        left[b] = merge(a, left[b]);
+        update(b);
+        return b;
+    }
+}
@@ -0,0 +1,290 @@
+package fleetmanagement.analytics;
+
+import fleetmanagement.exceptions.InvalidOperationException;
+import fleetmanagement.interfaces.CargoCarrier;
+import fleetmanagement.interfaces.FuelConsumable;
+import fleetmanagement.interfaces.PassengerCarrier;
+import fleetmanagement.interfaces.VehicleListener;
+import fleetmanagement.simulation.TelemetryRing;
+import fleetmanagement.vehicles.Airplane;
+import fleetmanagement.vehicles.Car;
+import fleetmanagement.vehicles.FleetStore;
+import fleetmanagement.vehicles.Truck;
+import fleetmanagement.vehicles.Vehicle;
+import fleetmanagement.vehicles.VehicleState;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Fleet-wide aggregates kept up to date as vehicles tick: mileage (total and per
+ * type), fuel on board, vehicles out of fuel, cargo and passengers. Reading any of
+ * them is O(1), so dashboards never walk the fleet.
+ *
+ * Each change event swaps the vehicle's new value into its 'known' slot and adds the
+ * difference to a LongAdder/DoubleAdder. The differences telescope, so if two events
+ * for one vehicle race, the total is off only until that vehicle's next event.
+ * recompute() sums the live values again on the fork-join pool to check this.
+ *
+ * Subscribed to a TelemetryRing whose sources are fleet positions, it also sums the
+ * highway distance each vehicle type reported over the ring (getReportedDistance()),
+ * on the drain thread, one add per type and batch.
+ *
+ * All vehicles must share one FleetStore; their slots index the known values.
+ */
+public class FleetAnalytics implements VehicleListener, TelemetryRing.Consumer {
+
+    private static final String[] TYPES = {"Car", "Truck", "Airplane", "Other"};
+    private static final int RECOMPUTE_CHUNK = 4096;
+
+    // Fleet totals at one point, from the running aggregates or from recompute()
+    public static final class Totals {
+        private final double[] mileageByType = new double[TYPES.length];
+        private double fuel;
+        private double cargo;
+        private long passengers;
+        private long outOfFuel;
+
+        public double getTotalMileage() {
+            double total = 0;
+            for (double m : mileageByType) total += m;
+            return total;
+        }
+
+        public double getMileage(String type) { return mileageByType[typeIndex(type)]; }
+        public double getTotalFuel() { return fuel; }
+        public double getCargoLoad() { return cargo; }
+        public long getPassengerLoad() { return passengers; }
+        public long getOutOfFuelCount() { return outOfFuel; }
+
+        private void add(Totals other) {
+            for (int t = 0; t < TYPES.length; t++) mileageByType[t] += other.mileageByType[t];
+            fuel += other.fuel;
+            cargo += other.cargo;
+            passengers += other.passengers;
+            outOfFuel += other.outOfFuel;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("mileage %.1f km (car %.1f, truck %.1f, airplane %.1f), fuel %.1f L, "
+                            + "out of fuel %d, cargo %.1f kg, passengers %d",
+                    getTotalMileage(), mileageByType[0], mileageByType[1], mileageByType[2],
+                    fuel, outOfFuel, cargo, passengers);
+        }
+    }
+
+    private final List<? extends Vehicle> fleet;
+    private final int[] indexBySlot;
+    private final byte[] typeOf;
+
+    // Last value seen per vehicle (doubles stored as raw long bits)
+    private final AtomicLongArray knownMileage;
+    private final AtomicLongArray knownFuel;
+    private final AtomicLongArray knownCargo;
+    private final AtomicIntegerArray knownPassengers;
+
+    private final DoubleAdder[] mileageByType = new DoubleAdder[TYPES.length];
+    private final DoubleAdder fuel = new DoubleAdder();
+    private final DoubleAdder cargo = new DoubleAdder();
+    private final LongAdder passengers = new LongAdder();
+    private final LongAdder outOfFuel = new LongAdder();
+    private final LongAdder[] reportedByType = new LongAdder[TYPES.length];
+    private final long[] batchByType = new long[TYPES.length]; // Drain thread only
+
+    public FleetAnalytics(List<? extends Vehicle> fleet) throws InvalidOperationException {
+        this.fleet = fleet;
+        FleetStore store = fleet.isEmpty() ? null : fleet.get(0).getStore();
+        this.indexBySlot = new int[store == null ? 0 : store.size()];
+        this.typeOf = new byte[fleet.size()];
+        this.knownMileage = new AtomicLongArray(fleet.size());
+        this.knownFuel = new AtomicLongArray(fleet.size());
+        this.knownCargo = new AtomicLongArray(fleet.size());
+        this.knownPassengers = new AtomicIntegerArray(fleet.size());
+        for (int t = 0; t < TYPES.length; t++) {
+            mileageByType[t] = new DoubleAdder();
+            reportedByType[t] = new LongAdder();
+        }
+
+        for (int i = 0; i < fleet.size(); i++) {
+            Vehicle v = fleet.get(i);
+            if (v.getStore() != store) {
+                throw new InvalidOperationException("All vehicles in fleet analytics must share one FleetStore");
+            }
+            indexBySlot[v.getSlot()] = i;
+            typeOf[i] = (byte) typeIndex(v);
+        }
+        // Listen first, then seed: a value changed in between is still counted once by its delta
+        for (Vehicle v : fleet) {
+            v.addVehicleListener(this);
+        }
+        for (int i = 0; i < fleet.size(); i++) {
+            Vehicle v = fleet.get(i);
+            onMileageChanged(v, v.getCurrentMileage());
+            onFuelChanged(v, fuelOf(v));
+            onLoadChanged(v, cargoOf(v), passengersOf(v));
+            if (v.getOwnState() == VehicleState.OUT_OF_FUEL) outOfFuel.increment();
+        }
+    }
+
+    public void detach() {
+        for (Vehicle v : fleet) {
+            v.removeVehicleListener(this);
+        }
+    }
+
+    // --- AGGREGATES (O(1)) ---
+
+    public double getTotalMileage() {
+        double total = 0;
+        for (DoubleAdder m : mileageByType) total += m.sum();
+        return total;
+    }
+
+    // "Car", "Truck" or "Airplane"
+    public double getMileage(String type) { return mileageByType[typeIndex(type)].sum(); }
+
+    // Highway distance the type reported over the telemetry ring (weighted, so an estimate under SAMPLE)
+    public long getReportedDistance(String type) { return reportedByType[typeIndex(type)].sum(); }
+
+    public double getTotalFuel() { return fuel.sum(); }
+
+    public long getOutOfFuelCount() { return outOfFuel.sum(); }
+
+    public double getCargoLoad() { return cargo.sum(); }
+
+    public long getPassengerLoad() { return passengers.sum(); }
+
+    public int getVehicleCount() { return fleet.size(); }
+
+    public Totals getTotals() {
+        Totals totals = new Totals();
+        for (int t = 0; t < TYPES.length; t++) totals.mileageByType[t] = mileageByType[t].sum();
+        totals.fuel = fuel.sum();
+        totals.cargo = cargo.sum();
+        totals.passengers = passengers.sum();
+        totals.outOfFuel = outOfFuel.sum();
+        return totals;
+    }
+
+    /*
+     * Sums every vehicle's current values from scratch, split across the common
+     * fork-join pool. O(fleet); meant for verifying the running aggregates (compare
+     * with getTotals() while the fleet is paused), not for dashboards.
+     */
+    public Totals recompute() {
+        return ForkJoinPool.commonPool().invoke(new Recompute(0, fleet.size()));
+    }
+
+    private final class Recompute extends RecursiveTask<Totals> {
+        private final int from;
+        private final int to;
+
+        Recompute(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Totals compute() {
+            if (to - from > RECOMPUTE_CHUNK) {
+                int mid = (from + to) >>> 1;
+                Recompute left = new Recompute(from, mid);
+                left.fork();
+                Totals totals = new Recompute(mid, to).compute();
+                totals.add(left.join());
+                return totals;
+            }
+            Totals totals = new Totals();
+            for (int i = from; i < to; i++) {
+                Vehicle v = fleet.get(i);
+                totals.mileageByType[typeOf[i]] += v.getCurrentMileage();
+                totals.fuel += fuelOf(v);
+                totals.cargo += cargoOf(v);
+                totals.passengers += passengersOf(v);
+                if (v.getOwnState() == VehicleState.OUT_OF_FUEL) totals.outOfFuel++;
+            }
+            return totals;
+        }
+    }
+
+    // --- VehicleListener (simulation threads) ---
+
+    @Override
+    public void onMileageChanged(Vehicle vehicle, double mileage) {
+        int i = indexBySlot[vehicle.getSlot()];
+        mileageByType[typeOf[i]].add(mileage - swap(knownMileage, i, mileage));
+    }
+
+    @Override
+    public void onFuelChanged(Vehicle vehicle, double fuelLevel) {
+        fuel.add(fuelLevel - swap(knownFuel, indexBySlot[vehicle.getSlot()], fuelLevel));
+    }
+
+    @Override
+    public void onLoadChanged(Vehicle vehicle, double cargoLoad, int passengerCount) {
+        int i = indexBySlot[vehicle.getSlot()];
+        cargo.add(cargoLoad - swap(knownCargo, i, cargoLoad));
+        passengers.add(passengerCount - knownPassengers.getAndSet(i, passengerCount));
+    }
+
+    @Override
+    public void onStateChanged(Vehicle vehicle, VehicleState oldState, VehicleState newState) {
+        if (newState == VehicleState.OUT_OF_FUEL) outOfFuel.increment();
+        else if (oldState == VehicleState.OUT_OF_FUEL) outOfFuel.decrement();
+    }
+
+    // --- TelemetryRing.Consumer (drain thread) ---
+
+    @Override
+    public void onBatch(TelemetryRing.Batch batch) {
+        for (int i = 0; i < batch.size(); i++) {
+            int source = batch.getSource(i);
+            int type = source >= 0 && source < typeOf.length ? typeOf[source] : TYPES.length - 1;
+            batchByType[type] += batch.getValue(i) * batch.getWeight(i);
+        }
+        for (int t = 0; t < TYPES.length; t++) {
+            if (batchByType[t] != 0) {
+                reportedByType[t].add(batchByType[t]);
+                batchByType[t] = 0;
+            }
+        }
+    }
+
+    // --- HELPERS ---
+
+    private static double swap(AtomicLongArray known, int index, double value) {
+        return Double.longBitsToDouble(known.getAndSet(index, Double.doubleToRawLongBits(value)));
+    }
+
+    private static double fuelOf(Vehicle v) {
+        return v instanceof FuelConsumable ? ((FuelConsumable) v).getFuelLevel() : 0.0;
+    }
+
+    private static double cargoOf(Vehicle v) {
+        return v instanceof CargoCarrier ? ((CargoCarrier) v).getCurrentCargo() : 0.0;
+    }
+
+    private static int passengersOf(Vehicle v) {
+        return v instanceof PassengerCarrier ? ((PassengerCarrier) v).getCurrentPassengers() : 0;
+    }
+
+    private static int typeIndex(Vehicle vehicle) {
+        if (vehicle instanceof Car) return 0;
+        if (vehicle instanceof Truck) return 1;
+        if (vehicle instanceof Airplane) return 2;
+        return 3;
+    }
+
+    private static int typeIndex(String type) {
+        for (int t = 0; t < TYPES.length - 1; t++) {
+            if (TYPES[t].equals(type)) return t;
+        }
+        return TYPES.length - 1;
+    }
+}
@@ -0,0 +1,178 @@
+package fleetmanagement.analytics;
+
+import fleetmanagement.exceptions.InvalidOperationException;
+import fleetmanagement.interfaces.FuelConsumable;
+import fleetmanagement.vehicles.FuelTank;
+import fleetmanagement.vehicles.Vehicle;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/*
+ * Batch version of estimateJourneyTime() and the fuel check of move(): plans N vehicles
+ * against M route distances at once and returns N x M matrices.
+ *
+ * The per-vehicle inputs are read once up front into primitive columns (hours per km,
+ * range on the fuel on board), so the N x M loop itself makes no virtual calls and
+ * mostly compares doubles. Rows are split over the common fork-join pool in blocks of about
+ * CHUNK_PAIRS pairs. Journey time is linear in the distance for every vehicle type
+ * (distance / maxSpeed * a land or air factor), so hours per km is estimateJourneyTime(1).
+ *
+ * A route is feasible for a vehicle if its tank holds the fuel for the whole distance,
+ * with the same micro-litre rounding as FuelTank.tryConsume(): distances within a hair
+ * of the vehicle's range are re-checked in fuel units. Vehicles that do not burn fuel
+ * can drive any route. Fuel levels are those at the time of the plan() call.
+ */
+public class JourneyPlanner {
+
+    private static final int CHUNK_PAIRS = 1 << 16;
+    // Relative band around a vehicle's range in which the exact fuel check decides
+    private static final double EXACT_BAND = 1e-9;
+
+    // Row-major N x M results: entry (v, r) is at v * routeCount + r
+    public static final class Plan {
+        private final int vehicleCount;
+        private final int routeCount;
+        private final double[] hours;
+        private final boolean[] feasible;
+
+        private Plan(int vehicleCount, int routeCount) {
+            this.vehicleCount = vehicleCount;
+            this.routeCount = routeCount;
+            this.hours = new double[vehicleCount * routeCount];
+            this.feasible = new boolean[vehicleCount * routeCount];
+        }
+
+        public int getVehicleCount() { return vehicleCount; }
+        public int getRouteCount() { return routeCount; }
+
+        public double getHours(int vehicle, int route) { return hours[vehicle * routeCount + route]; }
+        public boolean isFeasible(int vehicle, int route) { return feasible[vehicle * routeCount + route]; }
+
+        // The matrices themselves (not copied), for callers that scan them in bulk
+        public double[] getHoursMatrix() { return hours; }
+        public boolean[] getFeasibleMatrix() { return feasible; }
+
+        public long countFeasible() {
+            long count = 0;
+            for (boolean f : feasible) if (f) count++;
+            return count;
+        }
+
+        // Index of the vehicle that can drive the route in the least time, or -1 if none can
+        public int fastestFeasible(int route) {
+            int best = -1;
+            double bestHours = Double.POSITIVE_INFINITY;
+            for (int v = 0, i = route; v < vehicleCount; v++, i += routeCount) {
+                if (feasible[i] && hours[i] < bestHours) {
+                    bestHours = hours[i];
+                    best = v;
+                }
+            }
+            return best;
+        }
+    }
+
+    /*
+     * Plans every vehicle against every distance (km). Throws if a distance is negative
+     * or not a number, or if the matrices would not fit in an array.
+     */
+    public static Plan plan(List<? extends Vehicle> vehicles, double[] distances) throws InvalidOperationException {
+        int n = vehicles.size();
+        int m = distances.length;
+        if ((long) n * m > Integer.MAX_VALUE - 8) {
+            throw new InvalidOperationException("Too many vehicle-route pairs for one plan: " + (long) n * m);
+        }
+        for (double d : distances) {
+            if (!(d >= 0) || Double.isInfinite(d)) {
+                throw new InvalidOperationException("Route distances must be finite and non-negative: " + d);
+            }
+        }
+
+        // Gather the per-vehicle columns once
+        Columns columns = new Columns(n);
+        for (int v = 0; v < n; v++) {
+            Vehicle vehicle = vehicles.get(v);
+            columns.hoursPerKm[v] = vehicle.estimateJourneyTime(1.0);
+            if (vehicle instanceof FuelConsumable) {
+                double kmPerLitre = vehicle.calculateFuelEfficiency();
+                long fuel = FuelTank.toUnits(((FuelConsumable) vehicle).getFuelLevel());
+                columns.efficiency[v] = kmPerLitre;
+                columns.fuelUnits[v] = fuel;
+                columns.rangeKm[v] = FuelTank.toLitres(fuel) * kmPerLitre;
+                columns.bandKm[v] = columns.rangeKm[v] * EXACT_BAND + EXACT_BAND;
+            } else {
+                columns.rangeKm[v] = Double.POSITIVE_INFINITY;
+            }
+        }
+
+        Plan plan = new Plan(n, m);
+        int rowsPerTask = Math.max(1, CHUNK_PAIRS / Math.max(1, m));
+        ForkJoinPool.commonPool().invoke(new Rows(plan, distances.clone(), columns, 0, n, rowsPerTask));
+        return plan;
+    }
+
+    // Per-vehicle inputs, one primitive array each
+    private static final class Columns {
+        final double[] hoursPerKm;
+        final double[] rangeKm;
+        final double[] bandKm;
+        final double[] efficiency;
+        final long[] fuelUnits;
+
+        Columns(int n) {
+            hoursPerKm = new double[n];
+            rangeKm = new double[n];
+            bandKm = new double[n];
+            efficiency = new double[n];
+            fuelUnits = new long[n];
+        }
+    }
+
+    private static final class Rows extends RecursiveAction {
+        private final Plan plan;
+        private final double[] distances;
+        private final Columns columns;
+        private final int from;
+        private final int to;
+        private final int rowsPerTask;
+
+        Rows(Plan plan, double[] distances, Columns columns, int from, int to, int rowsPerTask) {
+            this.plan = plan;
+            this.distances = distances;
+            this.columns = columns;
+            this.from = from;
+            this.to = to;
+            this.rowsPerTask = rowsPerTask;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > rowsPerTask) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new Rows(plan, distances, columns, from, mid, rowsPerTask),
+                        new Rows(plan, distances, columns, mid, to, rowsPerTask));
+                return;
+            }
+            double[] hours = plan.hours;
+            boolean[] feasible = plan.feasible;
+            int m = distances.length;
+            for (int v = from; v < to; v++) {
+                double perKm = columns.hoursPerKm[v];
+                double range = columns.rangeKm[v];
+                double band = columns.bandKm[v];
+                int base = v * m;
+                for (int r = 0; r < m; r++) {
+                    double d = distances[r];
+                    hours[base + r] = d * perKm;
+                    boolean reachable = d <= range;
+                    if (Math.abs(d - range) <= band) {
+                        reachable = FuelTank.toUnits(d / columns.efficiency[v]) <= columns.fuelUnits[v];
+                    }
+                    feasible[base + r] = reachable;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package fleetmanagement.analytics;
+
+import fleetmanagement.exceptions.InvalidOperationException;
+import fleetmanagement.interfaces.Maintainable;
+import fleetmanagement.interfaces.VehicleListener;
+import fleetmanagement.vehicles.FleetStore;
+import fleetmanagement.vehicles.Vehicle;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/*
+ * Index of Maintainable vehicles by how far they are from their next service,
+ * kept up to date from vehicle events instead of polling needsMaintenance().
+ *
+ * Vehicles sit in buckets of BUCKET_KM mileage (0 .. SERVICE_INTERVAL_KM), plus one
+ * DUE bucket for vehicles that need maintenance now. Each bucket is an intrusive
+ * linked list over fleet positions, so moving a vehicle is O(1), and a Fenwick tree
+ * over the bucket sizes finds the most urgent non-empty bucket in O(log buckets).
+ * A vehicle changes bucket once every BUCKET_KM, so most ticks only compare two ints
+ * and never take the lock. Order within a bucket is arbitrary, i.e. the queries are
+ * exact to within BUCKET_KM (and exact for "due or not").
+ *
+ * Listeners hear about a vehicle when it becomes due: crossing the threshold in
+ * addMileage(), or scheduleMaintenance(). All vehicles must share one FleetStore.
+ */
+public class MaintenanceScheduler implements VehicleListener {
+
+    // Notified on the thread that made the vehicle due (usually a simulation thread)
+    public interface Listener {
+        void onMaintenanceDue(Vehicle vehicle);
+    }
+
+    public static final int BUCKET_KM = 10;
+    private static final int NOT_INDEXED = -1;
+    private static final int DUE = (int) (Maintainable.SERVICE_INTERVAL_KM / BUCKET_KM) + 1;
+    private static final int BUCKETS = DUE + 1;
+
+    private final List<? extends Vehicle> fleet;
+    private final int[] indexBySlot;
+    private final CopyOnWriteArrayList<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    // Bucket of every vehicle; read without the lock by the fast path in reindex()
+    private final AtomicIntegerArray bucketOf;
+
+    // Guarded by 'this': the bucket lists and the Fenwick tree of bucket sizes
+    private final int[] head = new int[BUCKETS];
+    private final int[] next;
+    private final int[] prev;
+    private final int[] tree = new int[BUCKETS + 1];
+    private int indexed;
+
+    public MaintenanceScheduler(List<? extends Vehicle> fleet) throws InvalidOperationException {
+        this.fleet = fleet;
+        FleetStore store = fleet.isEmpty() ? null : fleet.get(0).getStore();
+        this.indexBySlot = new int[store == null ? 0 : store.size()];
+        this.bucketOf = new AtomicIntegerArray(fleet.size());
+        this.next = new int[fleet.size()];
+        this.prev = new int[fleet.size()];
+        Arrays.fill(head, -1);
+
+        for (int i = 0; i < fleet.size(); i++) {
+            Vehicle v = fleet.get(i);
+            if (v.getStore() != store) {
+                throw new InvalidOperationException("All vehicles in the maintenance index must share one FleetStore");
+            }
+            indexBySlot[v.getSlot()] = i;
+            bucketOf.set(i, NOT_INDEXED);
+        }
+        for (int i = 0; i < fleet.size(); i++) {
+            Vehicle v = fleet.get(i);
+            if (v instanceof Maintainable) {
+                v.addVehicleListener(this);
+                reindex(v);
+            }
+        }
+    }
+
+    public void detach() {
+        for (Vehicle v : fleet) {
+            v.removeVehicleListener(this);
+        }
+    }
+
+    public void addListener(Listener listener) { listeners.add(listener); }
+
+    public void removeListener(Listener listener) { listeners.remove(listener); }
+
+    // --- QUERIES ---
+
+    /*
+     * Up to n vehicles, most urgent first: the ones due now, then the ones with the
+     * least mileage left. O(log buckets) per non-empty bucket visited, plus O(n).
+     */
+    public synchronized List<Vehicle> nextDue(int n) {
+        List<Vehicle> result = new ArrayList<>(Math.min(Math.max(n, 0), indexed));
+        int bucket = highestNonEmpty(BUCKETS - 1);
+        while (bucket >= 0 && result.size() < n) {
+            for (int i = head[bucket]; i != -1 && result.size() < n; i = next[i]) {
+                result.add(fleet.get(i));
+            }
+            bucket = highestNonEmpty(bucket - 1);
+        }
+        return result;
+    }
+
+    // Vehicles that need maintenance now
+    public synchronized int countDue() {
+        return prefix(BUCKETS - 1) - prefix(DUE - 1);
+    }
+
+    // Vehicles that are due now or within 'km' more kilometres (to BUCKET_KM precision)
+    public synchronized int countDueWithin(double km) {
+        double mileage = Math.max(0.0, Maintainable.SERVICE_INTERVAL_KM - km);
+        int first = Math.min(DUE, (int) (mileage / BUCKET_KM));
+        return prefix(BUCKETS - 1) - prefix(first - 1);
+    }
+
+    public synchronized int getIndexedCount() { return indexed; }
+
+    // Kilometres left until the vehicle's next service (0 when it is due)
+    public static double getRemainingKm(Vehicle vehicle) {
+        if (!(vehicle instanceof Maintainable) || ((Maintainable) vehicle).needsMaintenance()) return 0.0;
+        return Maintainable.SERVICE_INTERVAL_KM - vehicle.getCurrentMileage();
+    }
+
+    // --- VehicleListener (simulation threads) ---
+
+    @Override
+    public void onMileageChanged(Vehicle vehicle, double mileage) {
+        reindex(vehicle);
+    }
+
+    @Override
+    public void onMaintenanceScheduled(Vehicle vehicle) {
+        reindex(vehicle);
+    }
+
+    private void reindex(Vehicle vehicle) {
+        int i = indexBySlot[vehicle.getSlot()];
+        if (bucketOf.get(i) == bucketFor(vehicle)) {
+            return; // Same bucket as before: nothing to move, no lock
+        }
+        boolean becameDue;
+        synchronized (this) {
+            int from = bucketOf.get(i);
+            int to = bucketFor(vehicle); // Re-read under the lock, so the last move wins
+            if (from == to) return;
+            if (from != NOT_INDEXED) {
+                unlink(i, from);
+            } else {
+                indexed++;
+            }
+            link(i, to);
+            bucketOf.set(i, to);
+            becameDue = to == DUE && from != NOT_INDEXED;
+        }
+        if (becameDue) {
+            for (Listener l : listeners) {
+                l.onMaintenanceDue(vehicle);
+            }
+        }
+    }
+
+    private static int bucketFor(Vehicle vehicle) {
+        if (((Maintainable) vehicle).needsMaintenance()) return DUE;
+        return Math.min(DUE - 1, (int) (vehicle.getCurrentMileage() / BUCKET_KM));
+    }
+
+    // --- BUCKET LISTS ---
+
+    private void link(int i, int bucket) {
+        prev[i] = -1;
+        next[i] = head[bucket];
+        if (head[bucket] != -1) prev[head[bucket]] = i;
+        head[bucket] = i;
+        add(bucket, 1);
+    }
+
+    private void unlink(int i, int bucket) {
+        if (prev[i] != -1) next[prev[i]] = next[i];
+        else head[bucket] = next[i];
+        if (next[i] != -1) prev[next[i]] = prev[i];
+        add(bucket, -1);
+    }
+
+    // --- FENWICK TREE (bucket sizes) ---
+
+    private void add(int bucket, int delta) {
+        for (int k = bucket + 1; k <= BUCKETS; k += k & -k) {
+            tree[k] += delta;
+        }
+    }
+
+    // Vehicles in buckets 0..bucket
+    private int prefix(int bucket) {
+        int sum = 0;
+        for (int k = bucket + 1; k > 0; k -= k & -k) {
+            sum += tree[k];
+        }
+        return sum;
+    }
+
+    // Highest non-empty bucket <= limit, or -1
+    private int highestNonEmpty(int limit) {
+        if (limit < 0) return -1;
+        int target = prefix(limit);
+        if (target == 0) return -1;
+        // Smallest k with prefix(k) == target, found by descending the tree
+        int pos = 0;
+        int remaining = target;
+        for (int step = Integer.highestOneBit(BUCKETS); step > 0; step >>= 1) {
+            int k = pos + step;
+            if (k <= BUCKETS && tree[k] < remaining) {
+                pos = k;
+                remaining -= tree[k];
+            }
+        }
+        return pos; // Fenwick index pos + 1, i.e. bucket pos
+    }
+}
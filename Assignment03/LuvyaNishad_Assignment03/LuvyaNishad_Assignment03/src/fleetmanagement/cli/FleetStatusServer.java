@@ -0,0 +1,316 @@
+package fleetmanagement.cli;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import fleetmanagement.analytics.EfficiencyRanking;
+import fleetmanagement.analytics.MaintenanceScheduler;
+import fleetmanagement.exceptions.InvalidOperationException;
+import fleetmanagement.interfaces.SimulationEngine;
+import fleetmanagement.metrics.FleetMetrics;
+import fleetmanagement.persistence.EventJournal;
+import fleetmanagement.simulation.EngineFactory;
+import fleetmanagement.simulation.SegmentedHighway;
+import fleetmanagement.simulation.StripedHighwayCounter;
+import fleetmanagement.vehicles.FleetControl;
+import fleetmanagement.vehicles.FleetStore;
+import fleetmanagement.vehicles.Vehicle;
+import fleetmanagement.vehicles.VehicleFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * Runs the fleet on a server without any AWT/Swing, and reports on it over HTTP.
+ * Usage: java fleetmanagement.cli.FleetStatusServer [vehicles] [port]
+ * (defaults: 3 vehicles, port 8080; the engine is picked with -Dfleet.engine as in the GUI)
+ * With -Dfleet.journal.dir=<dir> every change is journaled there (EventJournal), and a
+ * restart recovers the fleet from that directory instead of creating a new one. The
+ * journal is checkpointed every -Dfleet.journal.checkpoint.seconds (default 60), which
+ * keeps it from growing without bound.
+ *
+ * Endpoints (GET, JSON, bound to the loopback address only):
+ *   /status          fleet totals and status counts
+ *   /counter         shared highway counter and its contention statistics
+ *   /vehicles        every vehicle's state
+ *   /vehicles/{id}   one vehicle's state
+ *   /maintenance?n=  the n vehicles closest to (or past) their service, default 10
+ *   /ranking?n=      the n most fuel-efficient vehicles, default 10
+ *   /ranking/{id}    one vehicle's efficiency rank
+ *   /highway         vehicles and km driven per highway segment
+ *   /highway?from=X&to=Y  the vehicles between km X and Y of the loop
+ *
+ * Every response comes from a StatusSnapshot that is rebuilt every
+ * -Dfleet.snapshot.millis (default 1000) by one background thread, so the cost of
+ * polling does not depend on the number of clients and never slows down the vehicle
+ * threads. /maintenance, /ranking and /highway are captured into it from indexes the
+ * vehicles keep up to date (MaintenanceScheduler, EfficiencyRanking, SegmentedHighway);
+ * HTTP threads never touch a vehicle or take an index's lock.
+ */
+public class FleetStatusServer {
+
+    private final List<Vehicle> fleet;
+    private final StripedHighwayCounter highwayDistance;
+    private final Map<String, Integer> indexById = new HashMap<>();
+    private final MaintenanceScheduler maintenance;
+    private final EfficiencyRanking ranking;
+    private final SegmentedHighway highway;
+    private final long startedAt = System.currentTimeMillis();
+    private volatile StatusSnapshot snapshot;
+
+    public FleetStatusServer(List<Vehicle> fleet, StripedHighwayCounter highwayDistance)
+            throws InvalidOperationException {
+        this.fleet = fleet;
+        this.highwayDistance = highwayDistance;
+        this.maintenance = new MaintenanceScheduler(fleet);
+        this.ranking = new EfficiencyRanking(fleet);
+        this.highway = new SegmentedHighway(fleet);
+        for (int i = 0; i < fleet.size(); i++) {
+            indexById.put(fleet.get(i).getId(), i);
+        }
+        snapshot = capture(); // The first one must succeed; a failure here fails the constructor
+    }
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        try {
+            int vehicles = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+            int port = args.length > 1 ? Integer.parseInt(args[1]) : 8080;
+            long refreshMillis = Long.getLong("fleet.snapshot.millis", 1000L);
+            long checkpointSeconds = Long.getLong("fleet.journal.checkpoint.seconds", 60L);
+            if (vehicles < 1 || refreshMillis < 1 || checkpointSeconds < 1) throw new NumberFormatException();
+
+            StripedHighwayCounter highwayDistance = new StripedHighwayCounter();
+            String journalDir = System.getProperty("fleet.journal.dir");
+            Path journalPath = journalDir == null ? null : Paths.get(journalDir);
+            List<Vehicle> fleet;
+            if (journalPath != null && EventJournal.canRecover(journalPath)) {
+                fleet = EventJournal.recover(journalPath, new FleetStore());
+                vehicles = fleet.size();
+                System.out.println("Recovered " + vehicles + " vehicles from " + journalPath);
+            } else {
+                fleet = VehicleFactory.createFleet(vehicles, new FleetStore());
+            }
+            FleetControl control = new FleetControl();
+            for (Vehicle v : fleet) {
+                v.setSimulator(highwayDistance);
+                v.setFleetControl(control);
+            }
+            SimulationEngine engine = EngineFactory.fromSystemProperties();
+            FleetMetrics.global().watchCounter(highwayDistance);
+            control.addListener(FleetMetrics.global());
+            FleetMetrics.registerMBeans();
+            FleetStatusServer server = new FleetStatusServer(fleet, highwayDistance);
+            EventJournal journal = journalPath == null ? null : new EventJournal(journalPath, fleet);
+            ScheduledExecutorService checkpointer = Executors.newSingleThreadScheduledExecutor(daemon("journal-checkpoint"));
+            if (journal != null) {
+                checkpointer.scheduleWithFixedDelay(() -> checkpoint(journal),
+                        checkpointSeconds, checkpointSeconds, TimeUnit.SECONDS);
+            }
+            HttpServer http = server.start(port, refreshMillis);
+            engine.start(fleet);
+
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                http.stop(0);
+                control.stop();
+                engine.shutdown();
+                checkpointer.shutdownNow();
+                if (journal != null) {
+                    try {
+                        journal.close();
+                    } catch (IOException e) {
+                        System.out.println("Error: " + e.getMessage());
+                    }
+                }
+            }));
+            System.out.println("Serving " + vehicles + " vehicles on http://" + http.getAddress().getHostString()
+                    + ":" + http.getAddress().getPort() + "/status");
+        } catch (NumberFormatException e) {
+            System.out.println("Usage: java fleetmanagement.cli.FleetStatusServer [vehicles] [port]");
+        } catch (InvalidOperationException | IOException e) {
+            System.out.println("Error: " + e.getMessage());
+        }
+    }
+
+    // Runs on the checkpoint timer; a failed checkpoint is reported and retried on the next tick
+    private static void checkpoint(EventJournal journal) {
+        try {
+            journal.checkpoint();
+        } catch (IOException | InvalidOperationException e) {
+            System.out.println("Error: journal checkpoint failed: " + e.getMessage());
+        }
+    }
+
+    /*
+     * Binds the HTTP server to the loopback address and starts the snapshot refresher.
+     * Port 0 picks a free port (see HttpServer.getAddress()).
+     */
+    public HttpServer start(int port, long refreshMillis) throws IOException {
+        ScheduledExecutorService refresher = Executors.newSingleThreadScheduledExecutor(daemon("status-snapshot"));
+        refresher.scheduleAtFixedRate(this::refresh, refreshMillis, refreshMillis, TimeUnit.MILLISECONDS);
+
+        HttpServer http = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        http.createContext("/status", exchange -> reply(exchange, snapshot.getStatus()));
+        http.createContext("/counter", exchange -> reply(exchange, snapshot.getCounter()));
+        http.createContext("/vehicles", this::vehicles);
+        http.createContext("/maintenance", this::maintenance);
+        http.createContext("/ranking", this::ranking);
+        http.createContext("/highway", this::highway);
+        // Handlers only copy bytes, so a couple of threads serve any number of pollers
+        ExecutorService workers = Executors.newFixedThreadPool(2, daemon("http"));
+        http.setExecutor(workers);
+        http.start();
+        return http;
+    }
+
+    public StatusSnapshot getSnapshot() { return snapshot; }
+
+    /*
+     * Runs on the snapshot timer. An exception would silently cancel the timer, so a
+     * failed capture is reported, the last snapshot keeps being served, and the next
+     * tick tries again.
+     */
+    private void refresh() {
+        try {
+            snapshot = capture();
+        } catch (RuntimeException e) {
+            System.out.println("Error: status snapshot refresh failed: " + e);
+        }
+    }
+
+    private StatusSnapshot capture() {
+        return StatusSnapshot.capture(fleet, highwayDistance, maintenance, ranking, highway, startedAt);
+    }
+
+    private void vehicles(HttpExchange exchange) throws IOException {
+        StatusSnapshot current = snapshot; // One snapshot for the whole request
+        String path = exchange.getRequestURI().getPath();
+        if (path.equals("/vehicles") || path.equals("/vehicles/")) {
+            reply(exchange, current.getVehicles());
+            return;
+        }
+        Integer index = indexById.get(path.substring("/vehicles/".length()));
+        if (index == null) {
+            send(exchange, 404, "{\"error\":\"Unknown vehicle\"}".getBytes(StandardCharsets.US_ASCII));
+            return;
+        }
+        reply(exchange, current.getVehicle(index));
+    }
+
+    private void maintenance(HttpExchange exchange) throws IOException {
+        int n = countParameter(exchange);
+        if (n < 0) return;
+        reply(exchange, snapshot.getMaintenance(n));
+    }
+
+    private void ranking(HttpExchange exchange) throws IOException {
+        StatusSnapshot current = snapshot;
+        String path = exchange.getRequestURI().getPath();
+        if (path.startsWith("/ranking/") && path.length() > "/ranking/".length()) {
+            Integer index = indexById.get(path.substring("/ranking/".length()));
+            if (index == null) {
+                send(exchange, 404, "{\"error\":\"Unknown vehicle\"}".getBytes(StandardCharsets.US_ASCII));
+                return;
+            }
+            reply(exchange, current.getRank(index));
+            return;
+        }
+        int n = countParameter(exchange);
+        if (n < 0) return;
+        reply(exchange, current.getRanking(n));
+    }
+
+    private void highway(HttpExchange exchange) throws IOException {
+        String query = exchange.getRequestURI().getQuery();
+        if (query != null) {
+            double from = Double.NaN;
+            double to = Double.NaN;
+            for (String pair : query.split("&")) {
+                try {
+                    if (pair.startsWith("from=")) from = Double.parseDouble(pair.substring(5));
+                    else if (pair.startsWith("to=")) to = Double.parseDouble(pair.substring(3));
+                } catch (NumberFormatException e) {
+                    // Left as NaN, rejected below
+                }
+            }
+            if (!Double.isFinite(from) || !Double.isFinite(to)) {
+                send(exchange, 400, "{\"error\":\"from and to must be numbers (km)\"}".getBytes(StandardCharsets.US_ASCII));
+                return;
+            }
+            reply(exchange, snapshot.getHighwayBetween(from, to));
+            return;
+        }
+        reply(exchange, snapshot.getHighway());
+    }
+
+    /*
+     * The ?n= parameter (default 10), capped at the fleet size; replies 400 and
+     * returns -1 if it is not a number or negative.
+     */
+    private int countParameter(HttpExchange exchange) throws IOException {
+        int n = 10;
+        String query = exchange.getRequestURI().getQuery();
+        if (query != null && query.startsWith("n=")) {
+            try {
+                n = Integer.parseInt(query.substring(2));
+            } catch (NumberFormatException e) {
+                n = -1;
+            }
+        }
+        if (n < 0) {
+            send(exchange, 400, "{\"error\":\"n must be a number >= 0\"}".getBytes(StandardCharsets.US_ASCII));
+            return -1;
+        }
+        return Math.min(n, fleet.size());
+    }
+
+    // --- HTTP HELPERS ---
+
+    private static void reply(HttpExchange exchange, byte[] json) throws IOException {
+        String method = exchange.getRequestMethod();
+        if (!method.equals("GET") && !method.equals("HEAD")) {
+            exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+            send(exchange, 405, "{\"error\":\"Method not allowed\"}".getBytes(StandardCharsets.US_ASCII));
+            return;
+        }
+        send(exchange, 200, json);
+    }
+
+    private static void send(HttpExchange exchange, int code, byte[] json) throws IOException {
+        try {
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+            boolean head = exchange.getRequestMethod().equals("HEAD");
+            exchange.sendResponseHeaders(code, head ? -1 : json.length);
+            if (!head) {
+                try (OutputStream body = exchange.getResponseBody()) {
+                    body.write(json);
+                }
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static ThreadFactory daemon(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return task -> {
+            Thread thread = new Thread(task, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
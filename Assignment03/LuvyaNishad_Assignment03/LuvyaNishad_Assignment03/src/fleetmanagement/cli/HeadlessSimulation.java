@@ -0,0 +1,103 @@
+package fleetmanagement.cli;
+
+import fleetmanagement.exceptions.InvalidOperationException;
+import fleetmanagement.simulation.DiscreteEventSimulator;
+import fleetmanagement.simulation.EngineFactory;
+import fleetmanagement.simulation.StripedHighwayCounter;
+import fleetmanagement.vehicles.FleetStore;
+import fleetmanagement.vehicles.Vehicle;
+import fleetmanagement.vehicles.VehicleFactory;
+import fleetmanagement.vehicles.VehicleState;
+
+import java.util.List;
+
+/*
+ * Runs the fleet without any GUI, as fast as the CPU allows.
+ * Usage: java fleetmanagement.cli.HeadlessSimulation [vehicles] [hours] [events|bulk]
+ * (defaults: 3 vehicles, 24 hours of simulated traffic, discrete-event mode)
+ *
+ * "events" runs every vehicle through the discrete-event core (statuses, pauses, refuels).
+ * "bulk" skips the per-vehicle objects and advances the columnar FleetStore one second
+ * at a time, which is the fastest way to project fuel and mileage for a large fleet.
+ * It only projects the numbers: no statuses change and no listeners fire, so the
+ * vehicles that ran dry are counted from their fuel at the end.
+ */
+public class HeadlessSimulation {
+
+    public static void main(String[] args) {
+        try {
+            int vehicles = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+            double hours = args.length > 1 ? Double.parseDouble(args[1]) : 24.0;
+            String mode = args.length > 2 ? args[2] : "events";
+            if (mode.equals("bulk")) {
+                runBulk(vehicles, hours);
+            } else if (mode.equals("events")) {
+                run(vehicles, hours);
+            } else {
+                throw new NumberFormatException(mode);
+            }
+        } catch (NumberFormatException e) {
+            System.out.println("Usage: java fleetmanagement.cli.HeadlessSimulation [vehicles] [hours] [events|bulk]");
+        } catch (InvalidOperationException e) {
+            System.out.println("Error: " + e.getMessage());
+        }
+    }
+
+    private static void run(int vehicles, double hours) throws InvalidOperationException {
+        StripedHighwayCounter highwayDistance = new StripedHighwayCounter();
+        List<Vehicle> fleet = VehicleFactory.createFleet(vehicles, new FleetStore());
+        for (Vehicle v : fleet) {
+            v.setSimulator(highwayDistance);
+        }
+
+        DiscreteEventSimulator simulator = new DiscreteEventSimulator(EngineFactory.DEFAULT_TICK_MILLIS, 0);
+        simulator.start(fleet);
+
+        long virtualMillis = (long) (hours * 3_600_000L);
+        long wallStart = System.nanoTime();
+        simulator.runUntil(virtualMillis);
+        double wallSeconds = (System.nanoTime() - wallStart) / 1e9;
+
+        double realTotal = 0;
+        int outOfFuel = 0;
+        for (Vehicle v : fleet) {
+            realTotal += v.getCurrentMileage();
+            if (v.getState() == VehicleState.OUT_OF_FUEL) outOfFuel++;
+        }
+
+        System.out.printf("Simulated %.1f h of traffic for %d vehicles in %.3f s (%.0fx real time)%n",
+                hours, vehicles, wallSeconds, virtualMillis / 1000.0 / Math.max(wallSeconds, 1e-9));
+        System.out.printf("Events processed: %d%n", simulator.getProcessedEvents());
+        System.out.printf("Shared Highway Distance: %d  |  Real Total: %.0f%n", highwayDistance.getHighwayDistance(), realTotal);
+        System.out.printf("Out of fuel: %d / %d%n", outOfFuel, vehicles);
+        simulator.shutdown();
+    }
+
+    private static void runBulk(int vehicles, double hours) throws InvalidOperationException {
+        StripedHighwayCounter highwayDistance = new StripedHighwayCounter();
+        FleetStore store = new FleetStore();
+        List<Vehicle> fleet = VehicleFactory.createFleet(vehicles, store);
+
+        long seconds = (long) (hours * 3600);
+        long vehicleTicks = 0;
+        long wallStart = System.nanoTime();
+        for (long second = 0; second < seconds; second++) {
+            int moved = store.tick(1.0);
+            if (moved == 0) break; // Whole fleet is out of fuel; nothing left to simulate
+            highwayDistance.add(moved);
+            vehicleTicks += moved;
+        }
+        double wallSeconds = (System.nanoTime() - wallStart) / 1e9;
+
+        double realTotal = 0;
+        for (Vehicle v : fleet) {
+            realTotal += v.getCurrentMileage();
+        }
+        int outOfFuel = store.countDry(1.0); // Can no longer make the next second's kilometre
+
+        System.out.printf("Simulated %.1f h of traffic for %d vehicles in %.3f s (%.0f vehicle ticks/s)%n",
+                hours, vehicles, wallSeconds, vehicleTicks / Math.max(wallSeconds, 1e-9));
+        System.out.printf("Shared Highway Distance: %d  |  Real Total: %.0f%n", highwayDistance.getHighwayDistance(), realTotal);
+        System.out.printf("Out of fuel: %d / %d%n", outOfFuel, vehicles);
+    }
+}
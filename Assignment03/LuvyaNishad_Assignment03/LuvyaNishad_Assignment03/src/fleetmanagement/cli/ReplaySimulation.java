@@ -0,0 +1,232 @@
+package fleetmanagement.cli;
+
+import fleetmanagement.exceptions.InvalidOperationException;
+import fleetmanagement.interfaces.CargoCarrier;
+import fleetmanagement.interfaces.FuelConsumable;
+import fleetmanagement.interfaces.Maintainable;
+import fleetmanagement.interfaces.PassengerCarrier;
+import fleetmanagement.persistence.InputRecording;
+import fleetmanagement.simulation.DiscreteEventSimulator;
+import fleetmanagement.simulation.EngineFactory;
+import fleetmanagement.simulation.StripedHighwayCounter;
+import fleetmanagement.vehicles.FleetControl;
+import fleetmanagement.vehicles.FleetStore;
+import fleetmanagement.vehicles.Vehicle;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/*
+ * Replays a run recorded by the GUI (-Dfleet.record=<dir>) deterministically and as fast
+ * as the CPU allows, for regression runs between builds.
+ * Usage: java fleetmanagement.cli.ReplaySimulation <recording> [--runs n]
+ *            [--out result.csv] [--baseline previous.csv]
+ *
+ * The recorded fleet is run on the discrete-event core in compressed mode, with every
+ * recorded input (refuel, pause, resume, stop) fired at its recorded virtual time, up
+ * to the end of the recording. Events at the same virtual time fire in a fixed order,
+ * so a replay always ends in the same state, whatever the thread timing of the
+ * original run.
+ *
+ * The replay is run n times (default 3); the runs must end in identical states, and
+ * the fastest one is reported. --out saves the final state of every vehicle and the
+ * timings; --baseline compares against a file saved by another build and prints every
+ * vehicle whose final state differs and the change in timings. The exit code is 1 if
+ * the state differs from the baseline or between runs.
+ */
+public class ReplaySimulation {
+
+    private static final String TIMING = "timing.";
+
+    public static void main(String[] args) {
+        Path recording = null;
+        int runs = 3;
+        Path out = null;
+        Path baseline = null;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                if (args[i].equals("--runs") && i + 1 < args.length) runs = Integer.parseInt(args[++i]);
+                else if (args[i].equals("--out") && i + 1 < args.length) out = Path.of(args[++i]);
+                else if (args[i].equals("--baseline") && i + 1 < args.length) baseline = Path.of(args[++i]);
+                else if (recording == null && !args[i].startsWith("--")) recording = Path.of(args[i]);
+                else throw new NumberFormatException(args[i]);
+            }
+            if (recording == null || runs < 1) throw new NumberFormatException();
+        } catch (NumberFormatException e) {
+            System.out.println("Usage: java fleetmanagement.cli.ReplaySimulation <recording> [--runs n]"
+                    + " [--out result.csv] [--baseline previous.csv]");
+            return;
+        }
+
+        try {
+            Map<String, String> result = null;
+            boolean consistent = true;
+            for (int run = 0; run < runs; run++) {
+                Map<String, String> next = replay(recording);
+                if (result == null) {
+                    result = next;
+                } else {
+                    consistent &= diff(result, next, "run 1", "run " + (run + 1)) == 0;
+                    if (Double.parseDouble(next.get(TIMING + "wallMillis")) < Double.parseDouble(result.get(TIMING + "wallMillis"))) {
+                        result = next; // Same state; keep the fastest timings
+                    }
+                }
+            }
+            print(result, runs);
+            if (!consistent) {
+                System.out.println("Replays of the same recording ended in different states");
+            }
+
+            int differences = 0;
+            if (baseline != null) {
+                differences = diff(load(baseline), result, "baseline", "this build");
+                System.out.println(differences == 0
+                        ? "Final state identical to the baseline"
+                        : "Final state differs from the baseline in " + differences + " entries");
+            }
+            if (out != null) {
+                save(out, result);
+                System.out.println("Result saved to " + out);
+            }
+            if (!consistent || differences > 0) System.exit(1);
+        } catch (IOException | InvalidOperationException e) {
+            System.out.println("Error: " + e.getMessage());
+        }
+    }
+
+    /*
+     * One replay of the recording, from a fresh copy of its fleet. The result holds the
+     * final state (run.* and vehicle.<id>) and the timings (timing.*), in a fixed order.
+     */
+    private static Map<String, String> replay(Path directory) throws IOException, InvalidOperationException {
+        InputRecording recording = InputRecording.read(directory, new FleetStore());
+        List<Vehicle> fleet = recording.getFleet();
+        StripedHighwayCounter highwayDistance = new StripedHighwayCounter();
+        FleetControl control = new FleetControl();
+        for (Vehicle v : fleet) {
+            v.setSimulator(highwayDistance);
+            v.setFleetControl(control);
+        }
+
+        DiscreteEventSimulator simulator = new DiscreteEventSimulator(EngineFactory.DEFAULT_TICK_MILLIS, 0);
+        // Scheduled before the vehicles, so an input fires ahead of the ticks due at the same time
+        for (InputRecording.Input input : recording.getInputs()) {
+            simulator.schedule(input.getTimeMillis(), () -> apply(input, fleet, control));
+        }
+        simulator.start(fleet);
+        long wallStart = System.nanoTime();
+        simulator.runUntil(recording.getEndMillis());
+        double wallMillis = (System.nanoTime() - wallStart) / 1e6;
+        simulator.shutdown();
+
+        Map<String, String> result = new LinkedHashMap<>();
+        result.put("run.simulatedMillis", Long.toString(simulator.now()));
+        result.put("run.inputs", Integer.toString(recording.getInputs().size()));
+        result.put("run.events", Long.toString(simulator.getProcessedEvents()));
+        result.put("run.highwayDistance", Long.toString(highwayDistance.getHighwayDistance()));
+        for (Vehicle v : fleet) {
+            result.put("vehicle." + v.getId(), stateOf(v));
+        }
+        result.put(TIMING + "wallMillis", String.format(Locale.ROOT, "%.3f", wallMillis));
+        result.put(TIMING + "nanosPerEvent", String.format(Locale.ROOT, "%.1f",
+                wallMillis * 1e6 / Math.max(1, simulator.getProcessedEvents())));
+        return result;
+    }
+
+    // Same effect as the GUI control that produced the input
+    private static void apply(InputRecording.Input input, List<Vehicle> fleet, FleetControl control) {
+        switch (input.getAction()) {
+            case REFUEL:
+                Vehicle v = fleet.get(input.getVehicle());
+                if (v instanceof FuelConsumable) {
+                    FuelConsumable tank = (FuelConsumable) v;
+                    try {
+                        if (tank.getFuelLevel() < tank.getFuelCapacity()) {
+                            tank.refuel(tank.getFuelCapacity());
+                        }
+                    } catch (InvalidOperationException e) {
+                        System.out.println("Error: " + e.getMessage());
+                    }
+                }
+                break;
+            case PAUSE: control.pause(); break;
+            case RESUME: control.resume(); break;
+            case STOP: control.stop(); break;
+            default: break; // END only marks where the run stopped
+        }
+    }
+
+    // Every field a run can change, at full precision: state,fuel,mileage,cargo,passengers,maintenance
+    private static String stateOf(Vehicle v) {
+        double fuel = v instanceof FuelConsumable ? ((FuelConsumable) v).getFuelLevel() : 0.0;
+        double cargo = v instanceof CargoCarrier ? ((CargoCarrier) v).getCurrentCargo() : 0.0;
+        int passengers = v instanceof PassengerCarrier ? ((PassengerCarrier) v).getCurrentPassengers() : 0;
+        boolean maintenance = v instanceof Maintainable && ((Maintainable) v).needsMaintenance();
+        return v.getState() + "," + fuel + "," + v.getCurrentMileage() + "," + cargo + "," + passengers + "," + maintenance;
+    }
+
+    // --- REPORTING ---
+
+    private static void print(Map<String, String> result, int runs) {
+        System.out.printf(Locale.ROOT, "Replayed %s inputs over %.1f s of simulated time, %s events%n",
+                result.get("run.inputs"), Long.parseLong(result.get("run.simulatedMillis")) / 1000.0,
+                result.get("run.events"));
+        System.out.printf(Locale.ROOT, "Fastest of %d runs: %s ms (%s ns/event)%n",
+                runs, result.get(TIMING + "wallMillis"), result.get(TIMING + "nanosPerEvent"));
+        System.out.println("Shared Highway Distance: " + result.get("run.highwayDistance"));
+    }
+
+    /*
+     * Prints every state entry that differs between two results and, for the baseline,
+     * the change in every timing. Returns the number of state differences.
+     */
+    private static int diff(Map<String, String> before, Map<String, String> after, String beforeName, String afterName) {
+        int differences = 0;
+        List<String> keys = new ArrayList<>(before.keySet());
+        for (String key : after.keySet()) {
+            if (!before.containsKey(key)) keys.add(key);
+        }
+        for (String key : keys) {
+            String was = before.get(key);
+            String now = after.get(key);
+            if (key.startsWith(TIMING)) {
+                if (was != null && now != null && beforeName.equals("baseline")) {
+                    double previous = Double.parseDouble(was);
+                    System.out.printf(Locale.ROOT, "%-22s %12s -> %12s  %+.1f%%%n", key, was, now,
+                            (Double.parseDouble(now) - previous) / previous * 100.0);
+                }
+            } else if (was == null || !was.equals(now)) {
+                System.out.println(key + ": " + beforeName + " " + was + ", " + afterName + " " + now);
+                differences++;
+            }
+        }
+        return differences;
+    }
+
+    private static void save(Path file, Map<String, String> result) throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add("key,value");
+        for (Map.Entry<String, String> entry : result.entrySet()) {
+            lines.add(entry.getKey() + "," + entry.getValue());
+        }
+        Files.write(file, lines, StandardCharsets.UTF_8);
+    }
+
+    private static Map<String, String> load(Path file) throws IOException {
+        Map<String, String> result = new LinkedHashMap<>();
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            int comma = line.indexOf(',');
+            if (comma > 0 && !line.startsWith("key,")) {
+                result.put(line.substring(0, comma), line.substring(comma + 1));
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,327 @@
+package fleetmanagement.cli;
+
+import fleetmanagement.analytics.EfficiencyRanking;
+import fleetmanagement.analytics.MaintenanceScheduler;
+import fleetmanagement.interfaces.FuelConsumable;
+import fleetmanagement.interfaces.Maintainable;
+import fleetmanagement.simulation.SegmentedHighway;
+import fleetmanagement.simulation.StripedHighwayCounter;
+import fleetmanagement.vehicles.Vehicle;
+import fleetmanagement.vehicles.VehicleState;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/*
+ * Immutable, pre-encoded JSON view of the fleet at one point in time.
+ *
+ * FleetStatusServer builds a new snapshot on a timer and swaps it in with one
+ * volatile write; HTTP handlers only copy these byte arrays to the socket, so
+ * polling clients never touch the vehicles or wait on the simulation threads.
+ *
+ * Documents that hold an array (the vehicles, the maintenance queue, the efficiency
+ * ranking) are encoded whole, and the byte range of every element is recorded, so
+ * one vehicle or the first n entries are served as slices of the same bytes.
+ * Highway range queries are answered from the SegmentedHighway membership index,
+ * which every capture rebuilds from the mileages read for the snapshot, so they only
+ * visit the segments the range overlaps.
+ */
+public final class StatusSnapshot {
+
+    // A JSON document holding one array, with the byte range of every element
+    private static final class Listing {
+        private final byte[] json;
+        private final int open;  // Just after the '['
+        private final int close; // At the ']'
+        private final int[] start;
+        private final int[] end;
+
+        private Listing(StringBuilder json, int open, int close, int[] start, int[] end) {
+            this.json = json.toString().getBytes(StandardCharsets.US_ASCII);
+            this.open = open;
+            this.close = close;
+            this.start = start;
+            this.end = end;
+        }
+
+        private byte[] element(int i) {
+            return Arrays.copyOfRange(json, start[i], end[i]);
+        }
+
+        // The document with only the first n elements in its array
+        private byte[] first(int n) {
+            n = Math.min(n, start.length);
+            if (n == start.length) return json;
+            int cut = n == 0 ? open : end[n - 1];
+            byte[] result = new byte[cut + json.length - close];
+            System.arraycopy(json, 0, result, 0, cut);
+            System.arraycopy(json, close, result, cut, json.length - close);
+            return result;
+        }
+    }
+
+    // The /highway document, and where every vehicle was on the loop for range queries
+    private static final class Highway {
+        private final byte[] segments;
+        private final SegmentedHighway.Membership membership;
+        private final String[] ids; // By fleet position
+
+        private Highway(byte[] segments, SegmentedHighway.Membership membership, String[] ids) {
+            this.segments = segments;
+            this.membership = membership;
+            this.ids = ids;
+        }
+
+        private byte[] between(double fromKm, double toKm) {
+            StringBuilder vehicles = new StringBuilder();
+            int count = membership.forEachBetween(fromKm, toKm, i -> {
+                if (vehicles.length() > 0) vehicles.append(',');
+                vehicles.append("{\"id\":");
+                string(vehicles, ids[i]);
+                vehicles.append(",\"km\":").append(membership.getPosition(i)).append('}');
+            });
+            String json = "{\"count\":" + count + ",\"vehicles\":[" + vehicles + "]}";
+            return json.getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
+    private final byte[] status;
+    private final byte[] counter;
+    private final Listing vehicles;
+    private final Listing maintenance;
+    private final Listing ranking;
+    private final Listing rankById;
+    private final Highway highway;
+
+    private StatusSnapshot(byte[] status, byte[] counter, Listing vehicles, Listing maintenance,
+                           Listing ranking, Listing rankById, Highway highway) {
+        this.status = status;
+        this.counter = counter;
+        this.vehicles = vehicles;
+        this.maintenance = maintenance;
+        this.ranking = ranking;
+        this.rankById = rankById;
+        this.highway = highway;
+    }
+
+    public byte[] getStatus() { return status; }
+    public byte[] getCounter() { return counter; }
+    public byte[] getVehicles() { return vehicles.json; }
+
+    // One element of the vehicles array, by its position in the fleet
+    public byte[] getVehicle(int index) { return vehicles.element(index); }
+
+    // Due count and the n vehicles closest to (or past) their service, most urgent first
+    public byte[] getMaintenance(int n) { return maintenance.first(n); }
+
+    // The n most fuel-efficient vehicles, best first
+    public byte[] getRanking(int n) { return ranking.first(n); }
+
+    // One vehicle's efficiency rank, by its position in the fleet
+    public byte[] getRank(int index) { return rankById.element(index); }
+
+    // Vehicles and km driven per highway segment
+    public byte[] getHighway() { return highway.segments; }
+
+    // The vehicles at positions in [fromKm, toKm) of the loop; from > to wraps past the end
+    public byte[] getHighwayBetween(double fromKm, double toKm) { return highway.between(fromKm, toKm); }
+
+    public static StatusSnapshot capture(List<? extends Vehicle> fleet, StripedHighwayCounter highwayDistance,
+                                         MaintenanceScheduler scheduler, EfficiencyRanking ranking,
+                                         SegmentedHighway highway, long startedAtMillis) {
+        long now = System.currentTimeMillis();
+
+        // Vehicles first: the status totals are summed from the same readings
+        StringBuilder json = new StringBuilder(fleet.size() * 160 + 2);
+        int[] starts = new int[fleet.size()];
+        int[] ends = new int[fleet.size()];
+        double[] mileages = new double[fleet.size()];
+        int running = 0, paused = 0, outOfFuel = 0, stopped = 0, idle = 0;
+        double totalMileage = 0;
+        double totalFuel = 0;
+
+        json.append('[');
+        for (int i = 0; i < fleet.size(); i++) {
+            Vehicle v = fleet.get(i);
+            VehicleState state = v.getState();
+            double mileage = v.getCurrentMileage();
+            mileages[i] = mileage;
+            double fuel = v instanceof FuelConsumable ? ((FuelConsumable) v).getFuelLevel() : 0.0;
+            switch (state) {
+                case RUNNING: running++; break;
+                case PAUSED: paused++; break;
+                case OUT_OF_FUEL: outOfFuel++; break;
+                case STOPPED: stopped++; break;
+                default: idle++; break;
+            }
+            totalMileage += mileage;
+            totalFuel += fuel;
+
+            if (i > 0) json.append(',');
+            starts[i] = json.length(); // Vehicle data is ASCII-escaped, so chars == bytes
+            json.append("{\"type\":");
+            string(json, v.getClass().getSimpleName());
+            json.append(",\"id\":");
+            string(json, v.getId());
+            json.append(",\"model\":");
+            string(json, v.getModel());
+            json.append(",\"status\":");
+            string(json, state.getLabel());
+            json.append(",\"mileage\":").append(mileage);
+            json.append(",\"fuel\":").append(fuel);
+            if (v instanceof FuelConsumable) {
+                json.append(",\"fuelCapacity\":").append(((FuelConsumable) v).getFuelCapacity());
+            }
+            json.append(",\"efficiency\":").append(v.calculateFuelEfficiency());
+            json.append('}');
+            ends[i] = json.length();
+        }
+        json.append(']');
+        Listing vehicles = new Listing(json, 1, json.length() - 1, starts, ends);
+
+        long distance = highwayDistance.getHighwayDistance();
+        String status = "{\"generatedAt\":" + now
+                + ",\"uptimeSeconds\":" + (now - startedAtMillis) / 1000
+                + ",\"vehicles\":" + fleet.size()
+                + ",\"running\":" + running
+                + ",\"paused\":" + paused
+                + ",\"outOfFuel\":" + outOfFuel
+                + ",\"stopped\":" + stopped
+                + ",\"idle\":" + idle
+                + ",\"totalMileage\":" + totalMileage
+                + ",\"totalFuel\":" + totalFuel
+                + ",\"highwayDistance\":" + distance + "}";
+        String counter = "{\"generatedAt\":" + now
+                + ",\"highwayDistance\":" + distance
+                + ",\"stripes\":" + highwayDistance.getStripeCount()
+                + ",\"casRetries\":" + highwayDistance.getRetryCount() + "}";
+
+        // Copied out in one pass, so the list and the per-vehicle ranks agree
+        int[] order = new int[fleet.size()];
+        double[] efficiency = new double[fleet.size()];
+        int ranked = ranking.copyRanking(order, efficiency);
+
+        return new StatusSnapshot(status.getBytes(StandardCharsets.US_ASCII),
+                counter.getBytes(StandardCharsets.US_ASCII), vehicles, maintenance(scheduler, fleet.size()),
+                ranking(fleet, order, efficiency, ranked), rankById(fleet, order, efficiency, ranked),
+                highway(fleet, highway, mileages));
+    }
+
+    // The whole queue, in the scheduler's order; requests for ?n= are served a prefix of it
+    private static Listing maintenance(MaintenanceScheduler scheduler, int fleetSize) {
+        int due = scheduler.countDue();
+        List<Vehicle> next = scheduler.nextDue(fleetSize);
+        StringBuilder json = new StringBuilder(64 + next.size() * 96);
+        int[] starts = new int[next.size()];
+        int[] ends = new int[next.size()];
+        json.append("{\"due\":").append(due);
+        json.append(",\"serviceIntervalKm\":").append(Maintainable.SERVICE_INTERVAL_KM);
+        json.append(",\"next\":[");
+        int open = json.length();
+        for (int i = 0; i < next.size(); i++) {
+            Vehicle v = next.get(i);
+            if (i > 0) json.append(',');
+            starts[i] = json.length();
+            json.append("{\"id\":");
+            string(json, v.getId());
+            json.append(",\"type\":");
+            string(json, v.getClass().getSimpleName());
+            json.append(",\"mileage\":").append(v.getCurrentMileage());
+            json.append(",\"remainingKm\":").append(MaintenanceScheduler.getRemainingKm(v)).append('}');
+            ends[i] = json.length();
+        }
+        int close = json.length();
+        json.append("]}");
+        return new Listing(json, open, close, starts, ends);
+    }
+
+    // Every ranked vehicle, best first; requests for ?n= are served a prefix of it
+    private static Listing ranking(List<? extends Vehicle> fleet, int[] order, double[] efficiency, int ranked) {
+        StringBuilder json = new StringBuilder(2 + ranked * 80);
+        int[] starts = new int[ranked];
+        int[] ends = new int[ranked];
+        json.append('[');
+        for (int r = 0; r < ranked; r++) {
+            Vehicle v = fleet.get(order[r]);
+            if (r > 0) json.append(',');
+            starts[r] = json.length();
+            json.append("{\"rank\":").append(r + 1);
+            json.append(",\"id\":");
+            string(json, v.getId());
+            json.append(",\"type\":");
+            string(json, v.getClass().getSimpleName());
+            json.append(",\"efficiency\":").append(efficiency[r]).append('}');
+            ends[r] = json.length();
+        }
+        json.append(']');
+        return new Listing(json, 1, json.length() - 1, starts, ends);
+    }
+
+    // The rank of every vehicle, by fleet position (rank 0 if it is not ranked)
+    private static Listing rankById(List<? extends Vehicle> fleet, int[] order, double[] efficiency, int ranked) {
+        int[] rank = new int[fleet.size()];
+        double[] rankedEfficiency = new double[fleet.size()];
+        Arrays.fill(rankedEfficiency, Double.NaN);
+        for (int r = 0; r < ranked; r++) {
+            rank[order[r]] = r + 1;
+            rankedEfficiency[order[r]] = efficiency[r];
+        }
+        StringBuilder json = new StringBuilder(2 + fleet.size() * 64);
+        int[] starts = new int[fleet.size()];
+        int[] ends = new int[fleet.size()];
+        json.append('[');
+        for (int i = 0; i < fleet.size(); i++) {
+            if (i > 0) json.append(',');
+            starts[i] = json.length();
+            json.append("{\"id\":");
+            string(json, fleet.get(i).getId());
+            json.append(",\"rank\":").append(rank[i]);
+            json.append(",\"of\":").append(ranked);
+            json.append(",\"efficiency\":").append(rankedEfficiency[i]).append('}');
+            ends[i] = json.length();
+        }
+        json.append(']');
+        return new Listing(json, 1, json.length() - 1, starts, ends);
+    }
+
+    // The segment counters, and the highway's membership index rebuilt from the mileages read above
+    private static Highway highway(List<? extends Vehicle> fleet, SegmentedHighway highway, double[] mileages) {
+        int count = highway.getSegmentCount();
+        StringBuilder json = new StringBuilder(64 + count * 48);
+        json.append("{\"lengthKm\":").append(highway.getLengthKm());
+        json.append(",\"distance\":").append(highway.getTotalDistance());
+        json.append(",\"segments\":[");
+        for (int s = 0; s < count; s++) {
+            SegmentedHighway.Segment segment = highway.getSegment(s);
+            if (s > 0) json.append(',');
+            json.append("{\"fromKm\":").append(segment.getStartKm());
+            json.append(",\"vehicles\":").append(segment.getOccupancy());
+            json.append(",\"distance\":").append(segment.getDistance()).append('}');
+        }
+        json.append("]}");
+
+        String[] ids = new String[fleet.size()];
+        for (int i = 0; i < fleet.size(); i++) {
+            ids[i] = fleet.get(i).getId();
+        }
+        return new Highway(json.toString().getBytes(StandardCharsets.US_ASCII),
+                highway.refreshMembership(mileages), ids);
+    }
+
+    // JSON string with everything outside printable ASCII escaped as \\uXXXX
+    static void string(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20 || c > 0x7E) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        json.append('"');
+    }
+}
@@ -0,0 +1,136 @@
+package fleetmanagement.gui;
+
+import fleetmanagement.interfaces.FuelConsumable;
+import fleetmanagement.vehicles.Vehicle;
+import fleetmanagement.vehicles.VehicleState;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.List;
+
+/*
+ * Table model that shows one row per vehicle, for fleets of any size.
+ *
+ * JTable only asks the model for the cells it paints, i.e. the visible rows, so the
+ * cost of a frame depends on the window height and not on the fleet size.
+ * applyChanges() receives the vehicles that changed (from a VehicleChangeBus): it
+ * compares each of them with what was last shown (rounded the way it is displayed)
+ * and fires update events only for visible rows whose text changed, so unchanged
+ * rows are not repainted. Changed rows that are next to each other are merged into
+ * one event, since the batch comes in fleet order.
+ */
+public class FleetTableModel extends AbstractTableModel {
+
+    public static final int TYPE = 0;
+    public static final int ID = 1;
+    public static final int MODEL = 2;
+    public static final int MILEAGE = 3;
+    public static final int FUEL = 4;
+    public static final int STATUS = 5;
+
+    private static final String[] COLUMNS = {"Type", "ID", "Model", "Distance (km)", "Fuel (L)", "Status"};
+
+    private final List<Vehicle> fleet;
+
+    // What each row showed when it was last refreshed (km, tenths of a litre, status)
+    private final long[] shownMileage;
+    private final long[] shownFuel;
+    private final VehicleState[] shownStatus;
+
+    public FleetTableModel(List<Vehicle> fleet) {
+        this.fleet = fleet;
+        this.shownMileage = new long[fleet.size()];
+        this.shownFuel = new long[fleet.size()];
+        this.shownStatus = new VehicleState[fleet.size()];
+        for (int row = 0; row < fleet.size(); row++) {
+            update(row);
+        }
+    }
+
+    public Vehicle getVehicle(int row) { return fleet.get(row); }
+
+    @Override
+    public int getRowCount() { return fleet.size(); }
+
+    @Override
+    public int getColumnCount() { return COLUMNS.length; }
+
+    @Override
+    public String getColumnName(int column) { return COLUMNS[column]; }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        if (column == MILEAGE || column == FUEL) return Double.class;
+        return column == STATUS ? VehicleState.class : String.class;
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        Vehicle v = fleet.get(row);
+        switch (column) {
+            case TYPE: return v.getClass().getSimpleName();
+            case ID: return v.getId();
+            case MODEL: return v.getModel();
+            case MILEAGE: return v.getCurrentMileage();
+            case FUEL: return fuelOf(v);
+            default: return v.getState();
+        }
+    }
+
+    /*
+     * Applies one batch of changed vehicles. Rows inside [firstVisible, lastVisible]
+     * whose text changed get a rows-updated event, one per run of adjacent rows; rows
+     * outside it are painted with their current values when they are scrolled into view.
+     * Returns the number of rows whose text changed.
+     */
+    public int applyChanges(VehicleChangeBus.Batch batch, int firstVisible, int lastVisible) {
+        int changed = 0;
+        int runFirst = -1;
+        int runLast = -1;
+        for (int i = 0; i < batch.size(); i++) {
+            int row = batch.getIndex(i);
+            if (!update(row)) continue;
+            changed++;
+            if (row < firstVisible || row > lastVisible) continue;
+            if (runFirst >= 0 && row == runLast + 1) {
+                runLast = row; // Extends the current run
+                continue;
+            }
+            if (runFirst >= 0) fireTableRowsUpdated(runFirst, runLast);
+            runFirst = row;
+            runLast = row;
+        }
+        if (runFirst >= 0) fireTableRowsUpdated(runFirst, runLast);
+        return changed;
+    }
+
+    /*
+     * Re-reads and repaints rows [first, last] whether or not a vehicle reported a
+     * change, e.g. after a fleet-wide pause, which vehicles do not report one by one.
+     */
+    public void refreshRows(int first, int last) {
+        if (first < 0 || last < first) return;
+        for (int row = first; row <= last; row++) {
+            update(row);
+        }
+        fireTableRowsUpdated(first, last);
+    }
+
+    // Records the current values of a row; true if its displayed text changed
+    private boolean update(int row) {
+        Vehicle v = fleet.get(row);
+        long mileage = Math.round(v.getCurrentMileage());
+        long fuel = Math.round(fuelOf(v) * 10.0);
+        VehicleState status = v.getState();
+        if (mileage == shownMileage[row] && fuel == shownFuel[row] && status == shownStatus[row]) {
+            return false;
+        }
+        shownMileage[row] = mileage;
+        shownFuel[row] = fuel;
+        shownStatus[row] = status;
+        return true;
+    }
+
+    private static double fuelOf(Vehicle v) {
+        return v instanceof FuelConsumable ? ((FuelConsumable) v).getFuelLevel() : 0.0;
+    }
+}
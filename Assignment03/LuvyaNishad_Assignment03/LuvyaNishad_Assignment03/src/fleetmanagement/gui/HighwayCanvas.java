@@ -0,0 +1,325 @@
+package fleetmanagement.gui;
+
+import fleetmanagement.simulation.SegmentedHighway;
+import fleetmanagement.vehicles.Airplane;
+import fleetmanagement.vehicles.Truck;
+import fleetmanagement.vehicles.Vehicle;
+import fleetmanagement.vehicles.VehicleState;
+
+import javax.swing.JComponent;
+import javax.swing.Timer;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Polygon;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.awt.image.BufferedImage;
+import java.awt.image.VolatileImage;
+import java.util.List;
+
+/*
+ * Custom-painted view of the highway: every vehicle is a small sprite placed by its
+ * mileage along a looping track (TRACK_KM long), cars and trucks on the road,
+ * airplanes in the air corridor above it.
+ *
+ * Rendering is built for large fleets:
+ * - frames are drawn into a VolatileImage back buffer (video memory when the
+ *   platform supports it) and copied to the screen in one step
+ * - a 60 fps timer drives repaints; a tick is skipped while the previous frame is
+ *   still waiting to be painted, so the EDT never builds up a backlog
+ * - vehicles outside the visible km window are culled, and so are sprites that would
+ *   land on a pixel column already drawn in the same lane this frame; the number of
+ *   drawImage calls is therefore bounded by the canvas width, not by the fleet size
+ * - sprites are pre-rendered once per vehicle type and status color
+ *
+ * Mouse wheel zooms around the cursor, dragging pans along the track.
+ */
+public class HighwayCanvas extends JComponent {
+
+    public static final int FPS = 60;
+    public static final double TRACK_KM = SegmentedHighway.DEFAULT_LENGTH_KM;
+
+    private static final int LANES_PER_TYPE = 3;
+    private static final int CAR = 0;
+    private static final int TRUCK = 1;
+    private static final int AIRPLANE = 2;
+
+    // Sprite tint per status: Running, Out of Fuel, Paused, anything else (Idle, Stopped)
+    private static final Color[] STATUS_COLORS = {
+            new Color(0, 160, 0), Color.RED, Color.ORANGE, Color.GRAY
+    };
+
+    private final List<Vehicle> fleet;
+    private final int[] typeOf;
+    private final Timer frameTimer;
+
+    private VolatileImage backBuffer;
+    private BufferedImage[][] sprites; // [type][status]
+    private GraphicsConfiguration spriteConfig;
+
+    // Visible part of the track, in km
+    private double viewStart = 0.0;
+    private double viewSpan = TRACK_KM;
+
+    // Per-lane pixel columns drawn in the current frame (stamped with the frame number)
+    private int[] occupied = new int[0];
+    private int frame;
+    private boolean framePending;
+
+    // Frame statistics shown in the corner
+    private int drawnLastFrame;
+    private int framesThisSecond;
+    private int fps;
+    private long secondStart = System.nanoTime();
+
+    public HighwayCanvas(List<Vehicle> fleet) {
+        this.fleet = fleet;
+        this.typeOf = new int[fleet.size()];
+        for (int i = 0; i < fleet.size(); i++) {
+            Vehicle v = fleet.get(i);
+            typeOf[i] = v instanceof Airplane ? AIRPLANE : v instanceof Truck ? TRUCK : CAR;
+        }
+        setPreferredSize(new Dimension(750, 200));
+        setOpaque(true);
+
+        frameTimer = new Timer(1000 / FPS, e -> {
+            if (!framePending && isShowing()) {
+                framePending = true;
+                repaint();
+            }
+        });
+        frameTimer.setCoalesce(true);
+
+        MouseAdapter navigation = new MouseAdapter() {
+            private int lastX;
+
+            @Override
+            public void mousePressed(MouseEvent e) { lastX = e.getX(); }
+
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                pan(-(e.getX() - lastX) * viewSpan / Math.max(1, getWidth()));
+                lastX = e.getX();
+            }
+
+            @Override
+            public void mouseWheelMoved(MouseWheelEvent e) {
+                zoom(e.getX(), Math.pow(1.2, e.getPreciseWheelRotation()));
+            }
+        };
+        addMouseListener(navigation);
+        addMouseMotionListener(navigation);
+        addMouseWheelListener(navigation);
+        setToolTipText("Wheel: zoom, drag: pan");
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        frameTimer.start();
+    }
+
+    @Override
+    public void removeNotify() {
+        frameTimer.stop();
+        if (backBuffer != null) {
+            backBuffer.flush();
+            backBuffer = null;
+        }
+        super.removeNotify();
+    }
+
+    private void pan(double km) {
+        viewStart = ((viewStart + km) % TRACK_KM + TRACK_KM) % TRACK_KM;
+    }
+
+    private void zoom(int mouseX, double factor) {
+        double anchor = mouseX * viewSpan / Math.max(1, getWidth());
+        double span = Math.max(1.0, Math.min(TRACK_KM, viewSpan * factor));
+        pan(anchor - anchor * span / viewSpan); // Keeps the km under the cursor in place
+        viewSpan = span;
+    }
+
+    // --- PAINTING ---
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        framePending = false;
+        int w = getWidth();
+        int h = getHeight();
+        if (w <= 0 || h <= 0) return;
+
+        GraphicsConfiguration gc = getGraphicsConfiguration();
+        if (gc == null) {
+            render((Graphics2D) g, w, h); // Not on screen yet; Swing's own buffer is enough
+            return;
+        }
+        do {
+            if (backBuffer == null || backBuffer.getWidth() != w || backBuffer.getHeight() != h
+                    || backBuffer.validate(gc) == VolatileImage.IMAGE_INCOMPATIBLE) {
+                if (backBuffer != null) backBuffer.flush();
+                backBuffer = createVolatileImage(w, h);
+                if (backBuffer == null) {
+                    render((Graphics2D) g, w, h);
+                    return;
+                }
+            }
+            Graphics2D bg = backBuffer.createGraphics();
+            try {
+                render(bg, w, h);
+            } finally {
+                bg.dispose();
+            }
+            g.drawImage(backBuffer, 0, 0, null);
+        } while (backBuffer.contentsLost()); // Video memory was reclaimed; draw the frame again
+    }
+
+    private void render(Graphics2D g, int w, int h) {
+        ensureSprites(g.getDeviceConfiguration());
+        frame++;
+
+        // Layout: air corridor on top, road below
+        int airTop = 4;
+        int roadTop = h * 2 / 5;
+        int roadBottom = h - 18;
+        int laneHeight = Math.max(4, (roadBottom - roadTop) / (2 * LANES_PER_TYPE));
+        int airLaneHeight = Math.max(4, (roadTop - airTop - 4) / LANES_PER_TYPE);
+
+        g.setColor(new Color(200, 225, 250));
+        g.fillRect(0, 0, w, roadTop);
+        g.setColor(new Color(120, 180, 100));
+        g.fillRect(0, roadTop, w, h - roadTop);
+        g.setColor(Color.DARK_GRAY);
+        g.fillRect(0, roadTop, w, roadBottom - roadTop);
+        drawLaneMarks(g, w, roadTop, laneHeight);
+
+        int lanes = 3 * LANES_PER_TYPE;
+        if (occupied.length != lanes * w) {
+            occupied = new int[lanes * w];
+        }
+
+        double pixelsPerKm = w / viewSpan;
+        int drawn = 0;
+        for (int i = 0; i < typeOf.length; i++) {
+            double km = fleet.get(i).getCurrentMileage() % TRACK_KM - viewStart;
+            if (km < 0) km += TRACK_KM;
+            if (km >= viewSpan) continue; // Off screen
+
+            int x = Math.min(w - 1, (int) (km * pixelsPerKm));
+            int type = typeOf[i];
+            int laneIndex = i / 3 % LANES_PER_TYPE;
+            int lane = type * LANES_PER_TYPE + laneIndex;
+            int cell = lane * w + x;
+            if (occupied[cell] == frame) continue; // Hidden under a sprite drawn this frame
+            occupied[cell] = frame;
+
+            int y = type == AIRPLANE
+                    ? airTop + laneIndex * airLaneHeight + airLaneHeight / 2
+                    : roadTop + (type * LANES_PER_TYPE + laneIndex) * laneHeight + laneHeight / 2;
+            BufferedImage sprite = sprites[type][statusIndex(fleet.get(i).getState())];
+            g.drawImage(sprite, x - sprite.getWidth() / 2, y - sprite.getHeight() / 2, null);
+            drawn++;
+        }
+        drawnLastFrame = drawn;
+
+        drawHud(g, w, h);
+    }
+
+    private void drawLaneMarks(Graphics2D g, int w, int roadTop, int laneHeight) {
+        // Dashes every km, so they scroll and scale with the view
+        double pixelsPerKm = w / viewSpan;
+        double step = pixelsPerKm >= 8 ? 1.0 : Math.ceil(8 / pixelsPerKm);
+        double first = Math.ceil(viewStart / step) * step;
+        g.setColor(Color.LIGHT_GRAY);
+        for (int lane = 1; lane < 2 * LANES_PER_TYPE; lane++) {
+            int y = roadTop + lane * laneHeight;
+            for (double km = first; km < viewStart + viewSpan; km += step) {
+                int x = (int) ((km - viewStart) * pixelsPerKm);
+                g.drawLine(x, y, x + Math.max(2, (int) (pixelsPerKm * step / 2)), y);
+            }
+        }
+    }
+
+    private void drawHud(Graphics2D g, int w, int h) {
+        framesThisSecond++;
+        long now = System.nanoTime();
+        if (now - secondStart >= 1_000_000_000L) {
+            fps = framesThisSecond;
+            framesThisSecond = 0;
+            secondStart = now;
+        }
+        double viewEnd = viewStart + viewSpan;
+        if (viewEnd > TRACK_KM) viewEnd -= TRACK_KM; // The view wraps around the track
+        g.setColor(Color.WHITE);
+        g.fillRect(0, h - 16, w, 16);
+        g.setColor(Color.BLACK);
+        g.drawString(String.format("km %.1f - %.1f  |  %d of %d vehicles drawn  |  %d fps",
+                viewStart, viewEnd, drawnLastFrame, typeOf.length, fps), 6, h - 4);
+    }
+
+    private static int statusIndex(VehicleState state) {
+        switch (state) {
+            case RUNNING: return 0;
+            case OUT_OF_FUEL: return 1;
+            case PAUSED: return 2;
+            default: return 3;
+        }
+    }
+
+    // --- SPRITES ---
+
+    // Pre-renders one small translucent image per type and status in the screen's format
+    private void ensureSprites(GraphicsConfiguration gc) {
+        if (sprites != null && gc == spriteConfig) return;
+        spriteConfig = gc;
+        sprites = new BufferedImage[3][STATUS_COLORS.length];
+        for (int s = 0; s < STATUS_COLORS.length; s++) {
+            sprites[CAR][s] = sprite(gc, 10, 6, STATUS_COLORS[s], CAR);
+            sprites[TRUCK][s] = sprite(gc, 16, 7, STATUS_COLORS[s], TRUCK);
+            sprites[AIRPLANE][s] = sprite(gc, 14, 10, STATUS_COLORS[s], AIRPLANE);
+        }
+    }
+
+    private static BufferedImage sprite(GraphicsConfiguration gc, int w, int h, Color color, int type) {
+        BufferedImage image = gc != null
+                ? gc.createCompatibleImage(w, h, Transparency.TRANSLUCENT)
+                : new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.setColor(color);
+            if (type == AIRPLANE) {
+                // Fuselage with swept wings, pointing right
+                Polygon plane = new Polygon();
+                plane.addPoint(w - 1, h / 2);
+                plane.addPoint(w / 2, h / 2 - 1);
+                plane.addPoint(w / 3, 0);
+                plane.addPoint(w / 4, h / 2 - 1);
+                plane.addPoint(0, h / 2 - 2);
+                plane.addPoint(0, h / 2 + 2);
+                plane.addPoint(w / 4, h / 2 + 1);
+                plane.addPoint(w / 3, h - 1);
+                plane.addPoint(w / 2, h / 2 + 1);
+                g.fillPolygon(plane);
+            } else {
+                g.fillRoundRect(0, 0, w - 1, h - 1, 3, 3);
+                g.setColor(color.darker());
+                g.setStroke(new BasicStroke(1f));
+                g.drawRoundRect(0, 0, w - 1, h - 1, 3, 3);
+                if (type == TRUCK) {
+                    g.drawLine(w - 5, 0, w - 5, h - 1); // Cab
+                }
+            }
+        } finally {
+            g.dispose();
+        }
+        return image;
+    }
+}
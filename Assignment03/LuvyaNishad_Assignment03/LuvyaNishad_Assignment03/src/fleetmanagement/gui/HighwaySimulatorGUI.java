@@ -1,54 +1,89 @@
 package fleetmanagement.gui;
 
+import fleetmanagement.analytics.FleetAnalytics;
+import fleetmanagement.vehicles.FleetControl;
+import fleetmanagement.vehicles.FleetStore;
 import fleetmanagement.vehicles.Vehicle;
-import fleetmanagement.vehicles.Car;
-import fleetmanagement.vehicles.Truck;
-import fleetmanagement.vehicles.Airplane;
+import fleetmanagement.vehicles.VehicleFactory;
+import fleetmanagement.vehicles.VehicleState;
 import fleetmanagement.exceptions.InvalidOperationException;
+import fleetmanagement.interfaces.FuelConsumable;
 import fleetmanagement.interfaces.HighwayTracker;
+import fleetmanagement.interfaces.SimulationEngine;
+import fleetmanagement.metrics.FleetMetrics;
+import fleetmanagement.metrics.TelemetryLog;
+import fleetmanagement.persistence.InputRecording;
+import fleetmanagement.simulation.DiscreteEventSimulator;
+import fleetmanagement.simulation.EngineFactory;
+import fleetmanagement.simulation.StripedHighwayCounter;
+import fleetmanagement.simulation.TelemetryRing;
 
 import javax.swing.*;
+import javax.swing.table.DefaultTableCellRenderer;
 import java.awt.*;
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.LongSupplier;
 
 /* * Entry point and GUI handler for the assignment.
  * This class acts as the main controller, managing vehicle threads, the shared highway counter,
  * and the Swing graphical interface.
  *
  * KEY CONCEPTS USED:
- * 1. Multithreading: Each vehicle runs in a separate Thread.
+ * 1. Multithreading: Vehicle ticks run on a shared SimulationEngine (thread pool or virtual threads).
  * 2. Shared Resources: 'highwayDistance' is accessed by multiple threads.
- * 3. Synchronization: The 'synchronized' keyword prevents race conditions on the shared counter.
- * 4. Collections: 'ArrayList' is used to manage the fleet and thread objects.
- * 5. Thread-Safe GUI: Updates are pushed to the Event Dispatch Thread (EDT).
+ * 3. Synchronization: A striped CAS counter prevents lost updates without a shared lock.
+ * 4. Collections: 'ArrayList' is used to manage the fleet, shown in a JTable (one row per vehicle).
+ * 5. Thread-Safe GUI: Vehicle changes are pushed to the Event Dispatch Thread (EDT) in batches.
  */
 public class HighwaySimulatorGUI implements HighwayTracker {
 
     // SHARED RESOURCE
-    // This static variable acts as the shared memory resource.
-    // It tracks the cumulative distance traveled by all vehicles combined.
-    public static int highwayDistance = 0;
+    // Tracks the cumulative distance traveled by all vehicles combined.
+    // Striped over several cache lines so vehicle threads do not serialize on one monitor,
+    // and a long so it does not overflow on long runs.
+    private final StripedHighwayCounter highwayDistance = new StripedHighwayCounter();
 
     // --- COLLECTIONS ---
-    // ArrayLists used for dynamic storage of Vehicle objects and their corresponding Threads.
+    // ArrayList used for dynamic storage of Vehicle objects.
     private List<Vehicle> fleet = new ArrayList<>();
-    private List<Thread> vehicleThreads = new ArrayList<>();
+    private final FleetControl fleetControl = new FleetControl(); // Pause/Resume/Stop for the whole fleet in one step
+
+    // Executes the vehicle ticks; the thread count stays flat as the fleet grows.
+    private SimulationEngine engine;
+
+    // With -Dfleet.telemetry=drop|block|sample, vehicles publish their distance here and
+    // the counter is fed from the drain thread, never from the tick loop
+    private TelemetryRing telemetry;
+
+    // Records refuels, pauses and stops for cli.ReplaySimulation when -Dfleet.record is set
+    private InputRecording.Recorder recorder;
+
+    // Running fleet totals (mileage, fuel, load), read in O(1) on every refresh
+    private FleetAnalytics analytics;
 
     // --- GUI COMPONENTS ---
     private JFrame frame;
     private JButton btnStart, btnPause, btnResume, btnStop;
-    private JLabel lblCounter, lblStatus;
-    private JLabel lblVehicle1, lblVehicle2, lblVehicle3;
-    private JButton btnRefuel1, btnRefuel2, btnRefuel3;
+    private JLabel lblCounter, lblStatus, lblAnalytics;
+    private JButton btnRefuel;
+    private JTable fleetTable;
+    private FleetTableModel fleetModel;
 
     // --- SYNCHRONIZATION / RACE CONDITION FIX ---
-    // This method implements the HighwayTracker interface.
-    // The 'synchronized' keyword ensures ATOMIC access. Only one thread can enter
-    // this method at a time, preventing lost updates (Race Condition).
+    // These methods implement the HighwayTracker interface.
+    // Each add is a CAS on the caller's stripe, so no update is lost (Race Condition)
+    // and threads on different cores do not block each other.
     @Override
-    public synchronized void incrementHighwayCounter() {
-        highwayDistance++;
+    public void add(long distance) {
+        highwayDistance.add(distance);
+    }
+
+    @Override
+    public long getHighwayDistance() {
+        return highwayDistance.getHighwayDistance();
     }
 
     // --- MAIN ENTRY POINT ---
@@ -71,7 +106,7 @@ public class HighwaySimulatorGUI implements HighwayTracker {
     public void createAndShowGUI() throws InvalidOperationException {
         frame = new JFrame("Fleet Highway Simulator (Professional Version)");
         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-        frame.setSize(750, 500);
+        frame.setSize(900, 700);
         frame.setLayout(new BorderLayout());
 
         // 1. Top Control Panel (FlowLayout by default)
@@ -93,98 +128,163 @@ public class HighwaySimulatorGUI implements HighwayTracker {
         controlPanel.add(btnStop);
         frame.add(controlPanel, BorderLayout.NORTH);
 
-        // 2. Vehicle Status Panel (BoxLayout - Vertical Stack)
-        // Displays individual stats for each vehicle in the fleet.
-        JPanel vehicleListPanel = new JPanel();
-        vehicleListPanel.setLayout(new BoxLayout(vehicleListPanel, BoxLayout.Y_AXIS));
-        vehicleListPanel.setBorder(BorderFactory.createTitledBorder("Vehicle Status"));
+        // Initialize Logic (the table needs the fleet)
+        setupFleet();
 
-        // Setup Vehicle Rows using helper method for consistent styling
-        JPanel panelV1 = createVehicleRow("Vehicle 1", btnRefuel1 = new JButton("Refuel Car"));
-        lblVehicle1 = (JLabel) panelV1.getComponent(0);
+        // 2. Vehicle Status Panel (BorderLayout - scrolling table + refuel button)
+        // Displays individual stats for each vehicle in the fleet; only visible rows are painted.
+        JPanel vehicleListPanel = new JPanel(new BorderLayout());
+        vehicleListPanel.setBorder(BorderFactory.createTitledBorder("Vehicle Status (" + fleet.size() + " vehicles)"));
+        vehicleListPanel.add(new JScrollPane(createFleetTable()), BorderLayout.CENTER);
 
-        JPanel panelV2 = createVehicleRow("Vehicle 2", btnRefuel2 = new JButton("Refuel Truck"));
-        lblVehicle2 = (JLabel) panelV2.getComponent(0);
+        btnRefuel = new JButton("Refuel Selected");
+        btnRefuel.setPreferredSize(new Dimension(150, 30));
+        btnRefuel.setEnabled(false);
+        JPanel btnPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        btnPanel.add(btnRefuel);
+        vehicleListPanel.add(btnPanel, BorderLayout.SOUTH);
 
-        JPanel panelV3 = createVehicleRow("Vehicle 3", btnRefuel3 = new JButton("Refuel Airplane"));
-        lblVehicle3 = (JLabel) panelV3.getComponent(0);
+        // Highway view above the table; every vehicle is drawn as a sprite along the road
+        JPanel highwayPanel = new JPanel(new BorderLayout());
+        highwayPanel.setBorder(BorderFactory.createTitledBorder("Highway"));
+        highwayPanel.add(new HighwayCanvas(fleet), BorderLayout.CENTER);
 
-        vehicleListPanel.add(panelV1);
-        vehicleListPanel.add(panelV2);
-        vehicleListPanel.add(panelV3);
-        frame.add(vehicleListPanel, BorderLayout.CENTER);
+        JSplitPane centerPanel = new JSplitPane(JSplitPane.VERTICAL_SPLIT, highwayPanel, vehicleListPanel);
+        centerPanel.setResizeWeight(0.4);
+        frame.add(centerPanel, BorderLayout.CENTER);
 
         // 3. Bottom Status Panel (GridLayout)
         // Displays the Shared Counter and general simulation status.
-        JPanel statusPanel = new JPanel(new GridLayout(2, 1));
+        JPanel statusPanel = new JPanel(new GridLayout(3, 1));
         lblCounter = new JLabel("Shared Highway Distance: 0");
         lblCounter.setFont(new Font("Monospaced", Font.BOLD, 16));
         lblCounter.setHorizontalAlignment(SwingConstants.CENTER);
 
+        lblAnalytics = new JLabel();
+        lblAnalytics.setHorizontalAlignment(SwingConstants.CENTER);
+
         lblStatus = new JLabel("Click Start to begin simulation.");
         lblStatus.setHorizontalAlignment(SwingConstants.CENTER);
 
         statusPanel.add(lblCounter);
+        statusPanel.add(lblAnalytics);
         statusPanel.add(lblStatus);
         frame.add(statusPanel, BorderLayout.SOUTH);
 
-        // Initialize Logic
-        setupFleet();
         addListeners();
 
-        // --- GUI TIMER ---
-        // Creates a javax.swing.Timer that fires every 100ms.
-        // This polls the vehicle objects for changes and updates labels safely on the EDT.
-        new Timer(100, e -> updateGUILabels()).start();
+        // --- CHANGE EVENTS ---
+        // Vehicles report status, fuel and mileage changes; the bus coalesces them per
+        // vehicle and delivers them in batches on the EDT, so a refresh only costs
+        // as much as what changed (no polling of the whole fleet).
+        // Registered before the bus, so the totals already include a change when it is delivered
+        analytics = new FleetAnalytics(fleet);
+        if (telemetry != null) {
+            telemetry.subscribe(analytics); // Per-type distance, from the same batches as the counter
+            telemetry.start();
+        }
+        new VehicleChangeBus(fleet, this::updateGUILabels);
+        updateCounterLabel();
 
         frame.setVisible(true);
     }
 
     /*
-     * Helper method to create a standardized UI row for a single vehicle.
-     * Uses nested Border layouts for alignment.
+     * Builds the fleet table: fixed row height (so JTable can compute the visible rows
+     * without measuring them), right-aligned numbers and color-coded status.
      */
-    private JPanel createVehicleRow(String labelText, JButton refuelBtn) {
-        JPanel panel = new JPanel(new BorderLayout());
-        JLabel label = new JLabel(labelText);
-        label.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+    private JTable createFleetTable() {
+        fleetModel = new FleetTableModel(fleet);
+        fleetTable = new JTable(fleetModel);
+        fleetTable.setRowHeight(22);
+        fleetTable.setFillsViewportHeight(true);
+        fleetTable.getTableHeader().setReorderingAllowed(false);
+
+        fleetTable.setDefaultRenderer(Double.class, new DefaultTableCellRenderer() {
+            {
+                setHorizontalAlignment(SwingConstants.RIGHT);
+            }
 
-        refuelBtn.setPreferredSize(new Dimension(130, 30));
-        refuelBtn.setEnabled(false);
+            @Override
+            protected void setValue(Object value) {
+                // Same precision as the old labels: whole km, fuel to 0.1 L
+                setText(String.format("%.1f", (Double) value));
+            }
+        });
+        fleetTable.getColumnModel().getColumn(FleetTableModel.MILEAGE).setCellRenderer(new DefaultTableCellRenderer() {
+            {
+                setHorizontalAlignment(SwingConstants.RIGHT);
+            }
 
-        JPanel btnPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
-        btnPanel.add(refuelBtn);
+            @Override
+            protected void setValue(Object value) {
+                setText(String.format("%.0f", (Double) value));
+            }
+        });
 
-        panel.add(label, BorderLayout.CENTER);
-        panel.add(btnPanel, BorderLayout.EAST);
-        // Add a bottom line separator for cleaner look
-        panel.setBorder(BorderFactory.createMatteBorder(0, 0, 1, 0, Color.LIGHT_GRAY));
-        return panel;
+        // Color coding based on status
+        fleetTable.getColumnModel().getColumn(FleetTableModel.STATUS).setCellRenderer(new DefaultTableCellRenderer() {
+            @Override
+            public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected,
+                                                           boolean hasFocus, int row, int column) {
+                super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
+                if (!isSelected) {
+                    if (value == VehicleState.RUNNING) setForeground(new Color(0, 128, 0));
+                    else if (value == VehicleState.OUT_OF_FUEL) setForeground(Color.RED);
+                    else if (value == VehicleState.PAUSED) setForeground(Color.ORANGE.darker());
+                    else setForeground(table.getForeground());
+                }
+                return this;
+            }
+        });
+        return fleetTable;
     }
 
     /*
      * Instantiates the specific vehicles (Car, Truck, Airplane) and adds them to the fleet list.
+     * The fleet size comes from -Dfleet.size (default 3, one of each type).
      * Passes 'this' (the GUI) to the vehicles so they can call incrementHighwayCounter().
      */
     private void setupFleet() throws InvalidOperationException {
-        // 1. Car: 50.0 Liters
-        Car car1 = new Car("C001", "Toyota Camry", 180.0, 4);
-        car1.refuel(50.0);
-        car1.setSimulator(this); // Passes 'this' as a HighwayTracker implementation
-
-        // 2. Truck: 100.0 Liters
-        Truck truck1 = new Truck("T001", "Ford F-150", 120.0, 6);
-        truck1.refuel(100.0);
-        truck1.setSimulator(this);
-
-        // 3. Airplane: 500.0 Liters
-        Airplane plane1 = new Airplane("A001", "Boeing 737", 850.0, 35000.0);
-        plane1.refuel(500.0);
-        plane1.setSimulator(this);
-
-        fleet.add(car1);
-        fleet.add(truck1);
-        fleet.add(plane1);
+        int size = Integer.getInteger("fleet.size", 3);
+        if (size < 1) {
+            throw new InvalidOperationException("fleet.size must be at least 1");
+        }
+        // Cycles Car (50 L), Truck (100 L), Airplane (500 L), all fully fuelled; own store for large fleets
+        fleet.addAll(VehicleFactory.createFleet(size, new FleetStore()));
+        String policy = System.getProperty("fleet.telemetry");
+        if (policy != null) {
+            try {
+                telemetry = new TelemetryRing(TelemetryRing.Policy.valueOf(policy.toUpperCase()));
+            } catch (IllegalArgumentException e) {
+                throw new InvalidOperationException("fleet.telemetry must be drop, block or sample");
+            }
+            // The analytics subscribe once they exist; the ring is started after that
+            telemetry.subscribe(batch -> highwayDistance.add(batch.getWeightedTotal()));
+            telemetry.subscribe(new TelemetryLog(telemetry, Long.getLong("fleet.telemetry.log.seconds", 10)));
+        }
+        for (int i = 0; i < fleet.size(); i++) {
+            Vehicle v = fleet.get(i);
+            // 'this' (a HighwayTracker implementation), or the telemetry ring with the fleet position as source
+            v.setSimulator(telemetry == null ? this : telemetry.tracker(i));
+            v.setFleetControl(fleetControl);
+        }
+
+        // The fleet is saved now, before Start, as the starting point of the replay
+        String recordDir = System.getProperty("fleet.record");
+        if (recordDir != null) {
+            try {
+                recorder = new InputRecording.Recorder(Paths.get(recordDir), fleet, fleetControl);
+            } catch (IOException e) {
+                throw new InvalidOperationException("Cannot record to " + recordDir + ": " + e.getMessage());
+            }
+            Runtime.getRuntime().addShutdownHook(new Thread(this::closeRecorder));
+        }
+
+        // Tick latency, scheduling lag, transitions and counter rate, visible in JConsole
+        FleetMetrics.global().watchCounter(highwayDistance);
+        fleetControl.addListener(FleetMetrics.global()); // Counts the Pause/Resume/Stop buttons
+        FleetMetrics.registerMBeans();
     }
 
     /*
@@ -192,121 +292,180 @@ public class HighwaySimulatorGUI implements HighwayTracker {
      * Manages the lifecycle of threads (Start, Pause, Resume, Stop).
      */
     private void addListeners() {
-        // START: Creates new Threads for each vehicle and starts them.
+        // START: Hands the fleet to the simulation engine selected by -Dfleet.engine.
         btnStart.addActionListener(e -> {
-            for (Vehicle v : fleet) {
-                Thread t = new Thread(v);
-                vehicleThreads.add(t);
-                t.start();
+            try {
+                engine = EngineFactory.fromSystemProperties();
+            } catch (InvalidOperationException ex) {
+                lblStatus.setText(ex.getMessage());
+                return;
+            }
+            if (recorder != null) {
+                recorder.start(clockOf(engine));
             }
+            engine.start(fleet);
             lblStatus.setText("Simulation RUNNING...");
             btnStart.setEnabled(false);
             btnPause.setEnabled(true);
             btnStop.setEnabled(true);
         });
 
-        // PAUSE: Sets a volatile flag in the vehicle objects to pause execution.
+        // PAUSE: One CAS on the fleet control; each vehicle is parked by the engine at its next tick.
         btnPause.addActionListener(e -> {
-            for (Vehicle v : fleet) v.pauseSimulation();
+            fleetControl.pause();
+            refreshVisibleRows();
             lblStatus.setText("Simulation PAUSED.");
             btnPause.setEnabled(false);
             btnResume.setEnabled(true);
         });
 
-        // RESUME: Unsets the pause flag, allowing threads to continue loop.
+        // RESUME: One CAS on the fleet control; the engine wakes the vehicles it parked.
         btnResume.addActionListener(e -> {
-            for (Vehicle v : fleet) v.resumeSimulation();
+            fleetControl.resume();
+            refreshVisibleRows();
             lblStatus.setText("Simulation RUNNING...");
             btnPause.setEnabled(true);
             btnResume.setEnabled(false);
         });
 
-        // STOP: Sets running flag to false, terminating the thread loop.
+        // STOP: Stops the fleet control and releases the engine threads.
         btnStop.addActionListener(e -> {
-            for (Vehicle v : fleet) v.stopSimulation();
+            fleetControl.stop();
+            engine.shutdown();
+            closeRecorder();
+            if (telemetry != null) {
+                telemetry.close(); // Delivers what is left, so the counter ends exact
+            }
+            refreshVisibleRows();
             lblStatus.setText("Simulation STOPPED.");
             // Reset UI State
             btnStart.setEnabled(false);
             btnPause.setEnabled(false);
             btnResume.setEnabled(false);
             btnStop.setEnabled(false);
-            btnRefuel1.setEnabled(false);
-            btnRefuel2.setEnabled(false);
-            btnRefuel3.setEnabled(false);
+            btnRefuel.setEnabled(false);
         });
 
-        // REFUEL: Logic to refill specific vehicles
-        btnRefuel1.addActionListener(e -> performRefuel(0, 50.0));
-        btnRefuel2.addActionListener(e -> performRefuel(1, 100.0));
-        btnRefuel3.addActionListener(e -> performRefuel(2, 500.0));
+        // REFUEL: Fills the tanks of the selected vehicles
+        btnRefuel.addActionListener(e -> {
+            for (int row : fleetTable.getSelectedRows()) {
+                performRefuel(row);
+            }
+        });
+        fleetTable.getSelectionModel().addListSelectionListener(e -> updateRefuelButton());
     }
 
     /*
      * Logic to handle refueling. Checks if vehicle implements FuelConsumable interface.
+     * Full tanks are skipped; everything else is filled up to capacity.
      */
-    private void performRefuel(int vehicleIndex, double amount) {
+    private void performRefuel(int vehicleIndex) {
         try {
             Vehicle v = fleet.get(vehicleIndex);
-            if (v instanceof fleetmanagement.interfaces.FuelConsumable) {
-                ((fleetmanagement.interfaces.FuelConsumable) v).refuel(amount);
+            if (v instanceof FuelConsumable) {
+                FuelConsumable tank = (FuelConsumable) v;
+                if (tank.getFuelLevel() < tank.getFuelCapacity()) {
+                    if (recorder != null) {
+                        recorder.recordRefuel(vehicleIndex);
+                    }
+                    tank.refuel(tank.getFuelCapacity());
+                }
             }
         } catch (InvalidOperationException ex) {
             ex.printStackTrace();
         }
     }
 
+    // Virtual ms since Start: the discrete-event clock if that engine runs, else the wall clock
+    private static LongSupplier clockOf(SimulationEngine engine) {
+        if (engine instanceof DiscreteEventSimulator) {
+            return ((DiscreteEventSimulator) engine)::now;
+        }
+        long startNanos = System.nanoTime();
+        return () -> (System.nanoTime() - startNanos) / 1_000_000L;
+    }
+
+    private void closeRecorder() {
+        if (recorder == null) return;
+        try {
+            recorder.close();
+        } catch (IOException e) {
+            System.out.println("Error: " + e.getMessage());
+        }
+    }
+
     /*
-     * Called by the Swing Timer. Calculates totals and updates labels.
+     * Called on the EDT with the vehicles that changed since the last batch.
      * This separates the simulation logic (Threads) from display logic (EDT).
      */
-    private void updateGUILabels() {
-        double realTotalMileage = 0;
-        // Iterate through fleet to calculate actual total distance
-        for(Vehicle v : fleet) {
-            realTotalMileage += v.getCurrentMileage();
-        }
+    private void updateGUILabels(VehicleChangeBus.Batch batch) {
+        // Only the visible rows whose text changed are repainted
+        int[] rows = visibleRows();
+        fleetModel.applyChanges(batch, rows[0], rows[1]);
 
-        // Update the main counter label
+        updateCounterLabel();
+        updateRefuelButton();
+    }
+
+    // Fleet-wide changes are not reported per vehicle; the rest of the rows show them when scrolled to
+    private void refreshVisibleRows() {
+        int[] rows = visibleRows();
+        fleetModel.refreshRows(rows[0], rows[1]);
+        updateRefuelButton();
+    }
+
+    private int[] visibleRows() {
+        Rectangle visible = fleetTable.getVisibleRect();
+        int firstRow = fleetTable.rowAtPoint(visible.getLocation());
+        int lastRow = fleetTable.rowAtPoint(new Point(visible.x, visible.y + visible.height - 1));
+        return new int[] {firstRow, lastRow < 0 ? fleet.size() - 1 : lastRow};
+    }
+
+    private void updateCounterLabel() {
+        // Real Total and the fleet totals are running aggregates, no walk over the fleet
         lblCounter.setText(String.format(
                 "Shared Highway Distance: %d  |  Real Total: %.0f",
-                highwayDistance, realTotalMileage
+                highwayDistance.getHighwayDistance(), analytics.getTotalMileage()
         ));
-
-        // Update specific vehicle rows if fleet is populated
-        if (fleet.size() >= 3) {
-            updateVehicleLabel(lblVehicle1, btnRefuel1, (Car)fleet.get(0));
-            updateVehicleLabel(lblVehicle2, btnRefuel2, (Truck)fleet.get(1));
-            updateVehicleLabel(lblVehicle3, btnRefuel3, (Airplane)fleet.get(2));
+        lblAnalytics.setText(String.format(
+                "Fuel on board: %.0f L  |  Out of fuel: %d  |  Cargo: %.0f kg  |  Passengers: %d",
+                analytics.getTotalFuel(), analytics.getOutOfFuelCount(),
+                analytics.getCargoLoad(), analytics.getPassengerLoad()
+        ));
+        String byType = String.format("Car %.0f km, Truck %.0f km, Airplane %.0f km",
+                analytics.getMileage("Car"), analytics.getMileage("Truck"), analytics.getMileage("Airplane"));
+        if (telemetry != null) {
+            byType += String.format("  |  reported over telemetry: Car %d, Truck %d, Airplane %d",
+                    analytics.getReportedDistance("Car"), analytics.getReportedDistance("Truck"),
+                    analytics.getReportedDistance("Airplane"));
+        }
+        lblAnalytics.setToolTipText(byType);
+        // Contention statistics: how often two threads hit the same stripe
+        String counterStats = String.format("%d stripes, %d CAS retries",
+                highwayDistance.getStripeCount(), highwayDistance.getRetryCount());
+        if (telemetry != null) {
+            // How far the consumers are behind, and what the backpressure policy gave up
+            counterStats += String.format("  |  telemetry %s: %d records, %d waiting, %d dropped, %d sampled out",
+                    telemetry.getPolicy(), telemetry.getPublished(), telemetry.getBacklog(),
+                    telemetry.getDropped(), telemetry.getSampledOut());
         }
+        lblCounter.setToolTipText(counterStats);
     }
 
     /*
-     * Updates a single vehicle's status label with HTML formatting for colors.
-     * Also controls the state of the Refuel button based on vehicle status.
+     * Enables "Refuel Selected" only if a selected vehicle is paused or out of fuel
+     * (same rule as the old per-vehicle buttons).
      */
-    private void updateVehicleLabel(JLabel label, JButton refuelBtn, Vehicle v) {
-        double fuel = 0;
-        if (v instanceof fleetmanagement.interfaces.FuelConsumable) {
-            fuel = ((fleetmanagement.interfaces.FuelConsumable) v).getFuelLevel();
-        }
-
-        String status = v.getStatus();
-        String color = "black";
-
-        // Color coding based on status
-        if (status.equals("Running")) color = "green";
-        else if (status.equals("Out of Fuel")) color = "red";
-        else if (status.equals("Paused")) color = "orange";
-
-        // HTML usage in JLabel for rich text formatting
-        label.setText(String.format("<html><b>%s</b> (%s): %.0f km travelled<br/>Fuel: %.1f L  |  Status: <font color='%s'>%s</font></html>",
-                v.getClass().getSimpleName(), v.getId(), v.getCurrentMileage(), fuel, color, status));
-
-        // Enable refuel button only if paused or out of fuel
-        if (!status.equals("Running") && !status.equals("Idle")) {
-            refuelBtn.setEnabled(true);
-        } else {
-            refuelBtn.setEnabled(false);
+    private void updateRefuelButton() {
+        boolean enable = false;
+        if (btnStop.isEnabled()) { // Nothing to refuel before Start or after Stop
+            for (int row : fleetTable.getSelectedRows()) {
+                if (fleetModel.getVehicle(row).getState().isHalted()) {
+                    enable = true;
+                    break;
+                }
+            }
         }
+        btnRefuel.setEnabled(enable);
     }
-}
\ No newline at end of file
+}
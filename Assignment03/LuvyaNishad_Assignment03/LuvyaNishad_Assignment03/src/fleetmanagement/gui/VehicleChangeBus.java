@@ -0,0 +1,159 @@
+package fleetmanagement.gui;
+
+import fleetmanagement.exceptions.InvalidOperationException;
+import fleetmanagement.interfaces.VehicleListener;
+import fleetmanagement.vehicles.FleetStore;
+import fleetmanagement.vehicles.Vehicle;
+import fleetmanagement.vehicles.VehicleState;
+
+import javax.swing.SwingUtilities;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/*
+ * Collects vehicle change events from the simulation threads and hands them to the
+ * EDT in batches.
+ *
+ * Each vehicle has a dirty mask (STATUS | FUEL | MILEAGE). The first event for a clean
+ * vehicle sets its bit in a bitset over the fleet positions; further events only set
+ * mask bits, so a vehicle that changes many times before the EDT gets to it is
+ * delivered once. Neither allocates. One drain task at a time is scheduled with
+ * invokeLater; it takes the bitset a word at a time, clears the masks and passes the
+ * batch on in ascending fleet order, so receivers can merge neighbouring rows.
+ * The events carry no values: the receiver reads the vehicle's current state,
+ * which is always the latest one.
+ *
+ * All vehicles must share one FleetStore; their slots index the dirty masks.
+ */
+public class VehicleChangeBus implements VehicleListener {
+
+    public static final int STATUS = 1;
+    public static final int FUEL = 2;
+    public static final int MILEAGE = 4;
+
+    // Receives the changes on the EDT
+    public interface BatchListener {
+        void onVehiclesChanged(Batch batch);
+    }
+
+    private static final VarHandle PENDING = MethodHandles.arrayElementVarHandle(long[].class);
+
+    // Vehicles that changed since the last batch, in ascending fleet order; only valid during onVehiclesChanged
+    public static final class Batch {
+        private int size;
+        private int[] indices = new int[64];
+        private int[] changes = new int[64];
+
+        public int size() { return size; }
+
+        // Position of the i-th changed vehicle in the fleet list
+        public int getIndex(int i) { return indices[i]; }
+
+        public int getChanges(int i) { return changes[i]; }
+
+        void add(int index, int mask) {
+            if (size == indices.length) {
+                indices = Arrays.copyOf(indices, size * 2);
+                changes = Arrays.copyOf(changes, size * 2);
+            }
+            indices[size] = index;
+            changes[size] = mask;
+            size++;
+        }
+    }
+
+    private final List<? extends Vehicle> fleet;
+    private final BatchListener receiver;
+    private final int[] indexBySlot;
+    private final AtomicIntegerArray dirty;
+    private final long[] pending; // Bit i set: vehicle i has a non-zero mask; accessed through PENDING only
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+    private final Batch batch = new Batch();
+
+    public VehicleChangeBus(List<? extends Vehicle> fleet, BatchListener receiver) throws InvalidOperationException {
+        this.fleet = fleet;
+        this.receiver = receiver;
+        FleetStore store = fleet.isEmpty() ? null : fleet.get(0).getStore();
+        this.indexBySlot = new int[store == null ? 0 : store.size()];
+        for (int i = 0; i < fleet.size(); i++) {
+            Vehicle v = fleet.get(i);
+            if (v.getStore() != store) {
+                throw new InvalidOperationException("All vehicles on a change bus must share one FleetStore");
+            }
+            indexBySlot[v.getSlot()] = i;
+        }
+        this.dirty = new AtomicIntegerArray(fleet.size());
+        this.pending = new long[(fleet.size() + 63) >>> 6];
+        for (Vehicle v : fleet) {
+            v.addVehicleListener(this);
+        }
+    }
+
+    public void detach() {
+        for (Vehicle v : fleet) {
+            v.removeVehicleListener(this);
+        }
+    }
+
+    // --- VehicleListener (simulation threads) ---
+
+    @Override
+    public void onStateChanged(Vehicle vehicle, VehicleState oldState, VehicleState newState) {
+        mark(vehicle, STATUS);
+    }
+
+    @Override
+    public void onFuelChanged(Vehicle vehicle, double fuelLevel) {
+        mark(vehicle, FUEL);
+    }
+
+    @Override
+    public void onMileageChanged(Vehicle vehicle, double mileage) {
+        mark(vehicle, MILEAGE);
+    }
+
+    private void mark(Vehicle vehicle, int bit) {
+        int index = indexBySlot[vehicle.getSlot()];
+        int previous;
+        do {
+            previous = dirty.get(index);
+            if ((previous & bit) != 0) {
+                return; // Already pending; coalesced into the queued entry
+            }
+        } while (!dirty.compareAndSet(index, previous, previous | bit));
+
+        if (previous == 0) {
+            PENDING.getAndBitwiseOr(pending, index >>> 6, 1L << index);
+            if (drainScheduled.compareAndSet(false, true)) {
+                SwingUtilities.invokeLater(this::drain);
+            }
+        }
+    }
+
+    // --- EDT ---
+
+    private void drain() {
+        // Cleared first: anything marked from now on schedules a new drain
+        drainScheduled.set(false);
+        batch.size = 0;
+        for (int word = 0; word < pending.length; word++) {
+            if ((long) PENDING.getOpaque(pending, word) == 0) continue;
+            long bits = (long) PENDING.getAndSet(pending, word, 0L);
+            while (bits != 0) {
+                int index = (word << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                int changes = dirty.getAndSet(index, 0);
+                if (changes != 0) {
+                    batch.add(index, changes);
+                }
+            }
+        }
+        if (batch.size > 0) {
+            receiver.onVehiclesChanged(batch);
+        }
+    }
+}
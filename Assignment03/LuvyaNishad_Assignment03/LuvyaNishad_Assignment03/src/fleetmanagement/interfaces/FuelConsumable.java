@@ -5,6 +5,9 @@ import fleetmanagement.exceptions.InvalidOperationException;
 
 public interface FuelConsumable {
     double consumeFuel(double distance) throws InsufficientFuelException;
+    // Non-throwing variant for simulation hot paths: returns false and leaves the tank untouched
+    boolean tryConsumeFuel(double distance);
     void refuel(double amount) throws InvalidOperationException;
     double getFuelLevel();
+    double getFuelCapacity();
 }
\ No newline at end of file
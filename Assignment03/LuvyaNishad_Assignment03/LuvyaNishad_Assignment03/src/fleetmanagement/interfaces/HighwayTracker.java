@@ -2,5 +2,12 @@ package fleetmanagement.interfaces;
 
 // Decouples the Vehicle from the GUI (Feedback Point 3)
 public interface HighwayTracker {
-    void incrementHighwayCounter();
-}
\ No newline at end of file
+    // Adds a batch of kilometres in one call
+    void add(long distance);
+
+    long getHighwayDistance();
+
+    default void incrementHighwayCounter() {
+        add(1);
+    }
+}
@@ -1,6 +1,9 @@
 package fleetmanagement.interfaces;
 
 public interface Maintainable {
+    // Service is due once a vehicle has travelled more than this since its last one
+    double SERVICE_INTERVAL_KM = 10000;
+
     boolean needsMaintenance();
     void performMaintenance();
     void scheduleMaintenance();
@@ -0,0 +1,13 @@
+package fleetmanagement.interfaces;
+
+import fleetmanagement.vehicles.Vehicle;
+
+import java.util.List;
+
+// Decouples the Vehicle from the way its ticks are executed (shared pool, virtual threads, ...)
+public interface SimulationEngine {
+    void start(List<? extends Vehicle> fleet);
+    void wake(Vehicle vehicle);
+    void shutdown();
+    int getActiveCount();
+}
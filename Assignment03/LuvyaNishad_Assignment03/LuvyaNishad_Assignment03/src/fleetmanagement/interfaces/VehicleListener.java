@@ -0,0 +1,29 @@
+package fleetmanagement.interfaces;
+
+import fleetmanagement.vehicles.Vehicle;
+import fleetmanagement.vehicles.VehicleState;
+
+/*
+ * Notified when a vehicle's lifecycle state, fuel level, mileage, load or
+ * maintenance flag changes.
+ * Called on the thread that made the change (usually a simulation thread),
+ * so implementations must be quick and thread-safe.
+ */
+public interface VehicleListener {
+    default void onStateChanged(Vehicle vehicle, VehicleState oldState, VehicleState newState) {
+    }
+
+    default void onFuelChanged(Vehicle vehicle, double fuelLevel) {
+    }
+
+    default void onMileageChanged(Vehicle vehicle, double mileage) {
+    }
+
+    // Cargo in kg and passengers on board (0 for what the vehicle cannot carry)
+    default void onLoadChanged(Vehicle vehicle, double cargo, int passengers) {
+    }
+
+    // Maintainable.scheduleMaintenance() was called (mileage changes are reported above)
+    default void onMaintenanceScheduled(Vehicle vehicle) {
+    }
+}
@@ -0,0 +1,210 @@
+package fleetmanagement.metrics;
+
+import fleetmanagement.interfaces.HighwayTracker;
+import fleetmanagement.vehicles.Airplane;
+import fleetmanagement.vehicles.Car;
+import fleetmanagement.vehicles.FleetControl;
+import fleetmanagement.vehicles.Truck;
+import fleetmanagement.vehicles.Vehicle;
+import fleetmanagement.vehicles.VehicleState;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Process-wide simulator metrics, exported over JMX by registerMBeans():
+ *
+ *   fleetmanagement:type=Metrics                     transition counts, highway counter rate
+ *   fleetmanagement:type=TickLatency,vehicle=<Type>  time spent in Vehicle.tick(), per type
+ *   fleetmanagement:type=SchedulingLag               how late ticks start vs. their due time
+ *
+ * Recording is always on. Engines time one tick in SAMPLE_RATE (chosen at random),
+ * so the two System.nanoTime() calls cost well under a nanosecond per tick on average;
+ * the histograms and counters are LongAdders, which never block the vehicle threads.
+ * Status transitions are counted every time (they are rare). Fleet-wide pauses,
+ * resumes and stops change no vehicle's own state, so they are counted by adding
+ * the metrics as a listener to the FleetControl: one count per fleet phase change.
+ */
+public class FleetMetrics implements FleetMetricsMBean, FleetControl.Listener {
+
+    public static final int SAMPLE_RATE = 16;
+    public static final String DOMAIN = "fleetmanagement";
+
+    private static final String[] TYPES = {"Car", "Truck", "Airplane", "Other"};
+    // Declared after TYPES, which the constructor needs
+    private static final FleetMetrics GLOBAL = new FleetMetrics();
+
+    private final LatencyHistogram[] tickLatency = new LatencyHistogram[TYPES.length];
+    private final LatencyHistogram schedulingLag = new LatencyHistogram();
+
+    private final LongAdder pauses = new LongAdder();
+    private final LongAdder resumes = new LongAdder();
+    private final LongAdder outOfFuel = new LongAdder();
+    private final LongAdder stops = new LongAdder();
+
+    // Highway counter, sampled once per second by a background thread
+    private volatile HighwayTracker counter;
+    private volatile double counterRate;
+    private ScheduledExecutorService sampler;
+    private long lastDistance;
+    private long lastSampleNanos;
+
+    public FleetMetrics() {
+        for (int i = 0; i < TYPES.length; i++) {
+            tickLatency[i] = new LatencyHistogram();
+        }
+    }
+
+    public static FleetMetrics global() { return GLOBAL; }
+
+    // True for the ticks that should be timed
+    public static boolean sample() {
+        return ThreadLocalRandom.current().nextInt(SAMPLE_RATE) == 0;
+    }
+
+    // --- RECORDING ---
+
+    public void recordTick(Vehicle vehicle, long nanos) {
+        tickLatency[typeIndex(vehicle)].record(nanos);
+    }
+
+    public void recordLag(long nanos) {
+        schedulingLag.record(nanos);
+    }
+
+    public void recordTransition(VehicleState oldState, VehicleState newState) {
+        switch (newState) {
+            case PAUSED: pauses.increment(); break;
+            case OUT_OF_FUEL: outOfFuel.increment(); break;
+            case STOPPED: stops.increment(); break;
+            case RUNNING:
+                // Idle -> Running is a start, not a resume
+                if (oldState.isHalted()) resumes.increment();
+                break;
+            default:
+                break;
+        }
+    }
+
+    // A pause, resume or stop of the whole fleet
+    @Override
+    public void onPhaseChanged(FleetControl control, VehicleState phase, long epoch) {
+        switch (phase) {
+            case PAUSED: pauses.increment(); break;
+            case RUNNING: resumes.increment(); break; // The fleet starts out RUNNING, so this is always a resume
+            case STOPPED: stops.increment(); break;
+            default: break;
+        }
+    }
+
+    // Starts sampling the rate of the given counter (replaces any previous one)
+    public synchronized void watchCounter(HighwayTracker highwayCounter) {
+        counter = highwayCounter;
+        lastDistance = highwayCounter.getHighwayDistance();
+        lastSampleNanos = System.nanoTime();
+        counterRate = 0.0;
+        if (sampler == null) {
+            sampler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "metrics-sampler");
+                t.setDaemon(true);
+                return t;
+            });
+            sampler.scheduleAtFixedRate(this::sampleCounter, 1, 1, TimeUnit.SECONDS);
+        }
+    }
+
+    private synchronized void sampleCounter() {
+        HighwayTracker current = counter;
+        if (current == null) return;
+        long distance = current.getHighwayDistance();
+        long nowNanos = System.nanoTime();
+        counterRate = (distance - lastDistance) * 1e9 / Math.max(1, nowNanos - lastSampleNanos);
+        lastDistance = distance;
+        lastSampleNanos = nowNanos;
+    }
+
+    public LatencyHistogram getTickLatency(String type) {
+        for (int i = 0; i < TYPES.length; i++) {
+            if (TYPES[i].equals(type)) return tickLatency[i];
+        }
+        return tickLatency[TYPES.length - 1];
+    }
+
+    public LatencyHistogram getSchedulingLag() { return schedulingLag; }
+
+    private static int typeIndex(Vehicle vehicle) {
+        if (vehicle instanceof Car) return 0;
+        if (vehicle instanceof Truck) return 1;
+        if (vehicle instanceof Airplane) return 2;
+        return 3;
+    }
+
+    // --- MBean attributes ---
+
+    @Override
+    public long getPauses() { return pauses.sum(); }
+
+    @Override
+    public long getResumes() { return resumes.sum(); }
+
+    @Override
+    public long getOutOfFuelEvents() { return outOfFuel.sum(); }
+
+    @Override
+    public long getStops() { return stops.sum(); }
+
+    @Override
+    public long getHighwayDistance() {
+        HighwayTracker current = counter;
+        return current == null ? 0 : current.getHighwayDistance();
+    }
+
+    @Override
+    public double getHighwayCounterRatePerSecond() { return counterRate; }
+
+    @Override
+    public int getSampleRate() { return SAMPLE_RATE; }
+
+    @Override
+    public void reset() {
+        pauses.reset();
+        resumes.reset();
+        outOfFuel.reset();
+        stops.reset();
+        schedulingLag.reset();
+        for (LatencyHistogram h : tickLatency) h.reset();
+    }
+
+    // --- JMX ---
+
+    /*
+     * Registers the global metrics with the platform MBean server (visible in
+     * JConsole / VisualVM). Calling it again is harmless.
+     */
+    public static void registerMBeans() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        register(server, GLOBAL, DOMAIN + ":type=Metrics");
+        register(server, GLOBAL.schedulingLag, DOMAIN + ":type=SchedulingLag");
+        for (int i = 0; i < TYPES.length; i++) {
+            register(server, GLOBAL.tickLatency[i], DOMAIN + ":type=TickLatency,vehicle=" + TYPES[i]);
+        }
+    }
+
+    private static void register(MBeanServer server, Object bean, String name) {
+        try {
+            server.registerMBean(bean, new ObjectName(name));
+        } catch (InstanceAlreadyExistsException e) {
+            // Already registered by an earlier call
+        } catch (JMException e) {
+            System.out.println("Could not register MBean " + name + ": " + e.getMessage());
+        }
+    }
+}
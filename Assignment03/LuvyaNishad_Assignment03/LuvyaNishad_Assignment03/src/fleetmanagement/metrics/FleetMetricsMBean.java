@@ -0,0 +1,20 @@
+package fleetmanagement.metrics;
+
+// JMX view of FleetMetrics (standard MBean naming: <class>MBean, same package)
+public interface FleetMetricsMBean {
+    long getPauses();
+
+    long getResumes();
+
+    long getOutOfFuelEvents();
+
+    long getStops();
+
+    long getHighwayDistance();
+
+    double getHighwayCounterRatePerSecond();
+
+    int getSampleRate();
+
+    void reset();
+}
@@ -0,0 +1,114 @@
+package fleetmanagement.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Concurrent log-linear histogram of durations in nanoseconds.
+ *
+ * Every power of two is split into 8 sub-buckets, so a recorded value is off by at
+ * most 12.5%, and 312 buckets cover 1 ns to ~18 minutes (longer values land in the
+ * last bucket). Buckets are LongAdders: threads on different cores add to different
+ * cells, so recording is a few nanoseconds and never blocks.
+ */
+public class LatencyHistogram implements LatencyHistogramMBean {
+
+    private static final int SUB_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int MAX_EXPONENT = 40;
+    private static final int BUCKETS = (MAX_EXPONENT - SUB_BITS + 2) * SUB_BUCKETS;
+
+    private final LongAdder[] counts = new LongAdder[BUCKETS];
+    private final LongAdder total = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = new LongAdder();
+        }
+    }
+
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts[bucketOf(value)].increment();
+        total.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    // --- MBean attributes (microseconds) ---
+
+    @Override
+    public long getCount() { return total.sum(); }
+
+    @Override
+    public double getMeanMicros() {
+        long n = total.sum();
+        return n == 0 ? 0.0 : sum.sum() / (double) n / 1000.0;
+    }
+
+    @Override
+    public double getMaxMicros() { return max.get() / 1000.0; }
+
+    @Override
+    public double getP50Micros() { return percentile(0.50) / 1000.0; }
+
+    @Override
+    public double getP90Micros() { return percentile(0.90) / 1000.0; }
+
+    @Override
+    public double getP99Micros() { return percentile(0.99) / 1000.0; }
+
+    @Override
+    public double getP999Micros() { return percentile(0.999) / 1000.0; }
+
+    @Override
+    public void reset() {
+        for (LongAdder c : counts) c.reset();
+        total.reset();
+        sum.reset();
+        max.reset();
+    }
+
+    /*
+     * Upper bound (in ns) of the bucket holding the given fraction of all values.
+     * Counts are read bucket by bucket while others record, so the result is
+     * approximate under load, which is fine for monitoring.
+     */
+    public long percentile(double fraction) {
+        long[] snapshot = new long[BUCKETS];
+        long n = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts[i].sum();
+            n += snapshot[i];
+        }
+        if (n == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(fraction * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(lowerBound(i + 1) - 1, max.get());
+            }
+        }
+        return max.get();
+    }
+
+    // --- BUCKET MATH ---
+
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) return (int) value;
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent > MAX_EXPONENT) return BUCKETS - 1;
+        int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    static long lowerBound(int bucket) {
+        if (bucket < SUB_BUCKETS) return bucket;
+        int exponent = bucket / SUB_BUCKETS + SUB_BITS - 1;
+        long sub = bucket % SUB_BUCKETS;
+        return (SUB_BUCKETS + sub) << (exponent - SUB_BITS);
+    }
+}
@@ -0,0 +1,20 @@
+package fleetmanagement.metrics;
+
+// JMX view of a LatencyHistogram (standard MBean naming: <class>MBean, same package)
+public interface LatencyHistogramMBean {
+    long getCount();
+
+    double getMeanMicros();
+
+    double getMaxMicros();
+
+    double getP50Micros();
+
+    double getP90Micros();
+
+    double getP99Micros();
+
+    double getP999Micros();
+
+    void reset();
+}
@@ -0,0 +1,50 @@
+package fleetmanagement.metrics;
+
+import fleetmanagement.simulation.TelemetryRing;
+
+/*
+ * Telemetry consumer that logs a one-line summary of the ring every interval:
+ * records and distance delivered since the last line, the largest batch, and what
+ * the backpressure policy has dropped or sampled out so far.
+ *
+ * Runs on the ring's drain thread like every consumer; between two lines it only
+ * adds up the batches, so it never slows the drain down.
+ */
+public class TelemetryLog implements TelemetryRing.Consumer {
+
+    private final TelemetryRing ring;
+    private final long intervalNanos;
+
+    // Touched by the drain thread only
+    private long lastLogNanos = System.nanoTime();
+    private long records;
+    private long batches;
+    private long distance;
+    private int largestBatch;
+
+    public TelemetryLog(TelemetryRing ring, long intervalSeconds) {
+        this.ring = ring;
+        this.intervalNanos = Math.max(1, intervalSeconds) * 1_000_000_000L;
+    }
+
+    @Override
+    public void onBatch(TelemetryRing.Batch batch) {
+        records += batch.size();
+        batches++;
+        distance += batch.getWeightedTotal();
+        largestBatch = Math.max(largestBatch, batch.size());
+
+        long now = System.nanoTime();
+        if (now - lastLogNanos < intervalNanos) return;
+        System.out.println(String.format(
+                "Telemetry %s: %d records in %d batches (largest %d), distance %d in the last %d s; "
+                        + "%d waiting, %d dropped, %d sampled out",
+                ring.getPolicy(), records, batches, largestBatch, distance, (now - lastLogNanos) / 1_000_000_000L,
+                ring.getBacklog(), ring.getDropped(), ring.getSampledOut()));
+        lastLogNanos = now;
+        records = 0;
+        batches = 0;
+        distance = 0;
+        largestBatch = 0;
+    }
+}
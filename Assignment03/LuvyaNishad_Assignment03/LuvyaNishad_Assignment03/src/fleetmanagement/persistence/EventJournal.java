@@ -0,0 +1,531 @@
+package fleetmanagement.persistence;
+
+import fleetmanagement.exceptions.InvalidOperationException;
+import fleetmanagement.interfaces.CargoCarrier;
+import fleetmanagement.interfaces.PassengerCarrier;
+import fleetmanagement.interfaces.VehicleListener;
+import fleetmanagement.vehicles.Airplane;
+import fleetmanagement.vehicles.Car;
+import fleetmanagement.vehicles.FleetStore;
+import fleetmanagement.vehicles.FuelTank;
+import fleetmanagement.vehicles.Truck;
+import fleetmanagement.vehicles.Vehicle;
+import fleetmanagement.vehicles.VehicleState;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.CRC32;
+
+/*
+ * Write-ahead journal of everything that happens to a fleet, so a crash loses at most
+ * the last group commit.
+ *
+ * The journal directory holds generations: snapshot-G.bin (a FleetSnapshot) and
+ * journal-G.log, the changes made since just before that snapshot was taken. Opening
+ * a journal, and every checkpoint(), starts generation G+1: the new journal file comes
+ * first, so no change falls between the two generations, then the snapshot is written
+ * to a temporary file. Records committed to the new journal while the snapshot was
+ * being written can be older than the values in it, so every field of every vehicle
+ * is then journaled once more (this also carries pauses and stops over, which
+ * snapshots do not hold). Only after that commit is the snapshot renamed into place
+ * and are older generations deleted. recover() loads the newest complete snapshot
+ * and replays every journal from that generation on; the last record of every field
+ * in those journals is never older than the snapshot, so replay ends at the latest
+ * committed values. A crash before the rename recovers from the previous generation.
+ * The journal grows until the next checkpoint, so long runs call checkpoint()
+ * periodically (FleetStatusServer does).
+ *
+ * Records are absolute values, not deltas, so replaying one twice is harmless
+ * (big-endian, 6..17 bytes):
+ *   byte type, int fleet position, then
+ *   FUEL        long fuel units        (ticks, refuels)
+ *   MILEAGE     double km              (ticks; 0 after maintenance)
+ *   LOAD        double cargo, int passengers
+ *   MAINTENANCE byte 1 = scheduled, 0 = not
+ *   STATE       byte VehicleState ordinal (the vehicle's own state)
+ *
+ * Because only a vehicle's latest value matters, the listeners do not append anything:
+ * they set the changed field's bit in the vehicle's dirty mask (one atomic OR, no lock,
+ * no I/O). Every commitMillis a committer thread takes the dirty masks and writes the
+ * current values of the marked fields as CRC-checked frames through one FileChannel,
+ * then forces them to disk: one fsync per group. A vehicle ticked a thousand times
+ * between two commits costs two records, so the journal grows with the fleet size and
+ * the commit rate, not with the tick rate. A mask is cleared before its values are read,
+ * so a change racing with a commit is picked up by the next one.
+ * Recovery stops at the first torn or corrupt frame.
+ */
+public class EventJournal implements VehicleListener, AutoCloseable {
+
+    public static final int MAGIC = 0x464C4A4E; // "FLJN"
+    public static final short VERSION = 1;
+    public static final long DEFAULT_COMMIT_MILLIS = 10;
+
+    private static final byte FUEL = 1;
+    private static final byte MILEAGE = 2;
+    private static final byte LOAD = 3;
+    private static final byte MAINTENANCE = 4;
+    private static final byte STATE = 5;
+
+    // Dirty mask bits, one per record type
+    private static final int FUEL_BIT = 1 << FUEL;
+    private static final int MILEAGE_BIT = 1 << MILEAGE;
+    private static final int LOAD_BIT = 1 << LOAD;
+    private static final int MAINTENANCE_BIT = 1 << MAINTENANCE;
+    private static final int STATE_BIT = 1 << STATE;
+    private static final int ALL_BITS = FUEL_BIT | MILEAGE_BIT | LOAD_BIT | MAINTENANCE_BIT | STATE_BIT;
+    private static final VarHandle DIRTY = MethodHandles.arrayElementVarHandle(int[].class);
+
+    private static final int FRAME_BUFFER = 1 << 18;
+    private static final int MAX_RECORD = 1 + 4 + 8 + 4;
+    private static final int FRAME_HEADER = 8;
+    private static final int HEADER = 16;
+    private static final VehicleState[] STATES = VehicleState.values();
+
+    private final Path directory;
+    private final List<? extends Vehicle> fleet;
+    private final FleetStore store;
+    private final int[] indexBySlot;
+    private final int[] dirty; // Per fleet position, accessed through DIRTY only
+    private final long commitNanos;
+    private final Thread committer;
+
+    // Guards the channel, the generation and the committer's buffers; commits and checkpoints take it
+    private final Object ioLock = new Object();
+    private final ByteBuffer frame = ByteBuffer.allocate(FRAME_HEADER + FRAME_BUFFER);
+    private final CRC32 crc = new CRC32();
+    private FileChannel channel;
+    private long generation;
+    private volatile long committedRecords;
+    private volatile boolean closed = false;
+    private volatile IOException failure;
+
+    /*
+     * Starts journaling the fleet into 'directory' (created if needed) with a fresh
+     * checkpoint. All vehicles must share one FleetStore.
+     */
+    public EventJournal(Path directory, List<? extends Vehicle> fleet, long commitMillis)
+            throws IOException, InvalidOperationException {
+        this.directory = directory;
+        this.fleet = fleet;
+        this.store = fleet.isEmpty() ? null : fleet.get(0).getStore();
+        this.indexBySlot = new int[store == null ? 0 : store.size()];
+        this.dirty = new int[fleet.size()];
+        this.commitNanos = Math.max(1, commitMillis) * 1_000_000L;
+        for (int i = 0; i < fleet.size(); i++) {
+            Vehicle v = fleet.get(i);
+            if (v.getStore() != store) {
+                throw new InvalidOperationException("All journaled vehicles must share one FleetStore");
+            }
+            indexBySlot[v.getSlot()] = i;
+        }
+        Files.createDirectories(directory);
+        TreeSet<Long> existing = generations(directory, "journal-", ".log");
+        existing.addAll(generations(directory, "snapshot-", ".bin"));
+        this.generation = existing.isEmpty() ? -1 : existing.last();
+
+        this.committer = new Thread(this::commitLoop, "journal-commit");
+        this.committer.setDaemon(true);
+        // Listen before the snapshot is taken, so no change falls in between
+        for (Vehicle v : fleet) {
+            v.addVehicleListener(this);
+        }
+        committer.start();
+        try {
+            checkpoint();
+        } catch (IOException | InvalidOperationException e) {
+            for (Vehicle v : fleet) {
+                v.removeVehicleListener(this);
+            }
+            closed = true;
+            LockSupport.unpark(committer);
+            synchronized (ioLock) {
+                if (channel != null) channel.close();
+            }
+            throw e;
+        }
+    }
+
+    public EventJournal(Path directory, List<? extends Vehicle> fleet) throws IOException, InvalidOperationException {
+        this(directory, fleet, DEFAULT_COMMIT_MILLIS);
+    }
+
+    public long getGeneration() {
+        synchronized (ioLock) {
+            return generation;
+        }
+    }
+
+    /*
+     * Starts a new generation: commits what is pending to the current journal, switches
+     * to a new journal file, writes a snapshot, journals every field again and only
+     * then publishes the snapshot and deletes the older generations. The fleet keeps
+     * running (and journaling into the new file) during the snapshot.
+     */
+    public synchronized void checkpoint() throws IOException, InvalidOperationException {
+        long next;
+        synchronized (ioLock) {
+            checkOpen();
+            if (channel != null) {
+                commitAll();
+                channel.close();
+            }
+            next = generation + 1;
+            channel = FileChannel.open(journalFile(directory, next), StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.WRITE);
+            ByteBuffer header = ByteBuffer.allocate(HEADER);
+            header.putInt(MAGIC).putShort(VERSION).putShort((short) 0).putLong(fleet.size()).flip();
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            channel.force(true);
+            generation = next;
+        }
+        Path snapshot = snapshotFile(directory, next);
+        Path partial = directory.resolve(snapshot.getFileName() + ".tmp");
+        FleetSnapshot.write(partial, fleet);
+        try (FileChannel file = FileChannel.open(partial, StandardOpenOption.WRITE)) {
+            file.force(true);
+        }
+        // Every field is read again after the snapshot, so its last record is newer than the snapshot
+        for (int i = 0; i < fleet.size(); i++) {
+            mark(i, ALL_BITS);
+        }
+        sync();
+        Files.move(partial, snapshot, StandardCopyOption.ATOMIC_MOVE);
+        for (long old : generations(directory, "journal-", ".log")) {
+            if (old < next) Files.deleteIfExists(journalFile(directory, old));
+        }
+        for (long old : generations(directory, "snapshot-", ".bin")) {
+            if (old < next) Files.deleteIfExists(snapshotFile(directory, old));
+        }
+    }
+
+    // Blocks until every change made before the call is on disk
+    public void sync() throws IOException {
+        synchronized (ioLock) {
+            checkOpen();
+            commitAll();
+        }
+    }
+
+    // Stops journaling; every change made so far is committed first
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        for (Vehicle v : fleet) {
+            v.removeVehicleListener(this);
+        }
+        closed = true;
+        LockSupport.unpark(committer);
+        try {
+            committer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // Restore interrupt status
+        }
+        synchronized (ioLock) {
+            if (failure == null) commitAll();
+            channel.close();
+        }
+        checkFailure();
+    }
+
+    // Records written and forced to disk so far, over all generations (for monitoring)
+    public long getCommittedRecords() { return committedRecords; }
+
+    private void checkFailure() throws IOException {
+        IOException current = failure;
+        if (current != null) throw new IOException("Journal write failed earlier", current);
+    }
+
+    private void checkOpen() throws IOException {
+        checkFailure();
+        if (closed) throw new IOException("Journal is closed");
+    }
+
+    // --- VehicleListener (simulation threads): mark only, no lock, no I/O ---
+
+    @Override
+    public void onFuelChanged(Vehicle vehicle, double fuelLevel) {
+        mark(indexBySlot[vehicle.getSlot()], FUEL_BIT);
+    }
+
+    @Override
+    public void onMileageChanged(Vehicle vehicle, double mileage) {
+        // Only performMaintenance() resets mileage, and it also clears the maintenance flag
+        mark(indexBySlot[vehicle.getSlot()], mileage == 0.0 ? MILEAGE_BIT | MAINTENANCE_BIT : MILEAGE_BIT);
+    }
+
+    @Override
+    public void onLoadChanged(Vehicle vehicle, double cargo, int passengers) {
+        mark(indexBySlot[vehicle.getSlot()], LOAD_BIT);
+    }
+
+    @Override
+    public void onMaintenanceScheduled(Vehicle vehicle) {
+        mark(indexBySlot[vehicle.getSlot()], MAINTENANCE_BIT);
+    }
+
+    @Override
+    public void onStateChanged(Vehicle vehicle, VehicleState oldState, VehicleState newState) {
+        mark(indexBySlot[vehicle.getSlot()], STATE_BIT);
+    }
+
+    /*
+     * Always an atomic OR, even if the bits are already set: it orders the change the
+     * caller just made before the mark, so a commit that clears the mask afterwards
+     * is sure to read the new value.
+     */
+    private void mark(int index, int bits) {
+        DIRTY.getAndBitwiseOr(dirty, index, bits);
+    }
+
+    // --- GROUP COMMIT (committer thread, sync(), checkpoint(), close()) ---
+
+    private void commitLoop() {
+        while (!closed) {
+            LockSupport.parkNanos(this, commitNanos);
+            synchronized (ioLock) {
+                if (closed || failure != null) return;
+                if (channel == null) continue; // First checkpoint still opening the journal
+                try {
+                    commitAll();
+                } catch (IOException e) {
+                    failure = e;
+                    System.out.println("Error: journal write failed: " + e.getMessage());
+                    return;
+                }
+            }
+        }
+    }
+
+    /*
+     * Writes the current value of every marked field, in frames of up to FRAME_BUFFER
+     * bytes, then one force(); caller holds ioLock.
+     */
+    private void commitAll() throws IOException {
+        long records = 0;
+        frame.clear().position(FRAME_HEADER);
+        for (int i = 0; i < dirty.length; i++) {
+            if ((int) DIRTY.getOpaque(dirty, i) == 0) continue;
+            int bits = (int) DIRTY.getAndSet(dirty, i, 0);
+            Vehicle v = fleet.get(i);
+            for (int type = FUEL; type <= STATE; type++) {
+                if ((bits & (1 << type)) == 0) continue;
+                if (frame.remaining() < MAX_RECORD) writeFrame();
+                frame.put((byte) type).putInt(i);
+                switch (type) {
+                    case FUEL: frame.putLong(store.getFuelUnits(v.getSlot())); break;
+                    case MILEAGE: frame.putDouble(v.getCurrentMileage()); break;
+                    case LOAD: frame.putDouble(cargoOf(v)).putInt(passengersOf(v)); break;
+                    case MAINTENANCE: frame.put((byte) (isScheduled(v) ? 1 : 0)); break;
+                    default: frame.put((byte) v.getOwnState().ordinal()); break;
+                }
+                records++;
+            }
+        }
+        if (records == 0) return;
+        writeFrame();
+        channel.force(false);
+        committedRecords += records;
+    }
+
+    // Writes the records collected in 'frame' behind their length and CRC
+    private void writeFrame() throws IOException {
+        int length = frame.position() - FRAME_HEADER;
+        if (length == 0) return;
+        crc.reset();
+        crc.update(frame.array(), FRAME_HEADER, length);
+        frame.putInt(0, length).putInt(4, (int) crc.getValue()).flip();
+        while (frame.hasRemaining()) {
+            channel.write(frame);
+        }
+        frame.clear().position(FRAME_HEADER);
+    }
+
+    // --- RECOVERY ---
+
+    // True if 'directory' holds a complete snapshot that recover() can start from
+    public static boolean canRecover(Path directory) throws IOException {
+        return !generations(directory, "snapshot-", ".bin").isEmpty();
+    }
+
+    /*
+     * Rebuilds the fleet from the newest complete snapshot in 'directory' and the
+     * journals written since, into 'store'. Vehicles come back IDLE, or PAUSED /
+     * STOPPED if that was their last recorded state; a vehicle that ran dry is found
+     * out of fuel again on its first tick.
+     */
+    public static List<Vehicle> recover(Path directory, FleetStore store) throws IOException, InvalidOperationException {
+        TreeSet<Long> snapshots = generations(directory, "snapshot-", ".bin");
+        if (snapshots.isEmpty()) {
+            throw new InvalidOperationException("No fleet snapshot to recover from in " + directory);
+        }
+        long base = snapshots.last();
+        List<Vehicle> saved = FleetSnapshot.read(snapshotFile(directory, base), new FleetStore());
+        Replay replay = new Replay(saved);
+        for (long g : generations(directory, "journal-", ".log")) {
+            if (g >= base) replay.apply(journalFile(directory, g));
+        }
+        return replay.rebuild(store);
+    }
+
+    // Latest value of every field of every vehicle, starting from the snapshot
+    private static final class Replay {
+        final List<Vehicle> saved;
+        final long[] fuel;
+        final double[] mileage;
+        final double[] cargo;
+        final int[] passengers;
+        final boolean[] maintenance;
+        final VehicleState[] state;
+
+        Replay(List<Vehicle> saved) {
+            int n = saved.size();
+            this.saved = saved;
+            fuel = new long[n];
+            mileage = new double[n];
+            cargo = new double[n];
+            passengers = new int[n];
+            maintenance = new boolean[n];
+            state = new VehicleState[n];
+            for (int i = 0; i < n; i++) {
+                Vehicle v = saved.get(i);
+                fuel[i] = v.getStore().getFuelUnits(v.getSlot());
+                mileage[i] = v.getCurrentMileage();
+                cargo[i] = cargoOf(v);
+                passengers[i] = passengersOf(v);
+                maintenance[i] = isScheduled(v);
+                state[i] = VehicleState.IDLE;
+            }
+        }
+
+        void apply(Path journal) throws IOException, InvalidOperationException {
+            byte[] bytes = Files.readAllBytes(journal);
+            ByteBuffer in = ByteBuffer.wrap(bytes);
+            if (in.remaining() < HEADER || in.getInt() != MAGIC) {
+                throw new InvalidOperationException("Not a fleet journal: " + journal);
+            }
+            short version = in.getShort();
+            if (version > VERSION) {
+                throw new InvalidOperationException("Unsupported journal version " + version + " in " + journal);
+            }
+            in.getShort(); // reserved
+            if (in.getLong() != saved.size()) {
+                throw new InvalidOperationException("Journal " + journal + " does not match the snapshot's fleet");
+            }
+            CRC32 check = new CRC32();
+            while (in.remaining() >= FRAME_HEADER) {
+                int length = in.getInt();
+                int expected = in.getInt();
+                if (length < 0 || length > in.remaining()) break; // Torn last frame: the crash point
+                check.reset();
+                check.update(bytes, in.position(), length);
+                if ((int) check.getValue() != expected) break;
+                ByteBuffer frame = in.slice(in.position(), length);
+                in.position(in.position() + length);
+                while (frame.hasRemaining()) {
+                    record(frame);
+                }
+            }
+        }
+
+        private void record(ByteBuffer in) throws InvalidOperationException {
+            byte type = in.get();
+            int i = in.getInt();
+            if (i < 0 || i >= saved.size()) throw new InvalidOperationException("Corrupt journal record");
+            switch (type) {
+                case FUEL: fuel[i] = in.getLong(); break;
+                case MILEAGE: mileage[i] = in.getDouble(); break;
+                case LOAD:
+                    cargo[i] = in.getDouble();
+                    passengers[i] = in.getInt();
+                    break;
+                case MAINTENANCE: maintenance[i] = in.get() != 0; break;
+                case STATE:
+                    int next = in.get();
+                    if (next < 0 || next >= STATES.length) throw new InvalidOperationException("Corrupt journal record");
+                    state[i] = STATES[next];
+                    break;
+                default:
+                    throw new InvalidOperationException("Unknown journal record type " + type);
+            }
+        }
+
+        List<Vehicle> rebuild(FleetStore store) throws InvalidOperationException {
+            List<Vehicle> fleet = new ArrayList<>(saved.size());
+            for (int i = 0; i < saved.size(); i++) {
+                Vehicle v = saved.get(i);
+                double litres = FuelTank.toLitres(fuel[i]);
+                Vehicle restored;
+                if (v instanceof Car) {
+                    restored = Car.restore(v.getId(), v.getModel(), v.getMaxSpeed(), ((Car) v).getNumWheels(),
+                            litres, passengers[i], mileage[i], maintenance[i], store);
+                } else if (v instanceof Truck) {
+                    restored = Truck.restore(v.getId(), v.getModel(), v.getMaxSpeed(), ((Truck) v).getNumWheels(),
+                            litres, cargo[i], mileage[i], maintenance[i], store);
+                } else {
+                    restored = Airplane.restore(v.getId(), v.getModel(), v.getMaxSpeed(), ((Airplane) v).getMaxAltitude(),
+                            litres, passengers[i], cargo[i], mileage[i], maintenance[i], store);
+                }
+                if (state[i] == VehicleState.PAUSED) restored.pauseSimulation();
+                else if (state[i] == VehicleState.STOPPED) restored.stopSimulation();
+                fleet.add(restored);
+            }
+            return fleet;
+        }
+    }
+
+    // --- HELPERS ---
+
+    private static Path journalFile(Path directory, long generation) {
+        return directory.resolve("journal-" + generation + ".log");
+    }
+
+    private static Path snapshotFile(Path directory, long generation) {
+        return directory.resolve("snapshot-" + generation + ".bin");
+    }
+
+    // Generation numbers of the files named prefix + number + suffix
+    private static TreeSet<Long> generations(Path directory, String prefix, String suffix) throws IOException {
+        TreeSet<Long> found = new TreeSet<>();
+        if (!Files.isDirectory(directory)) return found;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, prefix + "*" + suffix)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    found.add(Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length())));
+                } catch (NumberFormatException e) {
+                    // Not one of ours
+                }
+            }
+        }
+        return found;
+    }
+
+    private static double cargoOf(Vehicle v) {
+        return v instanceof CargoCarrier ? ((CargoCarrier) v).getCurrentCargo() : 0.0;
+    }
+
+    private static int passengersOf(Vehicle v) {
+        return v instanceof PassengerCarrier ? ((PassengerCarrier) v).getCurrentPassengers() : 0;
+    }
+
+    private static boolean isScheduled(Vehicle v) {
+        if (v instanceof Car) return ((Car) v).isMaintenanceScheduled();
+        if (v instanceof Truck) return ((Truck) v).isMaintenanceScheduled();
+        if (v instanceof Airplane) return ((Airplane) v).isMaintenanceScheduled();
+        return false;
+    }
+}
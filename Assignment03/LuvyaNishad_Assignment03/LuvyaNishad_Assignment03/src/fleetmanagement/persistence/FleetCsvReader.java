@@ -0,0 +1,335 @@
+package fleetmanagement.persistence;
+
+import fleetmanagement.exceptions.InvalidOperationException;
+import fleetmanagement.vehicles.Airplane;
+import fleetmanagement.vehicles.Car;
+import fleetmanagement.vehicles.FleetStore;
+import fleetmanagement.vehicles.Truck;
+import fleetmanagement.vehicles.Vehicle;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/*
+ * Streaming, parallel reader for fleet CSV files (the toCSVString() format).
+ *
+ * The file is cut into chunks that end on a line break; each chunk is memory-mapped
+ * and parsed on its own ForkJoin worker into primitive rows. Lines are parsed straight
+ * from the mapped bytes: numeric fields never become Strings, only the id and model do.
+ * The rows are then turned into vehicles in file order, through the restore() factory
+ * of their type (Car, Truck, Airplane), so the vehicles get their FleetStore slots in
+ * the order of the file whatever order the chunks finish in.
+ *
+ * Chunks are at most 64 MB, so multi-GB rosters never hit the 2 GB mapping limit.
+ */
+public class FleetCsvReader {
+
+    private static final long MIN_CHUNK = 4L << 20;
+    private static final long MAX_CHUNK = 64L << 20;
+    private static final int MAX_FIELDS = 10;
+    private static final int NUMBERS = 7; // Numeric fields per row, ints included
+
+    private static final byte TYPE_CAR = 0;
+    private static final byte TYPE_TRUCK = 1;
+    private static final byte TYPE_AIRPLANE = 2;
+
+    private static final byte[] CAR = "Car".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] TRUCK = "Truck".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] AIRPLANE = "Airplane".getBytes(StandardCharsets.US_ASCII);
+
+    // Exact powers of ten for the fast decimal path
+    private static final double[] POWERS_OF_TEN = new double[23];
+
+    static {
+        POWERS_OF_TEN[0] = 1.0;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10.0;
+        }
+    }
+
+    /*
+     * The parsed lines of one chunk: the type, the id and model, the numeric fields in
+     * column order (NUMBERS per row; ints are stored exactly as doubles) and the
+     * maintenance flag.
+     */
+    private static final class Rows {
+        int size;
+        byte[] types = new byte[1024];
+        String[] ids = new String[1024];
+        String[] models = new String[1024];
+        double[] numbers = new double[1024 * NUMBERS];
+        boolean[] flags = new boolean[1024];
+        final double[] pending = new double[NUMBERS]; // The line being parsed
+
+        // Index of a new row, growing the columns when full
+        int add() {
+            if (size == types.length) {
+                int capacity = size * 2;
+                types = Arrays.copyOf(types, capacity);
+                ids = Arrays.copyOf(ids, capacity);
+                models = Arrays.copyOf(models, capacity);
+                numbers = Arrays.copyOf(numbers, capacity * NUMBERS);
+                flags = Arrays.copyOf(flags, capacity);
+            }
+            return size++;
+        }
+
+        Vehicle restore(int row, FleetStore store) throws InvalidOperationException {
+            int n = row * NUMBERS;
+            switch (types[row]) {
+                case TYPE_CAR:
+                    return Car.restore(ids[row], models[row], numbers[n], (int) numbers[n + 1], numbers[n + 2],
+                            (int) numbers[n + 3], numbers[n + 4], flags[row], store);
+                case TYPE_TRUCK:
+                    return Truck.restore(ids[row], models[row], numbers[n], (int) numbers[n + 1], numbers[n + 2],
+                            numbers[n + 3], numbers[n + 4], flags[row], store);
+                default:
+                    return Airplane.restore(ids[row], models[row], numbers[n], numbers[n + 1], numbers[n + 2],
+                            (int) numbers[n + 3], numbers[n + 4], numbers[n + 5], flags[row], store);
+            }
+        }
+    }
+
+    public static List<Vehicle> read(Path file, FleetStore store) throws IOException, InvalidOperationException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long[] bounds = chunkBounds(channel);
+            List<Callable<Rows>> tasks = new ArrayList<>();
+            for (int i = 0; i + 1 < bounds.length; i++) {
+                long start = bounds[i];
+                long end = bounds[i + 1];
+                tasks.add(() -> parseChunk(channel, start, end));
+            }
+
+            // Joined in file order, so the first bad line of the file is the one reported
+            List<Rows> chunks = new ArrayList<>();
+            int total = 0;
+            for (Future<Rows> part : ForkJoinPool.commonPool().invokeAll(tasks)) {
+                Rows rows = join(part);
+                chunks.add(rows);
+                total += rows.size;
+            }
+
+            List<Vehicle> fleet = new ArrayList<>(total);
+            for (Rows rows : chunks) {
+                for (int row = 0; row < rows.size; row++) {
+                    fleet.add(rows.restore(row, store));
+                }
+            }
+            return fleet;
+        }
+    }
+
+    /*
+     * Unwraps a chunk result, rethrowing the parser's own exception types. The pool
+     * wraps a checked exception in a RuntimeException before the Future wraps it in an
+     * ExecutionException, so the whole cause chain is searched.
+     */
+    private static Rows join(Future<Rows> part) throws IOException, InvalidOperationException {
+        try {
+            return part.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InvalidOperationException("CSV import interrupted");
+        } catch (ExecutionException e) {
+            for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+                if (cause instanceof IOException) throw (IOException) cause;
+                if (cause instanceof InvalidOperationException) throw (InvalidOperationException) cause;
+            }
+            throw new InvalidOperationException("CSV import failed: " + e.getCause());
+        }
+    }
+
+    // Chunk start offsets (plus the file size); every chunk starts right after a '\n'
+    private static long[] chunkBounds(FileChannel channel) throws IOException {
+        long size = channel.size();
+        int cores = Runtime.getRuntime().availableProcessors();
+        long target = Math.max(MIN_CHUNK, Math.min(MAX_CHUNK, size / (cores * 4L) + 1));
+
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        long position = target;
+        while (position < size) {
+            long lineEnd = -1;
+            long scan = position;
+            while (lineEnd < 0 && scan < size) {
+                probe.clear();
+                int read = channel.read(probe, scan);
+                if (read <= 0) break;
+                for (int i = 0; i < read; i++) {
+                    if (probe.get(i) == '\n') {
+                        lineEnd = scan + i + 1;
+                        break;
+                    }
+                }
+                scan += read;
+            }
+            if (lineEnd < 0 || lineEnd >= size) break;
+            bounds.add(lineEnd);
+            position = lineEnd + target;
+        }
+        bounds.add(size);
+
+        long[] result = new long[bounds.size()];
+        for (int i = 0; i < result.length; i++) result[i] = bounds.get(i);
+        return result;
+    }
+
+    private static Rows parseChunk(FileChannel channel, long start, long end)
+            throws IOException, InvalidOperationException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        Rows rows = new Rows();
+        int[] fieldStart = new int[MAX_FIELDS];
+        int[] fieldEnd = new int[MAX_FIELDS];
+        byte[] scratch = new byte[256];
+
+        int limit = buffer.limit();
+        int lineStart = 0;
+        while (lineStart < limit) {
+            int lineEnd = lineStart;
+            while (lineEnd < limit && buffer.get(lineEnd) != '\n') lineEnd++;
+            int contentEnd = lineEnd;
+            if (contentEnd > lineStart && buffer.get(contentEnd - 1) == '\r') contentEnd--;
+
+            if (contentEnd > lineStart) {
+                // Split the line into field offsets without copying
+                int fields = 0;
+                int fs = lineStart;
+                for (int i = lineStart; i <= contentEnd; i++) {
+                    if (i == contentEnd || buffer.get(i) == ',') {
+                        if (fields < MAX_FIELDS) {
+                            fieldStart[fields] = fs;
+                            fieldEnd[fields] = i;
+                        }
+                        fields++; // Extra fields are counted so the line is rejected below
+                        fs = i + 1;
+                    }
+                }
+                parseLine(buffer, fieldStart, fieldEnd, fields, lineStart, contentEnd, scratch, rows);
+            }
+            lineStart = lineEnd + 1;
+        }
+        return rows;
+    }
+
+    private static void parseLine(ByteBuffer b, int[] s, int[] e, int fields, int lineStart, int lineEnd,
+                                  byte[] scratch, Rows rows) throws InvalidOperationException {
+        try {
+            byte type = -1;
+            if (matches(b, s[0], e[0], CAR) && fields == 9) type = TYPE_CAR;
+            else if (matches(b, s[0], e[0], TRUCK) && fields == 9) type = TYPE_TRUCK;
+            else if (matches(b, s[0], e[0], AIRPLANE) && fields == 10) type = TYPE_AIRPLANE;
+            if (type >= 0) {
+                // Parsed before the row is added, so a bad line leaves no half-filled row
+                double[] values = rows.pending;
+                int last = fields - 1; // The maintenance flag
+                for (int f = 3; f < last; f++) {
+                    values[f - 3] = isIntField(type, f) ? parseInt(b, s[f], e[f]) : parseDouble(b, s[f], e[f]);
+                }
+                int row = rows.add();
+                rows.types[row] = type;
+                rows.ids[row] = text(b, s[1], e[1], scratch);
+                rows.models[row] = text(b, s[2], e[2], scratch);
+                System.arraycopy(values, 0, rows.numbers, row * NUMBERS, NUMBERS);
+                rows.flags[row] = parseBoolean(b, s[last], e[last]);
+                return;
+            }
+        } catch (NumberFormatException ex) {
+            // Reported below with the offending line
+        }
+        throw new InvalidOperationException("Invalid CSV data: " + text(b, lineStart, lineEnd, new byte[lineEnd - lineStart]));
+    }
+
+    // Columns holding an int: wheels and passengers (Car), wheels (Truck), passengers (Airplane)
+    private static boolean isIntField(byte type, int field) {
+        switch (type) {
+            case TYPE_CAR: return field == 4 || field == 6;
+            case TYPE_TRUCK: return field == 4;
+            default: return field == 6;
+        }
+    }
+
+    // --- FIELD PARSERS (work directly on the mapped bytes) ---
+
+    private static boolean matches(ByteBuffer b, int start, int end, byte[] expected) {
+        if (end - start != expected.length) return false;
+        for (int i = 0; i < expected.length; i++) {
+            if (b.get(start + i) != expected[i]) return false;
+        }
+        return true;
+    }
+
+    private static String text(ByteBuffer b, int start, int end, byte[] scratch) {
+        int length = end - start;
+        byte[] bytes = length <= scratch.length ? scratch : new byte[length];
+        b.get(start, bytes, 0, length);
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private static int parseInt(ByteBuffer b, int start, int end) {
+        long value = parseLong(b, start, end);
+        if (value != (int) value) throw new NumberFormatException("int overflow");
+        return (int) value;
+    }
+
+    private static long parseLong(ByteBuffer b, int start, int end) {
+        boolean negative = start < end && b.get(start) == '-';
+        int i = negative ? start + 1 : start;
+        if (i == end || end - i > 18) throw new NumberFormatException("bad integer");
+        long value = 0;
+        for (; i < end; i++) {
+            int digit = b.get(i) - '0';
+            if (digit < 0 || digit > 9) throw new NumberFormatException("bad integer");
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    /*
+     * Fast path for plain decimals such as "180.0": the digits form an exact long
+     * mantissa, and dividing it by an exact power of ten rounds correctly, so the
+     * result equals Double.parseDouble. Anything else (exponents, NaN, more than
+     * 15 digits) falls back to Double.parseDouble.
+     */
+    private static double parseDouble(ByteBuffer b, int start, int end) {
+        boolean negative = start < end && b.get(start) == '-';
+        int i = negative ? start + 1 : start;
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = -1;
+        for (; i < end; i++) {
+            byte c = b.get(i);
+            if (c == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+            } else if (c >= '0' && c <= '9' && digits < 15) {
+                mantissa = mantissa * 10 + (c - '0');
+                digits++;
+                if (fractionDigits >= 0) fractionDigits++;
+            } else {
+                return Double.parseDouble(text(b, start, end, new byte[end - start]));
+            }
+        }
+        if (digits == 0) throw new NumberFormatException("bad number");
+        double value = fractionDigits > 0 ? mantissa / POWERS_OF_TEN[fractionDigits] : mantissa;
+        return negative ? -value : value;
+    }
+
+    // Same rule as Boolean.parseBoolean: "true" in any case, everything else is false
+    private static boolean parseBoolean(ByteBuffer b, int start, int end) {
+        if (end - start != 4) return false;
+        return (b.get(start) | 0x20) == 't' && (b.get(start + 1) | 0x20) == 'r'
+                && (b.get(start + 2) | 0x20) == 'u' && (b.get(start + 3) | 0x20) == 'e';
+    }
+}
@@ -0,0 +1,170 @@
+package fleetmanagement.persistence;
+
+import fleetmanagement.exceptions.InvalidOperationException;
+import fleetmanagement.vehicles.Airplane;
+import fleetmanagement.vehicles.Car;
+import fleetmanagement.vehicles.Truck;
+import fleetmanagement.vehicles.Vehicle;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Locale;
+
+/*
+ * Writes fleet CSV files in the toCSVString() format without a String.format per vehicle.
+ *
+ * Fields are appended as bytes into one reusable 1 MB buffer that is drained to a
+ * FileChannel whenever it fills up. Decimals are printed with one digit after the
+ * point, rounded half-up like "%.1f", but always with '.' as the separator
+ * (String.format follows the default locale and would print "12,5" on some systems).
+ */
+public class FleetCsvWriter implements AutoCloseable {
+
+    private static final int BUFFER_SIZE = 1 << 20;
+    // Longest possible fixed field (e.g. a long or a formatted double) plus the separator
+    private static final int MAX_NUMBER = 32;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final byte[] digits = new byte[20];
+
+    public FleetCsvWriter(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    public static void write(Path file, List<? extends Vehicle> fleet) throws IOException, InvalidOperationException {
+        try (FleetCsvWriter writer = new FleetCsvWriter(file)) {
+            for (Vehicle v : fleet) {
+                writer.append(v);
+            }
+        }
+    }
+
+    public void append(Vehicle v) throws IOException, InvalidOperationException {
+        if (v instanceof Car) {
+            Car car = (Car) v;
+            text("Car").comma().text(car.getId()).comma().text(car.getModel()).comma()
+                    .decimal(car.getMaxSpeed()).comma().integer(car.getNumWheels()).comma()
+                    .decimal(car.getFuelLevel()).comma().integer(car.getCurrentPassengers()).comma()
+                    .decimal(car.getCurrentMileage()).comma().bool(car.isMaintenanceScheduled());
+        } else if (v instanceof Truck) {
+            Truck truck = (Truck) v;
+            text("Truck").comma().text(truck.getId()).comma().text(truck.getModel()).comma()
+                    .decimal(truck.getMaxSpeed()).comma().integer(truck.getNumWheels()).comma()
+                    .decimal(truck.getFuelLevel()).comma().decimal(truck.getCurrentCargo()).comma()
+                    .decimal(truck.getCurrentMileage()).comma().bool(truck.isMaintenanceScheduled());
+        } else if (v instanceof Airplane) {
+            Airplane plane = (Airplane) v;
+            text("Airplane").comma().text(plane.getId()).comma().text(plane.getModel()).comma()
+                    .decimal(plane.getMaxSpeed()).comma().decimal(plane.getMaxAltitude()).comma()
+                    .decimal(plane.getFuelLevel()).comma().integer(plane.getCurrentPassengers()).comma()
+                    .decimal(plane.getCurrentCargo()).comma().decimal(plane.getCurrentMileage()).comma()
+                    .bool(plane.isMaintenanceScheduled());
+        } else {
+            throw new InvalidOperationException("Cannot export vehicle type " + v.getClass().getSimpleName());
+        }
+        ensure(1);
+        buffer.put((byte) '\n');
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    // --- FIELD APPENDERS ---
+
+    private FleetCsvWriter comma() throws IOException {
+        ensure(1);
+        buffer.put((byte) ',');
+        return this;
+    }
+
+    private FleetCsvWriter text(String value) throws IOException {
+        ensure(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 0x80) {
+                // Rare non-ASCII id or model: encode it properly
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                buffer.position(buffer.position() - i);
+                ensure(bytes.length);
+                buffer.put(bytes);
+                return this;
+            }
+            buffer.put((byte) c);
+        }
+        return this;
+    }
+
+    private FleetCsvWriter integer(long value) throws IOException {
+        ensure(MAX_NUMBER);
+        if (value < 0) {
+            buffer.put((byte) '-');
+            value = -value;
+        }
+        int n = 0;
+        do {
+            digits[n++] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value > 0);
+        while (n > 0) {
+            buffer.put(digits[--n]);
+        }
+        return this;
+    }
+
+    /*
+     * Same text as String.format("%.1f", value) in an English locale.
+     * Values whose second decimal sits right on a rounding boundary, and values too
+     * large for a long, are handed to String.format to keep its exact half-up rule.
+     */
+    private FleetCsvWriter decimal(double value) throws IOException {
+        double magnitude = Math.abs(value);
+        double scaled = magnitude * 10.0;
+        double fraction = scaled - Math.floor(scaled);
+        if (Double.isNaN(value) || scaled >= 1e17 || Math.abs(fraction - 0.5) < 1e-6) {
+            return text(String.format(Locale.ROOT, "%.1f", value));
+        }
+        long tenths = Math.round(scaled);
+        if (value < 0 || (value == 0 && 1 / value < 0)) {
+            ensure(1);
+            buffer.put((byte) '-');
+        }
+        integer(tenths / 10);
+        ensure(2);
+        buffer.put((byte) '.').put((byte) ('0' + tenths % 10));
+        return this;
+    }
+
+    private FleetCsvWriter bool(boolean value) throws IOException {
+        return text(value ? "true" : "false");
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+            if (buffer.remaining() < bytes) {
+                throw new IOException("Field larger than the write buffer (" + bytes + " bytes)");
+            }
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
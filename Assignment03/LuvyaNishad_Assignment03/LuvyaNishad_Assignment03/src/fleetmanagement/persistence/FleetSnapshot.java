@@ -0,0 +1,239 @@
+package fleetmanagement.persistence;
+
+import fleetmanagement.exceptions.InvalidOperationException;
+import fleetmanagement.vehicles.Airplane;
+import fleetmanagement.vehicles.Car;
+import fleetmanagement.vehicles.FleetStore;
+import fleetmanagement.vehicles.FuelTank;
+import fleetmanagement.vehicles.Truck;
+import fleetmanagement.vehicles.Vehicle;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Compact binary save/restore for whole fleets, written and read through a FileChannel.
+ *
+ * Layout (big-endian):
+ *   header : int magic "FLSN", short version, short reserved, long vehicle count
+ *   record : byte type (1 = Car, 2 = Truck, 3 = Airplane), id, model, double maxSpeed,
+ *            then the type-specific fields (see writeRecord / readRecord)
+ *
+ * Strings are a short byte length followed by UTF-8. Models repeat a lot in real
+ * fleets, so each model string is written once and then referenced by index.
+ * Fuel is stored as FuelTank units, so a restored tank matches the saved one exactly.
+ *
+ * Both directions stream through one reusable 1 MB direct buffer, so the file
+ * size is not limited by memory or by the 2 GB limit of a single mapped buffer.
+ */
+public class FleetSnapshot {
+
+    public static final int MAGIC = 0x464C534E; // "FLSN"
+    public static final short VERSION = 1;
+
+    private static final byte CAR = 1;
+    private static final byte TRUCK = 2;
+    private static final byte AIRPLANE = 3;
+
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final int NEW_MODEL = -1;
+
+    public static void write(Path file, List<? extends Vehicle> fleet) throws IOException, InvalidOperationException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            buffer.putInt(MAGIC).putShort(VERSION).putShort((short) 0).putLong(fleet.size());
+
+            Map<String, Integer> models = new HashMap<>();
+            for (Vehicle v : fleet) {
+                byte[] id = encode(v.getId());
+                Integer modelIndex = models.get(v.getModel());
+                byte[] model = modelIndex == null ? encode(v.getModel()) : null;
+                if (modelIndex == null) {
+                    models.put(v.getModel(), models.size());
+                }
+
+                // Largest record: strings + type, model ref, 5 doubles, 2 ints, 1 long, flag
+                int needed = id.length + (model == null ? 0 : model.length) + 80;
+                if (buffer.remaining() < needed) {
+                    flush(channel, buffer);
+                }
+
+                buffer.put(typeOf(v));
+                putBytes(buffer, id);
+                if (model == null) {
+                    buffer.putInt(modelIndex);
+                } else {
+                    buffer.putInt(NEW_MODEL);
+                    putBytes(buffer, model);
+                }
+                buffer.putDouble(v.getMaxSpeed());
+                writeRecord(buffer, v);
+            }
+            flush(channel, buffer);
+        }
+    }
+
+    public static List<Vehicle> read(Path file, FleetStore store) throws IOException, InvalidOperationException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            Reader in = new Reader(channel);
+            in.require(16);
+            if (in.buffer.getInt() != MAGIC) {
+                throw new InvalidOperationException("Not a fleet snapshot: " + file);
+            }
+            short version = in.buffer.getShort();
+            if (version > VERSION) {
+                throw new InvalidOperationException("Unsupported snapshot version " + version + " in " + file);
+            }
+            in.buffer.getShort(); // reserved
+            long count = in.buffer.getLong();
+            if (count < 0 || count > Integer.MAX_VALUE) {
+                throw new InvalidOperationException("Corrupt snapshot header in " + file);
+            }
+
+            List<Vehicle> fleet = new ArrayList<>((int) count);
+            List<String> models = new ArrayList<>();
+            for (long i = 0; i < count; i++) {
+                in.require(1);
+                byte type = in.buffer.get();
+                String id = in.string();
+                in.require(4);
+                int modelIndex = in.buffer.getInt();
+                String model;
+                if (modelIndex == NEW_MODEL) {
+                    model = in.string();
+                    models.add(model);
+                } else if (modelIndex >= 0 && modelIndex < models.size()) {
+                    model = models.get(modelIndex);
+                } else {
+                    throw new InvalidOperationException("Corrupt model reference in " + file);
+                }
+                fleet.add(readRecord(in, type, id, model, store));
+            }
+            return fleet;
+        }
+    }
+
+    // --- PER-TYPE RECORDS ---
+
+    private static byte typeOf(Vehicle v) throws InvalidOperationException {
+        if (v instanceof Car) return CAR;
+        if (v instanceof Truck) return TRUCK;
+        if (v instanceof Airplane) return AIRPLANE;
+        throw new InvalidOperationException("Cannot snapshot vehicle type " + v.getClass().getSimpleName());
+    }
+
+    private static void writeRecord(ByteBuffer out, Vehicle v) {
+        long fuel = v.getStore().getFuelUnits(v.getSlot());
+        if (v instanceof Car) {
+            Car car = (Car) v;
+            out.putInt(car.getNumWheels()).putLong(fuel).putInt(car.getCurrentPassengers())
+                    .putDouble(car.getCurrentMileage()).put(flag(car.isMaintenanceScheduled()));
+        } else if (v instanceof Truck) {
+            Truck truck = (Truck) v;
+            out.putInt(truck.getNumWheels()).putLong(fuel).putDouble(truck.getCurrentCargo())
+                    .putDouble(truck.getCurrentMileage()).put(flag(truck.isMaintenanceScheduled()));
+        } else {
+            Airplane plane = (Airplane) v;
+            out.putDouble(plane.getMaxAltitude()).putLong(fuel).putInt(plane.getCurrentPassengers())
+                    .putDouble(plane.getCurrentCargo()).putDouble(plane.getCurrentMileage())
+                    .put(flag(plane.isMaintenanceScheduled()));
+        }
+    }
+
+    private static Vehicle readRecord(Reader in, byte type, String id, String model, FleetStore store)
+            throws IOException, InvalidOperationException {
+        in.require(8 + recordSize(type));
+        ByteBuffer b = in.buffer;
+        double maxSpeed = b.getDouble();
+        switch (type) {
+            case CAR:
+                return Car.restore(id, model, maxSpeed, b.getInt(), litres(b.getLong()), b.getInt(),
+                        b.getDouble(), b.get() != 0, store);
+            case TRUCK:
+                return Truck.restore(id, model, maxSpeed, b.getInt(), litres(b.getLong()), b.getDouble(),
+                        b.getDouble(), b.get() != 0, store);
+            case AIRPLANE:
+                return Airplane.restore(id, model, maxSpeed, b.getDouble(), litres(b.getLong()), b.getInt(),
+                        b.getDouble(), b.getDouble(), b.get() != 0, store);
+            default:
+                throw new InvalidOperationException("Unknown vehicle record type " + type);
+        }
+    }
+
+    // Bytes after maxSpeed; must match writeRecord
+    private static int recordSize(byte type) {
+        switch (type) {
+            case CAR: return 4 + 8 + 4 + 8 + 1;
+            case TRUCK: return 4 + 8 + 8 + 8 + 1;
+            case AIRPLANE: return 8 + 8 + 4 + 8 + 8 + 1;
+            default: return 0;
+        }
+    }
+
+    // --- HELPERS ---
+
+    private static double litres(long units) { return FuelTank.toLitres(units); }
+
+    private static byte flag(boolean value) { return value ? (byte) 1 : (byte) 0; }
+
+    private static byte[] encode(String value) throws InvalidOperationException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > Short.MAX_VALUE) {
+            throw new InvalidOperationException("String too long for snapshot: " + value.substring(0, 20) + "...");
+        }
+        return bytes;
+    }
+
+    private static void putBytes(ByteBuffer out, byte[] bytes) {
+        out.putShort((short) bytes.length).put(bytes);
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    // Refills the shared read buffer from the channel on demand
+    private static final class Reader {
+        final FileChannel channel;
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        final byte[] scratch = new byte[Short.MAX_VALUE];
+
+        Reader(FileChannel channel) {
+            this.channel = channel;
+            buffer.limit(0);
+        }
+
+        void require(int bytes) throws IOException, InvalidOperationException {
+            if (buffer.remaining() >= bytes) return;
+            buffer.compact();
+            while (buffer.position() < bytes) {
+                if (channel.read(buffer) < 0) {
+                    throw new InvalidOperationException("Snapshot is truncated");
+                }
+            }
+            buffer.flip();
+        }
+
+        String string() throws IOException, InvalidOperationException {
+            require(2);
+            int length = buffer.getShort();
+            if (length < 0) throw new InvalidOperationException("Corrupt string length in snapshot");
+            require(length);
+            buffer.get(scratch, 0, length);
+            return new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package fleetmanagement.persistence;
+
+import fleetmanagement.exceptions.InvalidOperationException;
+import fleetmanagement.vehicles.FleetControl;
+import fleetmanagement.vehicles.FleetStore;
+import fleetmanagement.vehicles.Vehicle;
+import fleetmanagement.vehicles.VehicleState;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/*
+ * The external inputs of one simulation run, so that the run can be replayed.
+ *
+ * A recording is a directory:
+ *   fleet.bin   the fleet as it was before the run started (a FleetSnapshot)
+ *   inputs.csv  one line per input: virtual time in ms since Start, action, fleet
+ *               position of the vehicle (-1 for fleet-wide actions), e.g. "61000,REFUEL,2"
+ *
+ * Everything else in a run follows from these, since a vehicle tick only depends on the
+ * vehicle and the tick length. Recorder writes a recording while the GUI runs and read()
+ * loads one for cli.ReplaySimulation. Every input is flushed as it happens, so a run that
+ * was killed still leaves a usable recording, only without its END line.
+ */
+public class InputRecording {
+
+    public static final String FLEET_FILE = "fleet.bin";
+    public static final String INPUTS_FILE = "inputs.csv";
+    private static final String HEADER = "time_ms,action,vehicle";
+    private static final int FLEET = -1;
+
+    public enum Action { REFUEL, PAUSE, RESUME, STOP, END }
+
+    public static final class Input {
+        private final long timeMillis;
+        private final Action action;
+        private final int vehicle;
+
+        public Input(long timeMillis, Action action, int vehicle) {
+            this.timeMillis = timeMillis;
+            this.action = action;
+            this.vehicle = vehicle;
+        }
+
+        public long getTimeMillis() { return timeMillis; }
+        public Action getAction() { return action; }
+
+        // Fleet position of the vehicle, or -1 for fleet-wide actions
+        public int getVehicle() { return vehicle; }
+    }
+
+    private final List<Vehicle> fleet;
+    private final List<Input> inputs;
+
+    private InputRecording(List<Vehicle> fleet, List<Input> inputs) {
+        this.fleet = fleet;
+        this.inputs = inputs;
+    }
+
+    // Loads a recording; the fleet is restored into 'store' in its initial state
+    public static InputRecording read(Path directory, FleetStore store) throws IOException, InvalidOperationException {
+        List<Vehicle> fleet = FleetSnapshot.read(directory.resolve(FLEET_FILE), store);
+        List<Input> inputs = new ArrayList<>();
+        int lineNumber = 0;
+        for (String line : Files.readAllLines(directory.resolve(INPUTS_FILE), StandardCharsets.UTF_8)) {
+            lineNumber++;
+            if (line.isEmpty() || line.equals(HEADER)) continue;
+            String[] data = line.split(",");
+            try {
+                Input input = new Input(Long.parseLong(data[0]), Action.valueOf(data[1]), Integer.parseInt(data[2]));
+                if (input.action == Action.REFUEL && (input.vehicle < 0 || input.vehicle >= fleet.size())) {
+                    throw new IllegalArgumentException("no vehicle " + input.vehicle);
+                }
+                if (!inputs.isEmpty() && input.timeMillis < inputs.get(inputs.size() - 1).timeMillis) {
+                    throw new IllegalArgumentException("time goes backwards");
+                }
+                inputs.add(input);
+            } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+                throw new InvalidOperationException("Bad input on line " + lineNumber + " of "
+                        + directory.resolve(INPUTS_FILE) + ": " + line);
+            }
+        }
+        return new InputRecording(fleet, inputs);
+    }
+
+    public List<Vehicle> getFleet() { return fleet; }
+
+    public List<Input> getInputs() { return Collections.unmodifiableList(inputs); }
+
+    // Virtual time the run ended at (STOP or END), or the time of its last input if it was cut short
+    public long getEndMillis() {
+        for (Input input : inputs) {
+            if (input.action == Action.STOP || input.action == Action.END) return input.timeMillis;
+        }
+        return inputs.isEmpty() ? 0 : inputs.get(inputs.size() - 1).timeMillis;
+    }
+
+    /*
+     * Records a run into a directory: the fleet right away, then every input as it happens.
+     * Pauses, resumes and stops are picked up from the FleetControl; refuels have to be
+     * reported with recordRefuel(). Times come from the clock passed to start() (virtual
+     * ms since Start); inputs before start() are at time 0.
+     */
+    public static final class Recorder implements FleetControl.Listener, AutoCloseable {
+        private final FleetControl control;
+        private final BufferedWriter out;
+        private volatile LongSupplier clock = () -> 0L;
+        private boolean closed = false; // Guarded by 'this'
+
+        public Recorder(Path directory, List<? extends Vehicle> fleet, FleetControl control)
+                throws IOException, InvalidOperationException {
+            this.control = control;
+            Files.createDirectories(directory);
+            FleetSnapshot.write(directory.resolve(FLEET_FILE), fleet);
+            this.out = Files.newBufferedWriter(directory.resolve(INPUTS_FILE), StandardCharsets.UTF_8);
+            out.write(HEADER);
+            out.newLine();
+            out.flush();
+            control.addListener(this);
+        }
+
+        public void start(LongSupplier clock) {
+            this.clock = clock;
+        }
+
+        public void recordRefuel(int vehicle) {
+            write(Action.REFUEL, vehicle);
+        }
+
+        @Override
+        public void onPhaseChanged(FleetControl control, VehicleState phase, long epoch) {
+            if (phase == VehicleState.PAUSED) write(Action.PAUSE, FLEET);
+            else if (phase == VehicleState.RUNNING) write(Action.RESUME, FLEET);
+            else if (phase == VehicleState.STOPPED) write(Action.STOP, FLEET);
+        }
+
+        // Marks the end of the run and closes the file
+        @Override
+        public synchronized void close() throws IOException {
+            if (closed) return;
+            control.removeListener(this);
+            write(Action.END, FLEET);
+            closed = true;
+            out.close();
+        }
+
+        private synchronized void write(Action action, int vehicle) {
+            if (closed) return;
+            try {
+                out.write(clock.getAsLong() + "," + action + "," + vehicle);
+                out.newLine();
+                out.flush();
+            } catch (IOException e) {
+                System.out.println("Error: could not record " + action + ": " + e.getMessage());
+            }
+        }
+    }
+}
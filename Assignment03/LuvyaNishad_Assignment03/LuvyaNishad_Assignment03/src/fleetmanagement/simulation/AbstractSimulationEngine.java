@@ -0,0 +1,162 @@
+package fleetmanagement.simulation;
+
+import fleetmanagement.interfaces.SimulationEngine;
+import fleetmanagement.metrics.FleetMetrics;
+import fleetmanagement.vehicles.FleetControl;
+import fleetmanagement.vehicles.Vehicle;
+import fleetmanagement.vehicles.VehicleState;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Shared bookkeeping for engines that park vehicles instead of blocking a thread.
+ * A vehicle is either "scheduled" (its ticks are queued in the engine) or parked
+ * (paused / out of fuel / stopped), in which case the engine holds no task for it
+ * until resumeSimulation() calls wake().
+ *
+ * Vehicles parked because their FleetControl was paused are remembered, and woken
+ * together when it resumes; that runs on the engine's waker thread, so resume()
+ * returns at once. The waker is started on the first resume and exits when idle.
+ */
+public abstract class AbstractSimulationEngine implements SimulationEngine {
+
+    // Due times passed to tick(): not timed at all, or timed without a wall-clock deadline
+    protected static final long NOT_SAMPLED = 0;
+    protected static final long NO_DEADLINE = Long.MIN_VALUE;
+
+    protected final long tickMillis;
+    private final Set<Vehicle> scheduled = ConcurrentHashMap.newKeySet();
+    private final Queue<Vehicle> heldByFleet = new ConcurrentLinkedQueue<>();
+    private final Set<FleetControl> controls = ConcurrentHashMap.newKeySet();
+    private final FleetControl.Listener resumer = this::onPhaseChanged;
+    // At most one thread, created on demand; resumes queue up behind each other
+    private final ThreadPoolExecutor waker = new ThreadPoolExecutor(0, 1, 30, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), task -> {
+                Thread thread = new Thread(task, "fleet-resume");
+                thread.setDaemon(true);
+                return thread;
+            });
+    private volatile boolean shutdown = false;
+
+    protected AbstractSimulationEngine(long tickMillis) {
+        this.tickMillis = tickMillis;
+    }
+
+    @Override
+    public void start(List<? extends Vehicle> fleet) {
+        for (Vehicle v : fleet) {
+            v.setEngine(this);
+            FleetControl control = v.getFleetControl();
+            if (control != null && controls.add(control)) {
+                control.addListener(resumer);
+            }
+            wake(v);
+        }
+    }
+
+    @Override
+    public void wake(Vehicle vehicle) {
+        // add() fails if the vehicle is already scheduled, so it never ticks twice per period
+        if (!shutdown && scheduled.add(vehicle)) {
+            submit(vehicle);
+        }
+    }
+
+    /*
+     * Called by subclasses once tick() returned false.
+     * A resume may have raced with the tick that parked the vehicle, so re-check
+     * after leaving the set to make sure that wake-up is not lost.
+     */
+    protected void park(Vehicle vehicle) {
+        scheduled.remove(vehicle);
+        FleetControl control = vehicle.getFleetControl();
+        if (control != null && control.getPhase() == VehicleState.PAUSED) {
+            heldByFleet.add(vehicle);
+        }
+        if (vehicle.isRunnable()) {
+            wake(vehicle);
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown = true;
+        for (FleetControl control : controls) {
+            control.removeListener(resumer);
+        }
+        scheduled.clear();
+        heldByFleet.clear();
+        waker.shutdownNow();
+        release();
+    }
+
+    private void onPhaseChanged(FleetControl control, VehicleState phase, long epoch) {
+        if (phase != VehicleState.RUNNING || heldByFleet.isEmpty()) {
+            return;
+        }
+        wakeHeldAsync(epoch);
+    }
+
+    /*
+     * Hands the wake-up of the vehicles held by a pause to the waker thread, so resume()
+     * does not wait for it. Engines with a loop of their own can run it there instead.
+     */
+    protected void wakeHeldAsync(long epoch) {
+        try {
+            waker.execute(this::wakeHeld);
+        } catch (RejectedExecutionException e) {
+            // Shut down meanwhile: nothing is held any more
+        }
+    }
+
+    protected void wakeHeld() {
+        Vehicle vehicle;
+        while ((vehicle = heldByFleet.poll()) != null) {
+            wake(vehicle); // Does nothing for vehicles that are scheduled again already
+        }
+    }
+
+    protected boolean isShutdown() { return shutdown; }
+
+    /*
+     * Runs one vehicle tick. For sampled ticks (see nextDue) the tick latency and the
+     * scheduling lag (start time minus due time) are recorded in FleetMetrics.
+     */
+    protected boolean tick(Vehicle vehicle, long dueNanos) {
+        if (dueNanos == NOT_SAMPLED) {
+            return vehicle.tick();
+        }
+        FleetMetrics metrics = FleetMetrics.global();
+        long start = System.nanoTime();
+        if (dueNanos != NO_DEADLINE) {
+            metrics.recordLag(start - dueNanos);
+        }
+        boolean moved = vehicle.tick();
+        metrics.recordTick(vehicle, System.nanoTime() - start);
+        return moved;
+    }
+
+    // Due time of a tick that should start after 'delayMillis', or NOT_SAMPLED
+    protected static long nextDue(long delayMillis) {
+        if (!FleetMetrics.sample()) return NOT_SAMPLED;
+        long due = System.nanoTime() + delayMillis * 1_000_000L;
+        return due == NOT_SAMPLED || due == NO_DEADLINE ? due + 1 : due;
+    }
+
+    @Override
+    public int getActiveCount() { return scheduled.size(); }
+
+    // Starts ticking a vehicle that has just been marked as scheduled
+    protected abstract void submit(Vehicle vehicle);
+
+    // Releases the threads owned by the engine
+    protected abstract void release();
+}
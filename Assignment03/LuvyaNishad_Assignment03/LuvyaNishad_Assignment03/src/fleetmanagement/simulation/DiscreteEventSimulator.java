@@ -0,0 +1,225 @@
+package fleetmanagement.simulation;
+
+import fleetmanagement.metrics.FleetMetrics;
+import fleetmanagement.vehicles.Vehicle;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+ * Single-threaded discrete-event core driven by a virtual clock.
+ *
+ * Every vehicle tick and every external action (refuel, pause, ...) is an event
+ * ordered by (virtual time, sequence number). The loop jumps straight to the next
+ * event, so with timeScale <= 0 a day of traffic runs as fast as the CPU allows.
+ * With timeScale > 0 the loop is paced against the wall clock
+ * (1.0 = real time, 60.0 = one simulated minute per second), which is what the GUI uses.
+ *
+ * Events scheduled for the same instant always fire in the order they were
+ * scheduled, so compressed runs are deterministic.
+ *
+ * Re-scheduled vehicle ticks are always due at now + tickMillis, i.e. in
+ * non-decreasing time order, so they go to a plain FIFO instead of the heap.
+ * That keeps the hot path O(1) however large the fleet is.
+ */
+public class DiscreteEventSimulator extends AbstractSimulationEngine {
+
+    private final double timeScale;
+    private final PriorityQueue<Event> queue = new PriorityQueue<>();
+    private final ArrayDeque<Event> periodic = new ArrayDeque<>();
+    // One reusable tick event per vehicle; only touched by the loop thread
+    private final Map<Vehicle, Event> tickEvents = new HashMap<>();
+    // Work handed over by other threads (GUI clicks, resumes, ...)
+    private final ConcurrentLinkedQueue<Runnable> inbox = new ConcurrentLinkedQueue<>();
+
+    private volatile long now = 0;
+    private long nextSeq = 0;
+    private volatile Thread loopThread;
+    private long processedEvents = 0;
+
+    // Wall-clock origin used to pace the virtual clock in real-time mode
+    private long wallStartNanos;
+    private long virtualStartMillis;
+
+    public DiscreteEventSimulator(long tickMillis, double timeScale) {
+        super(tickMillis);
+        this.timeScale = timeScale;
+    }
+
+    // Starts a paced background loop when running in real-time mode
+    @Override
+    public void start(List<? extends Vehicle> fleet) {
+        super.start(fleet);
+        if (timeScale > 0) {
+            Thread t = new Thread(() -> runUntil(Long.MAX_VALUE), "sim-clock");
+            t.setDaemon(true);
+            t.start();
+        }
+    }
+
+    // Current virtual time in milliseconds since the start of the simulation
+    public long now() { return now; }
+
+    public long getProcessedEvents() { return processedEvents; }
+
+    /*
+     * Schedules an action at an absolute virtual time. Safe to call from any thread;
+     * actions in the past fire at the current virtual time.
+     */
+    public void schedule(long atMillis, Runnable action) {
+        onLoop(() -> push(new Event(Math.max(atMillis, now), action, null)));
+    }
+
+    @Override
+    protected void submit(Vehicle vehicle) {
+        onLoop(() -> {
+            Event tick = tickEvents.computeIfAbsent(vehicle, v -> new Event(0, null, v));
+            tick.time = now;
+            push(tick);
+        });
+    }
+
+    /*
+     * Processes events on the calling thread until the virtual clock reaches the limit.
+     * In compressed mode this returns as soon as the limit is reached; in paced mode
+     * an idle loop waits for work from other threads instead of spinning.
+     */
+    public void runUntil(long limitMillis) {
+        loopThread = Thread.currentThread();
+        wallStartNanos = System.nanoTime();
+        virtualStartMillis = now;
+        try {
+            while (!isShutdown()) {
+                if (timeScale > 0) {
+                    // Idle periods still let time pass, so resumed vehicles do not replay missed ticks
+                    now = Math.max(now, wallToVirtual(System.nanoTime()));
+                }
+                drainInbox();
+                Event next = peekNext();
+                if (next == null || next.time > limitMillis) {
+                    if (timeScale > 0 && limitMillis == Long.MAX_VALUE) {
+                        LockSupport.parkNanos(this, 10_000_000L);
+                        continue;
+                    }
+                    break;
+                }
+                if (timeScale > 0 && !pace(next.time)) {
+                    continue; // Woken early by new work; re-evaluate the queue
+                }
+                if (next == periodic.peekFirst()) periodic.pollFirst(); else queue.poll();
+                now = Math.max(now, next.time);
+                processedEvents++;
+                fire(next);
+            }
+            if (limitMillis != Long.MAX_VALUE && now < limitMillis) {
+                now = limitMillis;
+            }
+        } finally {
+            loopThread = null;
+        }
+    }
+
+    private long wallToVirtual(long wallNanos) {
+        return virtualStartMillis + (long) ((wallNanos - wallStartNanos) / 1_000_000L * timeScale);
+    }
+
+    // Sleeps until the wall clock catches up with the event; false if woken early by new work
+    private boolean pace(long eventTime) {
+        long dueNanos = wallDue(eventTime);
+        long waitNanos = dueNanos - System.nanoTime();
+        if (waitNanos <= 0) return true;
+        LockSupport.parkNanos(this, waitNanos);
+        return System.nanoTime() >= dueNanos;
+    }
+
+    private long wallDue(long eventTime) {
+        return wallStartNanos + (long) ((eventTime - virtualStartMillis) * 1_000_000L / timeScale);
+    }
+
+    private void fire(Event event) {
+        if (event.vehicle == null) {
+            event.action.run();
+            return;
+        }
+        Vehicle vehicle = event.vehicle;
+        // Scheduling lag only means something when the loop is paced against the wall clock
+        long due = !FleetMetrics.sample() ? NOT_SAMPLED : timeScale > 0 ? wallDue(event.time) : NO_DEADLINE;
+        if (tick(vehicle, due)) {
+            event.time = now + tickMillis;
+            event.seq = nextSeq++;
+            periodic.addLast(event);
+        } else {
+            park(vehicle);
+        }
+    }
+
+    private Event peekNext() {
+        Event heap = queue.peek();
+        Event fifo = periodic.peekFirst();
+        if (heap == null) return fifo;
+        if (fifo == null) return heap;
+        return fifo.compareTo(heap) < 0 ? fifo : heap;
+    }
+
+    private void push(Event event) {
+        event.seq = nextSeq++;
+        queue.add(event);
+    }
+
+    // Runs immediately on the loop thread, otherwise hands the work to the loop
+    private void onLoop(Runnable work) {
+        Thread loop = loopThread;
+        if (loop == Thread.currentThread()) {
+            work.run();
+        } else {
+            inbox.add(work);
+            if (loop != null) LockSupport.unpark(loop);
+        }
+    }
+
+    private void drainInbox() {
+        Runnable work;
+        while ((work = inbox.poll()) != null) {
+            work.run();
+        }
+    }
+
+    /*
+     * Vehicles held by a pause are woken by the loop itself, at the virtual time of the
+     * resume, so a resume replayed in compressed mode always has the same effect.
+     */
+    @Override
+    protected void wakeHeldAsync(long epoch) {
+        onLoop(this::wakeHeld);
+    }
+
+    @Override
+    protected void release() {
+        Thread loop = loopThread;
+        if (loop != null) LockSupport.unpark(loop);
+    }
+
+    private static final class Event implements Comparable<Event> {
+        long time;
+        long seq;
+        final Runnable action;
+        final Vehicle vehicle;
+
+        Event(long time, Runnable action, Vehicle vehicle) {
+            this.time = time;
+            this.action = action;
+            this.vehicle = vehicle;
+        }
+
+        @Override
+        public int compareTo(Event other) {
+            int byTime = Long.compare(time, other.time);
+            return byTime != 0 ? byTime : Long.compare(seq, other.seq);
+        }
+    }
+}
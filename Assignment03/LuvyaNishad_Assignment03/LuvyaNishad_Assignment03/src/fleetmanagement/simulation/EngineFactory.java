@@ -0,0 +1,45 @@
+package fleetmanagement.simulation;
+
+import fleetmanagement.exceptions.InvalidOperationException;
+import fleetmanagement.interfaces.SimulationEngine;
+
+/*
+ * Creates the execution engine selected with -Dfleet.engine=scheduled|virtual|discrete|sharded.
+ * The scheduled pool and the sharded engine default to one worker (shard) per core
+ * (-Dfleet.engine.threads overrides it);
+ * the discrete-event engine runs paced at -Dfleet.timescale (1.0 = real time).
+ */
+public class EngineFactory {
+
+    public static final long DEFAULT_TICK_MILLIS = 1000;
+
+    public static SimulationEngine fromSystemProperties() throws InvalidOperationException {
+        int threads = Integer.getInteger("fleet.engine.threads", Runtime.getRuntime().availableProcessors());
+        return create(System.getProperty("fleet.engine", "scheduled"), threads, DEFAULT_TICK_MILLIS);
+    }
+
+    private static double timeScale() throws InvalidOperationException {
+        try {
+            double scale = Double.parseDouble(System.getProperty("fleet.timescale", "1.0"));
+            if (scale > 0) return scale;
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new InvalidOperationException("fleet.timescale must be a positive number");
+    }
+
+    public static SimulationEngine create(String name, int threads, long tickMillis) throws InvalidOperationException {
+        switch (name.toLowerCase()) {
+            case "scheduled":
+                return new ScheduledSimulationEngine(threads, tickMillis);
+            case "virtual":
+                return new VirtualThreadSimulationEngine(tickMillis);
+            case "discrete":
+                return new DiscreteEventSimulator(tickMillis, timeScale());
+            case "sharded":
+                return new ShardedSimulationEngine(threads, tickMillis);
+            default:
+                throw new InvalidOperationException("Unknown simulation engine: " + name);
+        }
+    }
+}
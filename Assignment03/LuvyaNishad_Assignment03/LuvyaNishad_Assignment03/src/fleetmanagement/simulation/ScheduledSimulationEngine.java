@@ -0,0 +1,59 @@
+package fleetmanagement.simulation;
+
+import fleetmanagement.vehicles.Vehicle;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * Runs every vehicle's ticks on one shared ScheduledThreadPoolExecutor.
+ * Each tick re-schedules the next one (fixed delay, like the old Thread.sleep(1000)),
+ * so the number of threads is the pool size no matter how large the fleet grows.
+ */
+public class ScheduledSimulationEngine extends AbstractSimulationEngine {
+
+    private final ScheduledThreadPoolExecutor scheduler;
+
+    public ScheduledSimulationEngine(int poolSize, long tickMillis) {
+        super(tickMillis);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.scheduler = new ScheduledThreadPoolExecutor(poolSize, r -> {
+            Thread t = new Thread(r, "sim-worker-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.scheduler.setRemoveOnCancelPolicy(true);
+    }
+
+    @Override
+    protected void submit(Vehicle vehicle) {
+        try {
+            long due = nextDue(0);
+            scheduler.execute(() -> runTick(vehicle, due));
+        } catch (RejectedExecutionException e) {
+            // Engine was shut down concurrently; nothing left to schedule
+        }
+    }
+
+    private void runTick(Vehicle vehicle, long dueNanos) {
+        if (!isShutdown() && tick(vehicle, dueNanos)) {
+            try {
+                long nextDue = nextDue(tickMillis);
+                scheduler.schedule(() -> runTick(vehicle, nextDue), tickMillis, TimeUnit.MILLISECONDS);
+                return;
+            } catch (RejectedExecutionException e) {
+                // Shut down between the tick and the re-schedule
+            }
+        }
+        park(vehicle);
+    }
+
+    @Override
+    protected void release() {
+        scheduler.shutdownNow();
+    }
+
+    public int getPoolSize() { return scheduler.getCorePoolSize(); }
+}
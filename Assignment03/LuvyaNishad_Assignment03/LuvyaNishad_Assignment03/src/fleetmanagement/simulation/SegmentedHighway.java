@@ -0,0 +1,305 @@
+package fleetmanagement.simulation;
+
+import fleetmanagement.exceptions.InvalidOperationException;
+import fleetmanagement.interfaces.VehicleListener;
+import fleetmanagement.vehicles.FleetStore;
+import fleetmanagement.vehicles.Vehicle;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntConsumer;
+
+/*
+ * The highway as a loop of fixed-length segments (a vehicle at mileage m is at
+ * km m % length, like in the highway view). Every segment keeps its own counters:
+ * how many vehicles are in it, how many have entered it and the distance driven
+ * in it. A tick only touches the vehicle's own segment, so there is no counter
+ * that every vehicle thread writes to.
+ *
+ * Positions come from onMileageChanged(). A move between segments is one CAS on
+ * the vehicle's segment and an increment/decrement of two occupancy counters: no
+ * lock and no allocation, since with 1 km segments nearly every tick crosses into
+ * the next one. If two moves of one vehicle race (a reset and a tick), the loser
+ * re-reads the position and tries again, so the last position wins.
+ *
+ * Which vehicles are in which segment is not tracked on the tick path. It is a
+ * Membership index built from the vehicles' positions by refreshMembership() (a
+ * counting sort, O(fleet)), which the owner calls off the tick path on its reporting
+ * timer; FleetStatusServer does so with every status snapshot. vehiclesBetween(x, y)
+ * and Segment.getVehicles() answer from the last index, which is immutable, so a
+ * query never waits for a refresh. A range query only visits the segments that
+ * overlap [x, y); vehicles in a partly covered segment are checked against the
+ * position read for the index.
+ * All vehicles must share one FleetStore.
+ */
+public class SegmentedHighway implements VehicleListener {
+
+    public static final double DEFAULT_LENGTH_KM = 100.0;
+    public static final double DEFAULT_SEGMENT_KM = 1.0;
+    private static final int NOWHERE = -1;
+    // 32 ints = 128 bytes per occupancy counter, so neighbouring segments never share
+    // a cache line (or an adjacent-line prefetch pair); a tick writes two of them
+    private static final int PAD = 32;
+
+    // One stretch of the highway and what is on it
+    public final class Segment {
+        private final int index;
+        private final double startKm;
+        private final double endKm;
+        private final LongAdder entries = new LongAdder();
+        private final DoubleAdder distance = new DoubleAdder();
+
+        private Segment(int index, double startKm, double endKm) {
+            this.index = index;
+            this.startKm = startKm;
+            this.endKm = endKm;
+        }
+
+        public int getIndex() { return index; }
+        public double getStartKm() { return startKm; }
+        public double getEndKm() { return endKm; }
+        public int getOccupancy() { return occupancy.get(index * PAD); }
+        public long getEntries() { return entries.sum(); }
+        public double getDistance() { return distance.sum(); }
+
+        // The vehicles in this segment as of the last refreshMembership()
+        public List<Vehicle> getVehicles() {
+            Membership current = membership;
+            List<Vehicle> result = new ArrayList<>();
+            for (int m = current.memberStart[index]; m < current.memberStart[index + 1]; m++) {
+                result.add(fleet.get(current.members[m]));
+            }
+            return result;
+        }
+    }
+
+    // Which vehicles were in which segment, and where, when refreshMembership() built it
+    public final class Membership {
+        private final double[] km;        // Position on the loop, by fleet position
+        private final int[] memberStart;  // Fleet positions in segment s: members[memberStart[s] .. memberStart[s + 1])
+        private final int[] members;
+
+        private Membership(double[] km, int[] memberStart, int[] members) {
+            this.km = km;
+            this.memberStart = memberStart;
+            this.members = members;
+        }
+
+        // Position of the vehicle at this fleet position, in [0, length)
+        public double getPosition(int index) { return km[index]; }
+
+        /*
+         * Passes the fleet position of every vehicle at a position in [fromKm, toKm) to
+         * the action, segment by segment, and returns how many there were. If fromKm > toKm
+         * the range wraps past the end of the loop (e.g. 95 to 5); a range of a full loop
+         * or more is everyone.
+         */
+        public int forEachBetween(double fromKm, double toKm, IntConsumer action) {
+            if (toKm - fromKm >= lengthKm) {
+                return collect(0.0, lengthKm, action); // The whole loop
+            }
+            double from = wrap(fromKm);
+            double to = wrap(toKm);
+            if (from <= to) {
+                return collect(from, to, action);
+            }
+            return collect(from, lengthKm, action) + collect(0.0, to, action);
+        }
+
+        // Vehicles in [from, to), where 0 <= from <= to <= length
+        private int collect(double from, double to, IntConsumer action) {
+            if (from >= to) return 0;
+            int count = 0;
+            int last = Math.min(segments.length - 1, (int) Math.ceil(to / segmentKm) - 1);
+            for (int s = segmentIndex(from); s <= last; s++) {
+                Segment segment = segments[s];
+                boolean covered = segment.startKm >= from && segment.endKm <= to; // No position checks
+                for (int m = memberStart[s]; m < memberStart[s + 1]; m++) {
+                    int i = members[m];
+                    if (covered || (km[i] >= from && km[i] < to)) {
+                        action.accept(i);
+                        count++;
+                    }
+                }
+            }
+            return count;
+        }
+    }
+
+    private final List<? extends Vehicle> fleet;
+    private final double lengthKm;
+    private final double segmentKm;
+    private final Segment[] segments;
+    private final int[] indexBySlot;
+    private final AtomicIntegerArray segmentOf;
+    private final AtomicIntegerArray occupancy; // Segment s at s * PAD
+    private final AtomicLongArray knownMileage; // Raw double bits
+    private volatile Membership membership;
+
+    public SegmentedHighway(List<? extends Vehicle> fleet) throws InvalidOperationException {
+        this(fleet, DEFAULT_LENGTH_KM, DEFAULT_SEGMENT_KM);
+    }
+
+    public SegmentedHighway(List<? extends Vehicle> fleet, double lengthKm, double segmentKm)
+            throws InvalidOperationException {
+        if (!(lengthKm > 0) || !(segmentKm > 0) || segmentKm > lengthKm) {
+            throw new InvalidOperationException("Highway length and segment length must be positive, segment <= length");
+        }
+        this.fleet = fleet;
+        this.lengthKm = lengthKm;
+        this.segmentKm = segmentKm;
+        int count = (int) Math.ceil(lengthKm / segmentKm);
+        this.segments = new Segment[count];
+        for (int s = 0; s < count; s++) {
+            segments[s] = new Segment(s, s * segmentKm, Math.min(lengthKm, (s + 1) * segmentKm));
+        }
+        this.occupancy = new AtomicIntegerArray(count * PAD);
+
+        FleetStore store = fleet.isEmpty() ? null : fleet.get(0).getStore();
+        this.indexBySlot = new int[store == null ? 0 : store.size()];
+        this.segmentOf = new AtomicIntegerArray(fleet.size());
+        this.knownMileage = new AtomicLongArray(fleet.size());
+        for (int i = 0; i < fleet.size(); i++) {
+            Vehicle v = fleet.get(i);
+            if (v.getStore() != store) {
+                throw new InvalidOperationException("All vehicles on a segmented highway must share one FleetStore");
+            }
+            indexBySlot[v.getSlot()] = i;
+            segmentOf.set(i, NOWHERE);
+        }
+        for (int i = 0; i < fleet.size(); i++) {
+            Vehicle v = fleet.get(i);
+            v.addVehicleListener(this);
+            onMileageChanged(v, v.getCurrentMileage());
+        }
+        refreshMembership();
+    }
+
+    public void detach() {
+        for (Vehicle v : fleet) {
+            v.removeVehicleListener(this);
+        }
+    }
+
+    // --- QUERIES ---
+
+    public int getSegmentCount() { return segments.length; }
+
+    public Segment getSegment(int index) { return segments[index]; }
+
+    public double getLengthKm() { return lengthKm; }
+
+    // Position on the loop, in [0, length)
+    public double positionOf(Vehicle vehicle) {
+        double km = vehicle.getCurrentMileage() % lengthKm;
+        return km < 0 ? km + lengthKm : km;
+    }
+
+    public Segment segmentAt(double km) {
+        return segments[segmentIndex(wrap(km))];
+    }
+
+    /*
+     * Vehicles at positions in [fromKm, toKm), as of the last refreshMembership().
+     * If fromKm > toKm the range wraps past the end of the loop (e.g. 95 to 5).
+     */
+    public List<Vehicle> vehiclesBetween(double fromKm, double toKm) {
+        List<Vehicle> result = new ArrayList<>();
+        membership.forEachBetween(fromKm, toKm, i -> result.add(fleet.get(i)));
+        return result;
+    }
+
+    public Membership getMembership() { return membership; }
+
+    // Rebuilds the membership index from the vehicles' current mileage
+    public Membership refreshMembership() {
+        double[] mileages = new double[fleet.size()];
+        for (int i = 0; i < mileages.length; i++) {
+            mileages[i] = fleet.get(i).getCurrentMileage();
+        }
+        return refreshMembership(mileages);
+    }
+
+    /*
+     * Rebuilds the membership index from mileages the caller has already read (by fleet
+     * position), so the index agrees with the rest of what it reports. O(fleet) on the
+     * caller's thread and never in the way of a tick; the new index is returned and
+     * replaces the last one for the queries.
+     */
+    public Membership refreshMembership(double[] mileages) {
+        int count = segments.length;
+        double[] km = new double[mileages.length];
+        int[] segment = new int[mileages.length];
+        int[] memberStart = new int[count + 1];
+        for (int i = 0; i < mileages.length; i++) {
+            km[i] = wrap(mileages[i]);
+            segment[i] = segmentIndex(km[i]);
+            memberStart[segment[i] + 1]++;
+        }
+        for (int s = 0; s < count; s++) {
+            memberStart[s + 1] += memberStart[s];
+        }
+        int[] cursor = Arrays.copyOf(memberStart, count);
+        int[] members = new int[mileages.length];
+        for (int i = 0; i < mileages.length; i++) {
+            members[cursor[segment[i]]++] = i;
+        }
+        Membership rebuilt = new Membership(km, memberStart, members);
+        membership = rebuilt;
+        return rebuilt;
+    }
+
+    // Sum of the segments' distance counters (km driven since the vehicles were added)
+    public double getTotalDistance() {
+        double total = 0;
+        for (Segment s : segments) total += s.getDistance();
+        return total;
+    }
+
+    // Current occupancy of every segment, e.g. to find congestion
+    public int[] getOccupancy() {
+        int[] counts = new int[segments.length];
+        for (int s = 0; s < segments.length; s++) {
+            counts[s] = occupancy.get(s * PAD);
+        }
+        return counts;
+    }
+
+    // --- VehicleListener (simulation threads) ---
+
+    @Override
+    public void onMileageChanged(Vehicle vehicle, double mileage) {
+        int i = indexBySlot[vehicle.getSlot()];
+        double previous = Double.longBitsToDouble(knownMileage.getAndSet(i, Double.doubleToRawLongBits(mileage)));
+        int to = segmentIndex(wrap(mileage));
+        if (mileage > previous && segmentOf.get(i) != NOWHERE) {
+            segments[to].distance.add(mileage - previous);
+        }
+        while (true) {
+            int from = segmentOf.get(i);
+            if (from == to) return; // Still in the same segment, nothing to move
+            if (segmentOf.compareAndSet(i, from, to)) {
+                if (from != NOWHERE) occupancy.decrementAndGet(from * PAD);
+                occupancy.incrementAndGet(to * PAD);
+                segments[to].entries.increment();
+                return;
+            }
+            // Another move of this vehicle won; re-read the position, so the last of two racing moves wins
+            to = segmentIndex(positionOf(vehicle));
+        }
+    }
+
+    private double wrap(double km) {
+        double wrapped = km % lengthKm;
+        return wrapped < 0 ? wrapped + lengthKm : wrapped;
+    }
+
+    private int segmentIndex(double km) {
+        return Math.min(segments.length - 1, (int) (km / segmentKm));
+    }
+}
@@ -0,0 +1,268 @@
+package fleetmanagement.simulation;
+
+import fleetmanagement.interfaces.HighwayTracker;
+import fleetmanagement.interfaces.SimulationEngine;
+import fleetmanagement.metrics.FleetMetrics;
+import fleetmanagement.vehicles.Vehicle;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+ * Splits the fleet into independent shards, each owned by one worker thread.
+ *
+ * A shard is a contiguous slice of the fleet (so, for fleets built in one go, a
+ * contiguous stretch of FleetStore slots). Its worker ticks every vehicle of the
+ * slice once per pass and is the only thread that ever ticks them, so a shard shares
+ * nothing with the others while it runs:
+ *   - its vehicles report to a shard-local HighwayTracker, a plain long with a
+ *     single writer, instead of the fleet's shared counter;
+ *   - after every pass the shard adds what it collected to the shared counter in
+ *     one call, so the shared counter sees one write per shard per pass;
+ *   - its tick and activity counts are plain fields, published once per pass.
+ *
+ * Paced mode (tickMillis > 0, the default) runs one pass every tickMillis, like the
+ * other engines. In compressed mode (tickMillis <= 0) the workers wait for
+ * runPasses(n), which runs n passes on every shard as fast as the cores allow.
+ *
+ * Parked vehicles hold nothing: tick() returns false straight away for them, so
+ * wake() has nothing to do. Shards are started with start() and live until shutdown().
+ */
+public class ShardedSimulationEngine implements SimulationEngine {
+
+    private final int shardCount;
+    private final long tickMillis;
+    private final List<Shard> shards = new ArrayList<>();
+    private volatile boolean shutdown = false;
+    private volatile CountDownLatch passesDone;
+
+    public ShardedSimulationEngine(int shardCount, long tickMillis) {
+        this.shardCount = Math.max(1, shardCount);
+        this.tickMillis = tickMillis;
+    }
+
+    @Override
+    public synchronized void start(List<? extends Vehicle> fleet) {
+        int count = Math.min(shardCount, Math.max(1, fleet.size()));
+        for (int s = 0; s < count; s++) {
+            List<? extends Vehicle> slice = fleet.subList(fleet.size() * s / count, fleet.size() * (s + 1) / count);
+            Shard shard = new Shard(shards.size(), slice.toArray(new Vehicle[0]));
+            shards.add(shard);
+            shard.worker.start();
+        }
+    }
+
+    @Override
+    public void wake(Vehicle vehicle) {
+        // Every vehicle is visited on each pass, so a resumed one moves on the next pass
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown = true;
+        List<Shard> stopped;
+        synchronized (this) {
+            stopped = new ArrayList<>(shards);
+        }
+        for (Shard shard : stopped) {
+            LockSupport.unpark(shard.worker);
+        }
+        CountDownLatch waiting = passesDone;
+        while (waiting != null && waiting.getCount() > 0) {
+            waiting.countDown(); // Release a runPasses() caller
+        }
+        for (Shard shard : stopped) {
+            try {
+                shard.worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt(); // Restore interrupt status
+                return;
+            }
+            shard.restore();
+        }
+    }
+
+    /*
+     * Compressed mode only: runs 'passes' passes on every shard and returns when all
+     * shards are done, with their distance merged into the shared counters.
+     * Meant for one driving thread (a benchmark, a batch run). Zero or fewer passes
+     * return at once.
+     */
+    public void runPasses(int passes) throws InterruptedException {
+        if (tickMillis > 0) {
+            throw new IllegalStateException("runPasses() is only available in compressed mode (tickMillis <= 0)");
+        }
+        if (passes <= 0) {
+            return; // No shard would count down the latch
+        }
+        List<Shard> running;
+        synchronized (this) {
+            running = new ArrayList<>(shards);
+        }
+        CountDownLatch done = new CountDownLatch(running.size());
+        passesDone = done;
+        for (Shard shard : running) {
+            shard.target = shard.completedPasses + passes;
+            LockSupport.unpark(shard.worker);
+        }
+        done.await();
+    }
+
+    // --- STATISTICS (summed over the shards) ---
+
+    public synchronized int getShardCount() { return shards.size(); }
+
+    // Vehicles that moved on their shard's last pass
+    @Override
+    public synchronized int getActiveCount() {
+        int active = 0;
+        for (Shard shard : shards) active += shard.active;
+        return active;
+    }
+
+    // Ticks that moved a vehicle, since start()
+    public synchronized long getTickCount() {
+        long ticks = 0;
+        for (Shard shard : shards) ticks += shard.ticks;
+        return ticks;
+    }
+
+    // Passes finished by each shard; they stay close together unless a shard is starved
+    public synchronized long[] getPassCounts() {
+        long[] passes = new long[shards.size()];
+        for (int s = 0; s < passes.length; s++) passes[s] = shards.get(s).completedPasses;
+        return passes;
+    }
+
+    // --- SHARD ---
+
+    private final class Shard {
+        private final Vehicle[] vehicles;
+        private final HighwayTracker[] original;
+        private final LocalTracker[] local;
+        private final LocalTracker[] trackers;
+        private final Thread worker;
+
+        // Written by the worker only; volatile so the statistics can be read elsewhere
+        private volatile long completedPasses;
+        private volatile long ticks;
+        private volatile int active;
+        private volatile long target;
+
+        Shard(int index, Vehicle[] vehicles) {
+            this.vehicles = vehicles;
+            this.original = new HighwayTracker[vehicles.length];
+            this.local = new LocalTracker[vehicles.length];
+            // One local tracker per distinct shared tracker (normally the whole fleet has one)
+            List<LocalTracker> trackers = new ArrayList<>();
+            for (int i = 0; i < vehicles.length; i++) {
+                Vehicle v = vehicles[i];
+                original[i] = v.getSimulator();
+                if (original[i] != null) {
+                    LocalTracker tracker = null;
+                    for (LocalTracker t : trackers) {
+                        if (t.shared == original[i]) tracker = t;
+                    }
+                    if (tracker == null) {
+                        tracker = new LocalTracker(original[i]);
+                        trackers.add(tracker);
+                    }
+                    local[i] = tracker;
+                    v.setSimulator(tracker);
+                }
+                v.setEngine(ShardedSimulationEngine.this);
+            }
+            this.trackers = trackers.toArray(new LocalTracker[0]);
+            this.worker = new Thread(this::work, "sim-shard-" + index);
+            this.worker.setDaemon(true);
+        }
+
+        private void work() {
+            long deadline = System.nanoTime();
+            while (!shutdown) {
+                if (tickMillis > 0) {
+                    long wait = deadline - System.nanoTime();
+                    if (wait > 0) {
+                        LockSupport.parkNanos(this, wait);
+                        continue; // Re-check: woken early by shutdown(), or spuriously
+                    }
+                    pass(deadline);
+                    // Fixed rate, but a pass that overran skips the missed periods instead of bursting
+                    deadline = Math.max(deadline + tickMillis * 1_000_000L, System.nanoTime());
+                } else if (completedPasses < target) {
+                    pass(AbstractSimulationEngine.NO_DEADLINE);
+                    if (completedPasses == target) passesDone.countDown();
+                } else {
+                    LockSupport.park(this);
+                }
+            }
+            flush();
+        }
+
+        private void pass(long dueNanos) {
+            FleetMetrics metrics = FleetMetrics.global();
+            long startNanos = System.nanoTime();
+            if (dueNanos != AbstractSimulationEngine.NO_DEADLINE) {
+                metrics.recordLag(startNanos - dueNanos);
+            }
+            int moved = 0;
+            for (Vehicle v : vehicles) {
+                if (FleetMetrics.sample()) {
+                    long start = System.nanoTime();
+                    if (v.tick()) moved++;
+                    metrics.recordTick(v, System.nanoTime() - start);
+                } else if (v.tick()) {
+                    moved++;
+                }
+            }
+            flush();
+            active = moved;
+            ticks += moved;
+            completedPasses++;
+        }
+
+        private void flush() {
+            for (LocalTracker tracker : trackers) {
+                tracker.flush();
+            }
+        }
+
+        // Hands the vehicles back to the trackers they came with
+        private void restore() {
+            for (int i = 0; i < vehicles.length; i++) {
+                if (local[i] != null && vehicles[i].getSimulator() == local[i]) {
+                    vehicles[i].setSimulator(original[i]);
+                }
+            }
+        }
+    }
+
+    /*
+     * Shard-local stand-in for a shared HighwayTracker. Only the shard's worker calls
+     * add() (from tick()), so it needs no atomics; flush() moves the total over.
+     */
+    private static final class LocalTracker implements HighwayTracker {
+        private final HighwayTracker shared;
+        private long pending;
+
+        LocalTracker(HighwayTracker shared) {
+            this.shared = shared;
+        }
+
+        @Override
+        public void add(long distance) { pending += distance; }
+
+        // The shared total; lags by at most one pass of this shard
+        @Override
+        public long getHighwayDistance() { return shared.getHighwayDistance(); }
+
+        void flush() {
+            if (pending != 0) {
+                shared.add(pending);
+                pending = 0;
+            }
+        }
+    }
+}
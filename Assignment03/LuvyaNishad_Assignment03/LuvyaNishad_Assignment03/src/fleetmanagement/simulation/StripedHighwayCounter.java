@@ -0,0 +1,99 @@
+package fleetmanagement.simulation;
+
+import fleetmanagement.interfaces.HighwayTracker;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/*
+ * Contention-free replacement for the synchronized highwayDistance counter.
+ *
+ * The total is split over a power-of-two number of stripes, each padded to its own
+ * 128-byte block so that two cores never write the same cache line. A thread sticks
+ * to one stripe and only moves to another one when its CAS fails, so under load the
+ * threads spread themselves out. Nothing is ever lost: getHighwayDistance() is the
+ * exact sum of all stripes once the writers are quiet (e.g. when the fleet is paused).
+ *
+ * Each stripe also counts its failed CAS attempts, which shows how well the counter
+ * scales across cores. Only the contended path writes that count, so an uncontended
+ * add is a single CAS.
+ */
+public class StripedHighwayCounter implements HighwayTracker {
+
+    // 16 longs = 128 bytes per stripe (covers adjacent-line prefetching)
+    private static final int PAD = 16;
+    private static final int VALUE = 0;
+    private static final int RETRIES = 1;
+
+    private final AtomicLongArray cells;
+    private final int mask;
+    private final AtomicInteger seeds = new AtomicInteger();
+    // Stripe currently used by each thread; boxed in an array so it can be updated in place
+    private final ThreadLocal<int[]> probe = ThreadLocal.withInitial(() -> new int[]{mix(seeds.incrementAndGet())});
+
+    public StripedHighwayCounter() {
+        this(Runtime.getRuntime().availableProcessors() * 2);
+    }
+
+    public StripedHighwayCounter(int minStripes) {
+        int stripes = Integer.highestOneBit(Math.max(1, minStripes - 1)) << 1;
+        this.mask = stripes - 1;
+        this.cells = new AtomicLongArray(stripes * PAD);
+    }
+
+    @Override
+    public void add(long distance) {
+        int[] p = probe.get();
+        while (true) {
+            int base = (p[0] & mask) * PAD;
+            long current = cells.get(base + VALUE);
+            if (cells.compareAndSet(base + VALUE, current, current + distance)) {
+                return;
+            }
+            // Another thread shares this stripe: record it and move somewhere else
+            cells.getAndIncrement(base + RETRIES);
+            p[0] = mix(p[0]);
+        }
+    }
+
+    @Override
+    public long getHighwayDistance() {
+        long sum = 0;
+        for (int i = 0; i <= mask; i++) {
+            sum += cells.get(i * PAD + VALUE);
+        }
+        return sum;
+    }
+
+    // --- CONTENTION STATISTICS ---
+
+    public int getStripeCount() { return mask + 1; }
+
+    // Failed CAS attempts; close to 0 means the updates never collided
+    public long getRetryCount() { return sumSlot(RETRIES); }
+
+    // Distance held by each stripe, i.e. how the load spread over the stripes
+    public long[] getStripeDistribution() {
+        long[] values = new long[mask + 1];
+        for (int i = 0; i <= mask; i++) {
+            values[i] = cells.get(i * PAD + VALUE);
+        }
+        return values;
+    }
+
+    private long sumSlot(int slot) {
+        long sum = 0;
+        for (int i = 0; i <= mask; i++) {
+            sum += cells.get(i * PAD + slot);
+        }
+        return sum;
+    }
+
+    // xorshift step; never returns 0 for a non-zero seed
+    private static int mix(int x) {
+        x ^= x << 13;
+        x ^= x >>> 17;
+        x ^= x << 5;
+        return x;
+    }
+}
@@ -0,0 +1,269 @@
+package fleetmanagement.simulation;
+
+import fleetmanagement.interfaces.HighwayTracker;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+ * Bounded, lock-free ring that decouples the vehicles from whatever consumes their
+ * telemetry (aggregators, the GUI, logging).
+ *
+ * Producers (any number of simulation threads) publish records of (source, value) into
+ * pre-allocated slots: a CAS claims the next sequence number, the fields are written
+ * and the slot's sequence is published, so a tick never allocates and never takes a
+ * lock. One drain thread copies the published records out in batches of up to
+ * batchSize, frees their slots and then hands the batch to every subscribed consumer,
+ * so a slow consumer holds up the drain thread, never the tick loop.
+ *
+ * When the consumers fall behind and the ring fills up, the policy decides:
+ *   DROP    the new record is discarded (counted in getDropped())
+ *   BLOCK   the producer waits until there is room again: nothing is lost, but the
+ *           simulation slows down to the speed of the consumers
+ *   SAMPLE  once the ring is half full only one record in sampleEvery is kept, with
+ *           a weight of sampleEvery, so weighted totals stay right on average and the
+ *           ring rarely fills; records that still find it full are dropped
+ *
+ * close() sets a CLOSED bit in the claim counter with the same CAS that producers use
+ * to claim a slot, so after it no claim can succeed, and every slot claimed before it
+ * is known. The drain thread waits for all of those to be published and delivers them
+ * before it exits: a publish() that returned true is never lost.
+ *
+ * tracker() adapts the ring to HighwayTracker, so vehicles publish through the same
+ * setSimulator() hook they use for the shared counter.
+ */
+public class TelemetryRing implements AutoCloseable {
+
+    public enum Policy { DROP, BLOCK, SAMPLE }
+
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+    public static final int DEFAULT_BATCH_SIZE = 1024;
+    public static final int DEFAULT_SAMPLE_EVERY = 8;
+
+    private static final long IDLE_NANOS = 1_000_000L;
+    private static final long BLOCKED_NANOS = 50_000L;
+    private static final long CLOSED = 1L << 62; // Set in 'tail' by close(); sequences never get this far
+
+    // Receives the records on the drain thread
+    public interface Consumer {
+        void onBatch(Batch batch);
+    }
+
+    // Records drained in one go; only valid during onBatch()
+    public static final class Batch {
+        private final int[] sources;
+        private final long[] values;
+        private final int[] weights;
+        private int size;
+
+        private Batch(int capacity) {
+            sources = new int[capacity];
+            values = new long[capacity];
+            weights = new int[capacity];
+        }
+
+        public int size() { return size; }
+        public int getSource(int i) { return sources[i]; }
+        public long getValue(int i) { return values[i]; }
+
+        // Records this one stands for: 1, or sampleEvery for a record kept by SAMPLE
+        public int getWeight(int i) { return weights[i]; }
+
+        // Sum of value x weight over the batch (exact unless records were sampled)
+        public long getWeightedTotal() {
+            long total = 0;
+            for (int i = 0; i < size; i++) total += values[i] * weights[i];
+            return total;
+        }
+    }
+
+    private final Policy policy;
+    private final int capacity;
+    private final int mask;
+    private final int sampleEvery;
+
+    // The slots; a slot's fields are valid once published[slot] == its sequence + 1
+    private final int[] sources;
+    private final long[] values;
+    private final int[] weights;
+    private final AtomicLongArray published;
+    private final AtomicLong tail = new AtomicLong(); // Next sequence to claim, | CLOSED once closed
+    private volatile long head; // Next sequence to drain; written by the drain thread only
+
+    private final CopyOnWriteArrayList<Consumer> consumers = new CopyOnWriteArrayList<>();
+    private final Batch batch;
+    private final Thread drainer;
+
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder sampledOut = new LongAdder();
+    // Written by the drain thread only
+    private volatile long delivered;
+    private volatile long deliveredTotal;
+    private volatile long batches;
+
+    public TelemetryRing(Policy policy) {
+        this(policy, DEFAULT_CAPACITY, DEFAULT_BATCH_SIZE, DEFAULT_SAMPLE_EVERY);
+    }
+
+    // Capacity is rounded up to a power of two
+    public TelemetryRing(Policy policy, int capacity, int batchSize, int sampleEvery) {
+        this.policy = policy;
+        this.capacity = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.mask = this.capacity - 1;
+        this.sampleEvery = Math.max(1, sampleEvery);
+        this.sources = new int[this.capacity];
+        this.values = new long[this.capacity];
+        this.weights = new int[this.capacity];
+        this.published = new AtomicLongArray(this.capacity);
+        this.batch = new Batch(Math.max(1, Math.min(batchSize, this.capacity)));
+        this.drainer = new Thread(this::drainLoop, "telemetry-drain");
+        this.drainer.setDaemon(true);
+    }
+
+    // Consumers added after start() only see the records drained from then on
+    public void subscribe(Consumer consumer) { consumers.add(consumer); }
+
+    public void unsubscribe(Consumer consumer) { consumers.remove(consumer); }
+
+    public void start() { drainer.start(); }
+
+    // Stops accepting records, delivers everything already published and stops the drain thread
+    @Override
+    public void close() {
+        long current;
+        do {
+            current = tail.get();
+        } while ((current & CLOSED) == 0 && !tail.compareAndSet(current, current | CLOSED));
+        LockSupport.unpark(drainer);
+        try {
+            drainer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // Restore interrupt status
+        }
+    }
+
+    // --- PRODUCERS (simulation threads) ---
+
+    /*
+     * Publishes one record; false if it was dropped (ring full, or closed).
+     * A record thinned out by SAMPLE counts as handled and returns true.
+     */
+    public boolean publish(int source, long value) {
+        int weight = 1;
+        if (policy == Policy.SAMPLE && (tail.get() & ~CLOSED) - head > capacity / 2) {
+            if (ThreadLocalRandom.current().nextInt(sampleEvery) != 0) {
+                sampledOut.increment();
+                return true;
+            }
+            weight = sampleEvery;
+        }
+        long seq;
+        while (true) {
+            seq = tail.get();
+            if ((seq & CLOSED) != 0) {
+                dropped.increment();
+                return false;
+            }
+            if (seq - head >= capacity) {
+                if (policy != Policy.BLOCK) {
+                    dropped.increment();
+                    return false;
+                }
+                LockSupport.unpark(drainer);
+                LockSupport.parkNanos(this, BLOCKED_NANOS);
+                continue;
+            }
+            if (tail.compareAndSet(seq, seq + 1)) break; // Fails once close() has set CLOSED
+        }
+        int slot = (int) seq & mask;
+        sources[slot] = source;
+        values[slot] = value;
+        weights[slot] = weight;
+        published.set(slot, seq + 1); // Releases the fields to the drain thread
+        if (seq - head == capacity / 2) {
+            LockSupport.unpark(drainer); // Drain early rather than fill up
+        }
+        return true;
+    }
+
+    /*
+     * Vehicles publish their distance through this, as records of the given source.
+     * getHighwayDistance() is the weighted distance delivered to the consumers so far,
+     * so it lags the vehicles by up to one drain.
+     */
+    public HighwayTracker tracker(int source) {
+        return new HighwayTracker() {
+            @Override
+            public void add(long distance) { publish(source, distance); }
+
+            @Override
+            public long getHighwayDistance() { return deliveredTotal; }
+        };
+    }
+
+    // --- DRAIN THREAD ---
+
+    private void drainLoop() {
+        while (true) {
+            if (drain() > 0) {
+                deliver();
+                continue;
+            }
+            long claimed = tail.get();
+            if ((claimed & CLOSED) != 0 && head == (claimed & ~CLOSED)) {
+                return; // Every slot claimed before close() was published and delivered
+            }
+            LockSupport.parkNanos(this, IDLE_NANOS);
+        }
+    }
+
+    // Copies the next run of published records into the batch and frees their slots
+    private int drain() {
+        long next = head;
+        int n = 0;
+        int limit = batch.values.length;
+        while (n < limit) {
+            long seq = next + n;
+            int slot = (int) seq & mask;
+            if (published.get(slot) != seq + 1) break; // Not published yet (or not claimed)
+            batch.sources[n] = sources[slot];
+            batch.values[n] = values[slot];
+            batch.weights[n] = weights[slot];
+            n++;
+        }
+        batch.size = n;
+        if (n > 0) head = next + n;
+        return n;
+    }
+
+    private void deliver() {
+        for (Consumer consumer : consumers) {
+            try {
+                consumer.onBatch(batch);
+            } catch (RuntimeException e) {
+                System.out.println("Error: telemetry consumer failed: " + e);
+            }
+        }
+        delivered += batch.size;
+        deliveredTotal += batch.getWeightedTotal();
+        batches++;
+    }
+
+    // --- STATISTICS ---
+
+    public Policy getPolicy() { return policy; }
+    public int getCapacity() { return capacity; }
+
+    // Records waiting in the ring
+    public int getBacklog() { return (int) Math.max(0, (tail.get() & ~CLOSED) - head); }
+
+    public long getPublished() { return tail.get() & ~CLOSED; }
+    public long getDelivered() { return delivered; }
+    public long getBatches() { return batches; }
+    public long getDropped() { return dropped.sum(); }
+    public long getSampledOut() { return sampledOut.sum(); }
+}
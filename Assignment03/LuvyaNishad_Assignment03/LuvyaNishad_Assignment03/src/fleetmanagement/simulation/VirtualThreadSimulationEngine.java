@@ -0,0 +1,50 @@
+package fleetmanagement.simulation;
+
+import fleetmanagement.vehicles.Vehicle;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/*
+ * Gives each running vehicle a virtual thread that loops tick() / sleep().
+ * Sleeping virtual threads do not occupy a carrier thread, and the loop exits
+ * as soon as the vehicle parks, so paused or empty vehicles hold no thread at all.
+ */
+public class VirtualThreadSimulationEngine extends AbstractSimulationEngine {
+
+    private final ExecutorService executor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("vehicle-", 0).factory());
+
+    public VirtualThreadSimulationEngine(long tickMillis) {
+        super(tickMillis);
+    }
+
+    @Override
+    protected void submit(Vehicle vehicle) {
+        try {
+            executor.execute(() -> drive(vehicle));
+        } catch (RejectedExecutionException e) {
+            // Engine was shut down concurrently; nothing left to schedule
+        }
+    }
+
+    private void drive(Vehicle vehicle) {
+        try {
+            long due = nextDue(0);
+            while (!isShutdown() && tick(vehicle, due)) {
+                due = nextDue(tickMillis);
+                Thread.sleep(tickMillis);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // Restore interrupt status
+            return;
+        }
+        park(vehicle);
+    }
+
+    @Override
+    protected void release() {
+        executor.shutdownNow();
+    }
+}
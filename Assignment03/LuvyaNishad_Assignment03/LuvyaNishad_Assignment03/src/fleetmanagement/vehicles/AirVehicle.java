@@ -5,9 +5,9 @@ import fleetmanagement.exceptions.InvalidOperationException;
 public abstract class AirVehicle extends Vehicle {
     private double maxAltitude;
 
-    public AirVehicle(String id, String model, double maxSpeed, double maxAltitude)
+    public AirVehicle(String id, String model, double maxSpeed, double maxAltitude, FleetStore store)
             throws InvalidOperationException {
-        super(id, model, maxSpeed);
+        super(id, model, maxSpeed, store);
         this.maxAltitude = maxAltitude;
     }
 
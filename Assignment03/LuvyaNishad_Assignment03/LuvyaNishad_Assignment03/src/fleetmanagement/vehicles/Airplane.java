@@ -10,31 +10,31 @@ import fleetmanagement.interfaces.PassengerCarrier;
 
 public class Airplane extends AirVehicle implements FuelConsumable, PassengerCarrier, CargoCarrier, Maintainable {
 
-    private double fuelLevel;
+    private final FuelTank fuelTank;
     private final double FUEL_CAPACITY = 500.0; // Max capacity
     private final double cargoCapacity = 10000.0;
     private final int passengerCapacity = 200;
     private int currentPassengers;
     private double currentCargo;
-    private boolean maintenanceNeeded;
+    private volatile boolean maintenanceNeeded; // Read by the maintenance index on other threads
 
-    public Airplane(String id, String model, double maxSpeed, double maxAltitude) throws InvalidOperationException {
-        super(id, model, maxSpeed, maxAltitude);
-        this.fuelLevel = 0.0;
+    public Airplane(String id, String model, double maxSpeed, double maxAltitude, FleetStore store) throws InvalidOperationException {
+        super(id, model, maxSpeed, maxAltitude, store);
         this.currentPassengers = 0;
         this.currentCargo = 0.0;
         this.maintenanceNeeded = false;
+        this.fuelTank = new FuelTank(store, slot, FUEL_CAPACITY);
+        store.setEfficiency(slot, calculateFuelEfficiency());
     }
 
     @Override
     public boolean simulateTravel(double distance) {
-        try {
-            consumeFuel(distance);
-            addMileage(distance);
-            return true;
-        } catch (InsufficientFuelException e) {
-            return false;
+        // tryConsumeFuel reports an empty tank without throwing, so a tick allocates nothing
+        if (!tryConsumeFuel(distance)) {
+            return false; // Out of fuel
         }
+        addMileage(distance);
+        return true; // Still has fuel
     }
 
     @Override
@@ -59,34 +59,42 @@ public class Airplane extends AirVehicle implements FuelConsumable, PassengerCar
     public void refuel(double amount) throws InvalidOperationException {
         if (amount <= 0) throw new InvalidOperationException("Refuel amount must be positive");
 
-        if (fuelLevel >= FUEL_CAPACITY) {
+        if (fuelTank.refill(amount) == 0.0) {
             System.out.println("Airplane fuel tank is already full.");
             return;
         }
+        fireFuelChanged();
 
-        fuelLevel += amount;
-        if (fuelLevel > FUEL_CAPACITY) {
-            fuelLevel = FUEL_CAPACITY;
-        }
-
-        if (getStatus().equals("Out of Fuel")) {
+        if (getState() == VehicleState.OUT_OF_FUEL) {
             resumeSimulation();
         }
     }
 
     @Override
-    public double getFuelLevel() { return fuelLevel; }
+    public double getFuelLevel() { return fuelTank.getLevel(); }
+
+    @Override
+    public double getFuelCapacity() { return fuelTank.getCapacity(); }
 
     @Override
     public double consumeFuel(double distance) throws InsufficientFuelException {
         double fuelNeeded = distance / calculateFuelEfficiency();
-        if (fuelNeeded > fuelLevel) {
+        if (!tryConsumeFuel(distance)) {
+            double fuelLevel = getFuelLevel();
             throw new InsufficientFuelException("Need " + fuelNeeded + " L but only have " + fuelLevel + " L");
         }
-        fuelLevel -= fuelNeeded;
         return fuelNeeded;
     }
 
+    @Override
+    public boolean tryConsumeFuel(double distance) {
+        if (!fuelTank.tryConsume(distance / calculateFuelEfficiency())) {
+            return false;
+        }
+        fireFuelChanged();
+        return true;
+    }
+
     // ... (Remaining methods: boardPassengers, loadCargo, toCSVString, etc. unchanged) ...
     @Override
     public void boardPassengers(int count) throws OverloadException {
@@ -96,6 +104,7 @@ public class Airplane extends AirVehicle implements FuelConsumable, PassengerCar
                     passengerCapacity + ", Current: " + currentPassengers);
         }
         currentPassengers += count;
+        fireLoadChanged();
     }
 
     @Override
@@ -106,6 +115,7 @@ public class Airplane extends AirVehicle implements FuelConsumable, PassengerCar
                     " passengers. Only " + currentPassengers + " onboard");
         }
         currentPassengers -= count;
+        fireLoadChanged();
     }
 
     @Override
@@ -121,6 +131,7 @@ public class Airplane extends AirVehicle implements FuelConsumable, PassengerCar
                     cargoCapacity + " kg, Current: " + currentCargo + " kg");
         }
         currentCargo += weight;
+        fireLoadChanged();
     }
 
     @Override
@@ -131,6 +142,7 @@ public class Airplane extends AirVehicle implements FuelConsumable, PassengerCar
                     " kg. Only " + currentCargo + " kg loaded");
         }
         currentCargo -= weight;
+        fireLoadChanged();
     }
 
     @Override
@@ -139,11 +151,17 @@ public class Airplane extends AirVehicle implements FuelConsumable, PassengerCar
     public double getCurrentCargo() { return currentCargo; }
 
     @Override
-    public void scheduleMaintenance() { maintenanceNeeded = true; }
+    public void scheduleMaintenance() {
+        maintenanceNeeded = true;
+        fireMaintenanceScheduled();
+    }
+
+    // Only the explicit flag; needsMaintenance() also checks the mileage
+    public boolean isMaintenanceScheduled() { return maintenanceNeeded; }
 
     @Override
     public boolean needsMaintenance() {
-        return maintenanceNeeded || getCurrentMileage() > 10000;
+        return maintenanceNeeded || getCurrentMileage() > SERVICE_INTERVAL_KM;
     }
 
     @Override
@@ -157,20 +175,32 @@ public class Airplane extends AirVehicle implements FuelConsumable, PassengerCar
     public String toCSVString() {
         return String.format("Airplane,%s,%s,%.1f,%.1f,%.1f,%d,%.1f,%.1f,%b",
                 getId(), getModel(), getMaxSpeed(), getMaxAltitude(),
-                fuelLevel, currentPassengers, currentCargo,
+                getFuelLevel(), currentPassengers, currentCargo,
                 getCurrentMileage(), maintenanceNeeded);
     }
 
-    public static Airplane fromCSV(String[] data) throws InvalidOperationException {
+    /*
+     * Rebuilds a saved Airplane (CSV line, binary snapshot) from its primitive fields.
+     */
+    public static Airplane restore(String id, String model, double maxSpeed, double maxAltitude,
+                                   double fuel, int passengers, double cargo, double mileage,
+                                   boolean maintenance, FleetStore store) throws InvalidOperationException {
+        Airplane plane = new Airplane(id, model, maxSpeed, maxAltitude, store);
+        plane.fuelTank.set(fuel);
+        plane.currentPassengers = passengers;
+        plane.currentCargo = cargo;
+        plane.addMileage(mileage);
+        plane.maintenanceNeeded = maintenance;
+        return plane;
+    }
+
+    public static Airplane fromCSV(String[] data, FleetStore store) throws InvalidOperationException {
         try {
-            Airplane plane = new Airplane(data[1], data[2],
-                    Double.parseDouble(data[3]), Double.parseDouble(data[4]));
-            plane.fuelLevel = Double.parseDouble(data[5]);
-            plane.currentPassengers = Integer.parseInt(data[6]);
-            plane.currentCargo = Double.parseDouble(data[7]);
-            plane.addMileage(Double.parseDouble(data[8]));
-            plane.maintenanceNeeded = Boolean.parseBoolean(data[9]);
-            return plane;
+            return restore(data[1], data[2],
+                    Double.parseDouble(data[3]), Double.parseDouble(data[4]),
+                    Double.parseDouble(data[5]), Integer.parseInt(data[6]),
+                    Double.parseDouble(data[7]), Double.parseDouble(data[8]),
+                    Boolean.parseBoolean(data[9]), store);
         } catch (Exception e) {
             throw new InvalidOperationException("Invalid CSV data for Airplane: " + String.join(",", data));
         }
@@ -182,7 +212,7 @@ public class Airplane extends AirVehicle implements FuelConsumable, PassengerCar
         System.out.println("Type: Airplane");
         System.out.println("Passengers: " + currentPassengers + "/" + passengerCapacity);
         System.out.println("Cargo: " + currentCargo + "/" + cargoCapacity + " kg");
-        System.out.println("Fuel Level: " + fuelLevel + " L");
+        System.out.println("Fuel Level: " + getFuelLevel() + " L");
         System.out.println("Maintenance Needed: " + (needsMaintenance() ? "Yes" : "No"));
         System.out.println("Efficiency: " + calculateFuelEfficiency() + " km/l");
     }
@@ -9,30 +9,29 @@ import fleetmanagement.interfaces.PassengerCarrier;
 
 public class Car extends LandVehicle implements FuelConsumable, PassengerCarrier, Maintainable {
 
-    private double fuelLevel;
+    private final FuelTank fuelTank;
     private final double FUEL_CAPACITY = 50.0; // Max capacity
     private final int passengerCapacity = 5;
     private int currentPassengers;
-    private boolean maintenanceNeeded;
+    private volatile boolean maintenanceNeeded; // Read by the maintenance index on other threads
 
-    public Car(String id, String model, double maxSpeed, int numWheels) throws InvalidOperationException {
-        super(id, model, maxSpeed, numWheels);
-        this.fuelLevel = 0.0;
+    public Car(String id, String model, double maxSpeed, int numWheels, FleetStore store) throws InvalidOperationException {
+        super(id, model, maxSpeed, numWheels, store);
         this.currentPassengers = 0;
         this.maintenanceNeeded = false;
+        this.fuelTank = new FuelTank(store, slot, FUEL_CAPACITY);
+        store.setEfficiency(slot, calculateFuelEfficiency());
     }
 
     // --- NEW METHOD FOR ASSIGNMENT 3 ---
     @Override
     public boolean simulateTravel(double distance) {
-        try {
-            // consumeFuel will throw an exception if not enough fuel
-            consumeFuel(distance);
-            addMileage(distance);
-            return true; // Still has fuel
-        } catch (InsufficientFuelException e) {
+        // tryConsumeFuel reports an empty tank without throwing, so a tick allocates nothing
+        if (!tryConsumeFuel(distance)) {
             return false; // Out of fuel
         }
+        addMileage(distance);
+        return true; // Still has fuel
     }
     // --- END NEW METHOD ---
 
@@ -58,36 +57,44 @@ public class Car extends LandVehicle implements FuelConsumable, PassengerCarrier
     public void refuel(double amount) throws InvalidOperationException {
         if (amount <= 0) throw new InvalidOperationException("Refuel amount must be positive");
 
-        // Logic: Fill up but do not exceed capacity
-        if (fuelLevel >= FUEL_CAPACITY) {
+        // Logic: Fill up but do not exceed capacity (atomic, safe against a concurrent consumeFuel)
+        if (fuelTank.refill(amount) == 0.0) {
             System.out.println("Car fuel tank is already full.");
             return;
         }
-
-        fuelLevel += amount;
-        if (fuelLevel > FUEL_CAPACITY) {
-            fuelLevel = FUEL_CAPACITY; // Cap at max
-        }
+        fireFuelChanged();
 
         // If refueled, it can resume
-        if (getStatus().equals("Out of Fuel")) {
+        if (getState() == VehicleState.OUT_OF_FUEL) {
             resumeSimulation();
         }
     }
 
     @Override
-    public double getFuelLevel() { return fuelLevel; }
+    public double getFuelLevel() { return fuelTank.getLevel(); }
+
+    @Override
+    public double getFuelCapacity() { return fuelTank.getCapacity(); }
 
     @Override
     public double consumeFuel(double distance) throws InsufficientFuelException {
         double fuelNeeded = distance / calculateFuelEfficiency();
-        if (fuelNeeded > fuelLevel) {
+        if (!tryConsumeFuel(distance)) {
+            double fuelLevel = getFuelLevel();
             throw new InsufficientFuelException("Need " + fuelNeeded + " L but only have " + fuelLevel + " L");
         }
-        fuelLevel -= fuelNeeded;
         return fuelNeeded;
     }
 
+    @Override
+    public boolean tryConsumeFuel(double distance) {
+        if (!fuelTank.tryConsume(distance / calculateFuelEfficiency())) {
+            return false;
+        }
+        fireFuelChanged();
+        return true;
+    }
+
     @Override
     public void boardPassengers(int count) throws OverloadException {
         if (count <= 0) throw new OverloadException("Passenger count must be positive");
@@ -96,6 +103,7 @@ public class Car extends LandVehicle implements FuelConsumable, PassengerCarrier
                     passengerCapacity + ", Current: " + currentPassengers);
         }
         currentPassengers += count;
+        fireLoadChanged();
     }
 
     @Override
@@ -106,6 +114,7 @@ public class Car extends LandVehicle implements FuelConsumable, PassengerCarrier
                     " passengers. Only " + currentPassengers + " onboard");
         }
         currentPassengers -= count;
+        fireLoadChanged();
     }
 
     @Override
@@ -114,11 +123,17 @@ public class Car extends LandVehicle implements FuelConsumable, PassengerCarrier
     public int getCurrentPassengers() { return currentPassengers; }
 
     @Override
-    public void scheduleMaintenance() { maintenanceNeeded = true; }
+    public void scheduleMaintenance() {
+        maintenanceNeeded = true;
+        fireMaintenanceScheduled();
+    }
+
+    // Only the explicit flag; needsMaintenance() also checks the mileage
+    public boolean isMaintenanceScheduled() { return maintenanceNeeded; }
 
     @Override
     public boolean needsMaintenance() {
-        return maintenanceNeeded || getCurrentMileage() > 10000;
+        return maintenanceNeeded || getCurrentMileage() > SERVICE_INTERVAL_KM;
     }
 
     @Override
@@ -132,18 +147,30 @@ public class Car extends LandVehicle implements FuelConsumable, PassengerCarrier
     public String toCSVString() {
         return String.format("Car,%s,%s,%.1f,%d,%.1f,%d,%.1f,%b",
                 getId(), getModel(), getMaxSpeed(), getNumWheels(),
-                fuelLevel, currentPassengers, getCurrentMileage(), maintenanceNeeded);
+                getFuelLevel(), currentPassengers, getCurrentMileage(), maintenanceNeeded);
+    }
+
+    /*
+     * Rebuilds a saved Car (CSV line, binary snapshot) from its primitive fields.
+     */
+    public static Car restore(String id, String model, double maxSpeed, int numWheels,
+                              double fuel, int passengers, double mileage, boolean maintenance,
+                              FleetStore store) throws InvalidOperationException {
+        Car car = new Car(id, model, maxSpeed, numWheels, store);
+        car.fuelTank.set(fuel);
+        car.currentPassengers = passengers;
+        car.addMileage(mileage);
+        car.maintenanceNeeded = maintenance;
+        return car;
     }
 
-    public static Car fromCSV(String[] data) throws InvalidOperationException {
+    public static Car fromCSV(String[] data, FleetStore store) throws InvalidOperationException {
         try {
-            Car car = new Car(data[1], data[2],
-                    Double.parseDouble(data[3]), Integer.parseInt(data[4]));
-            car.fuelLevel = Double.parseDouble(data[5]);
-            car.currentPassengers = Integer.parseInt(data[6]);
-            car.addMileage(Double.parseDouble(data[7]));
-            car.maintenanceNeeded = Boolean.parseBoolean(data[8]);
-            return car;
+            return restore(data[1], data[2],
+                    Double.parseDouble(data[3]), Integer.parseInt(data[4]),
+                    Double.parseDouble(data[5]), Integer.parseInt(data[6]),
+                    Double.parseDouble(data[7]), Boolean.parseBoolean(data[8]),
+                    store);
         } catch (Exception e) {
             throw new InvalidOperationException("Invalid CSV data for Car: " + String.join(",", data));
         }
@@ -153,7 +180,7 @@ public class Car extends LandVehicle implements FuelConsumable, PassengerCarrier
     public void displayInfo() {
         super.displayInfo();
         System.out.println("Type: Car");
-        System.out.println("Fuel Level: " + fuelLevel + " L");
+        System.out.println("Fuel Level: " + getFuelLevel() + " L");
         System.out.println("Passengers: " + currentPassengers + "/" + passengerCapacity);
         System.out.println("Maintenance Needed: " + (needsMaintenance() ? "Yes" : "No"));
         System.out.println("Efficiency: " + calculateFuelEfficiency() + " km/l");
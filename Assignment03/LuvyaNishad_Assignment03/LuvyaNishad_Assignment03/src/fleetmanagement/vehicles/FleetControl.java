@@ -0,0 +1,86 @@
+package fleetmanagement.vehicles;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Fleet-wide pause / resume / stop in O(1), whatever the fleet size.
+ *
+ * The phase (RUNNING, PAUSED or STOPPED) and an epoch that counts phase changes live
+ * in one atomic word, so a single compare-and-set moves the whole fleet at once.
+ * Vehicles read the word at the start of every tick: a tick that began before a
+ * pause finishes, the next one does not start (the engine parks the vehicle).
+ * That tick boundary is the instant the fleet was paused.
+ *
+ * Vehicles report the fleet phase through getState(), but do not fire
+ * onStateChanged() for it (that would cost O(fleet) again). Listen here instead.
+ */
+public class FleetControl {
+
+    // Notified after every phase change, on the thread that made it
+    public interface Listener {
+        void onPhaseChanged(FleetControl control, VehicleState phase, long epoch);
+    }
+
+    private static final VehicleState[] PHASES = VehicleState.values();
+    private static final int PHASE_BITS = 3;
+    private static final long PHASE_MASK = (1L << PHASE_BITS) - 1;
+
+    private final AtomicLong word = new AtomicLong(pack(0, VehicleState.RUNNING));
+    private final CopyOnWriteArrayList<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    public boolean pause() { return moveTo(VehicleState.PAUSED); }
+
+    public boolean resume() { return moveTo(VehicleState.RUNNING); }
+
+    // Final: a stopped fleet cannot be resumed
+    public boolean stop() { return moveTo(VehicleState.STOPPED); }
+
+    // Checked by every tick, so it is a single volatile read
+    public boolean isRunning() { return phaseOf(word.get()) == VehicleState.RUNNING; }
+
+    public VehicleState getPhase() { return phaseOf(word.get()); }
+
+    public long getEpoch() { return word.get() >>> PHASE_BITS; }
+
+    public void addListener(Listener listener) { listeners.add(listener); }
+
+    public void removeListener(Listener listener) { listeners.remove(listener); }
+
+    // For thread-per-vehicle mode (Vehicle.run()): blocks while the fleet is paused
+    public synchronized void awaitRunning() throws InterruptedException {
+        while (getPhase() == VehicleState.PAUSED) {
+            wait();
+        }
+    }
+
+    private boolean moveTo(VehicleState next) {
+        long current;
+        long updated;
+        do {
+            current = word.get();
+            VehicleState phase = phaseOf(current);
+            if (phase == next || phase == VehicleState.STOPPED) {
+                return false;
+            }
+            updated = pack((current >>> PHASE_BITS) + 1, next);
+        } while (!word.compareAndSet(current, updated));
+
+        synchronized (this) {
+            notifyAll(); // One notify for awaitRunning() and the halted vehicles in Vehicle.run(), not one per vehicle
+        }
+        long epoch = updated >>> PHASE_BITS;
+        for (Listener l : listeners) {
+            l.onPhaseChanged(this, next, epoch);
+        }
+        return true;
+    }
+
+    private static long pack(long epoch, VehicleState phase) {
+        return epoch << PHASE_BITS | phase.ordinal();
+    }
+
+    private static VehicleState phaseOf(long word) {
+        return PHASES[(int) (word & PHASE_MASK)];
+    }
+}
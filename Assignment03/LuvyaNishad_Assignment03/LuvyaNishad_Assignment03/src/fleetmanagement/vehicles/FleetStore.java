@@ -0,0 +1,125 @@
+package fleetmanagement.vehicles;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/*
+ * Columnar (struct-of-arrays) storage for the per-vehicle numbers that change on every tick.
+ *
+ * Every Vehicle owns one slot; its fuel level, mileage and fuel efficiency live in
+ * primitive arrays instead of fields scattered over Car/Truck/Airplane objects.
+ * tick() can then advance the whole fleet with a sequential scan over three arrays.
+ *
+ * Fuel is kept in fixed-point units (see FuelTank) so that refuels from the GUI
+ * and consumption from the simulation threads can both update it with CAS.
+ *
+ * Columns are split into fixed-size pages that never move once created, so growing
+ * the store never invalidates a slot that another thread is reading or writing.
+ *
+ * There is no global store: every fleet is created with a store of its own (slots
+ * are never handed back, so a store lives as long as its fleet), and vehicles that
+ * work together (indexes, bulk ticks) must share one.
+ */
+public class FleetStore {
+
+    private static final int PAGE_BITS = 14;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    private static final VarHandle FUEL = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private static final class Page {
+        final long[] fuel = new long[PAGE_SIZE];
+        final double[] mileage = new double[PAGE_SIZE];
+        final double[] efficiency = new double[PAGE_SIZE];
+    }
+
+    private volatile Page[] pages = new Page[0];
+    private volatile int size = 0;
+
+    // Reserves the next slot; pages are only ever appended, never copied
+    public synchronized int allocate() {
+        int slot = size;
+        int pageIndex = slot >>> PAGE_BITS;
+        if (pageIndex == pages.length) {
+            Page[] grown = Arrays.copyOf(pages, pageIndex + 1);
+            grown[pageIndex] = new Page();
+            pages = grown;
+        }
+        size = slot + 1;
+        return slot;
+    }
+
+    public int size() { return size; }
+
+    private Page page(int slot) { return pages[slot >>> PAGE_BITS]; }
+
+    // --- COLUMN ACCESSORS ---
+
+    public long getFuelUnits(int slot) { return (long) FUEL.getVolatile(page(slot).fuel, slot & PAGE_MASK); }
+    public void setFuelUnits(int slot, long units) { FUEL.setVolatile(page(slot).fuel, slot & PAGE_MASK, units); }
+    public boolean compareAndSetFuelUnits(int slot, long expected, long units) {
+        return FUEL.compareAndSet(page(slot).fuel, slot & PAGE_MASK, expected, units);
+    }
+
+    public double getMileage(int slot) { return page(slot).mileage[slot & PAGE_MASK]; }
+    public void setMileage(int slot, double value) { page(slot).mileage[slot & PAGE_MASK] = value; }
+    public void addMileage(int slot, double distance) { page(slot).mileage[slot & PAGE_MASK] += distance; }
+
+    public double getEfficiency(int slot) { return page(slot).efficiency[slot & PAGE_MASK]; }
+    public void setEfficiency(int slot, double value) { page(slot).efficiency[slot & PAGE_MASK] = value; }
+
+    /*
+     * Bulk projection kernel for batch runs and benchmarks (HeadlessSimulation's bulk
+     * mode): every slot with enough fuel travels 'distance' km. It works on the columns
+     * alone, so there are no listeners and no state: vehicle states and FleetControl are
+     * ignored, and a vehicle that runs dry is not moved to OUT_OF_FUEL (countDry() says
+     * how many did). Only one thread may tick a store, and no engine may run its vehicles
+     * meanwhile, since mileage is a plain add. Fuel is taken with the same CAS as
+     * FuelTank.tryConsume(), so a concurrent refuel is never lost.
+     * Returns how many vehicles moved, so the caller can add moved * distance to the
+     * highway counter in a single call.
+     */
+    public int tick(double distance) {
+        Page[] snapshot = pages;
+        int count = size;
+        int moved = 0;
+        for (int p = 0; p < snapshot.length; p++) {
+            int length = Math.min(PAGE_SIZE, count - (p << PAGE_BITS));
+            if (length <= 0) break;
+            long[] fuel = snapshot[p].fuel;
+            double[] mileage = snapshot[p].mileage;
+            double[] efficiency = snapshot[p].efficiency;
+            for (int i = 0; i < length; i++) {
+                long fuelNeeded = FuelTank.toUnits(distance / efficiency[i]);
+                long current;
+                do {
+                    current = fuel[i];
+                } while (fuelNeeded <= current && !FUEL.compareAndSet(fuel, i, current, current - fuelNeeded));
+                if (fuelNeeded <= current) {
+                    mileage[i] += distance;
+                    moved++;
+                }
+            }
+        }
+        return moved;
+    }
+
+    // Slots whose fuel no longer covers 'distance' km: the vehicles tick(distance) leaves standing
+    public int countDry(double distance) {
+        Page[] snapshot = pages;
+        int count = size;
+        int dry = 0;
+        for (int p = 0; p < snapshot.length; p++) {
+            int length = Math.min(PAGE_SIZE, count - (p << PAGE_BITS));
+            if (length <= 0) break;
+            long[] fuel = snapshot[p].fuel;
+            double[] efficiency = snapshot[p].efficiency;
+            for (int i = 0; i < length; i++) {
+                if ((long) FUEL.getVolatile(fuel, i) < FuelTank.toUnits(distance / efficiency[i])) dry++;
+            }
+        }
+        return dry;
+    }
+}
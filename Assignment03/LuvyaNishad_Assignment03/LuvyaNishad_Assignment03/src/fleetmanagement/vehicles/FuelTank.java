@@ -0,0 +1,81 @@
+package fleetmanagement.vehicles;
+
+/*
+ * Thread-safe fuel tank shared by every FuelConsumable vehicle.
+ *
+ * refuel() runs on the Swing EDT while the vehicle consumes fuel on a simulation
+ * thread. Both now go through a compare-and-set loop on the vehicle's fuel slot in
+ * the FleetStore, so neither update can overwrite the other.
+ *
+ * Fuel is stored in whole micro-litres: CAS compares exact long values, and
+ * additions and subtractions never accumulate floating-point rounding error,
+ * so the tank can never create or lose fuel.
+ */
+public class FuelTank {
+
+    public static final long UNITS_PER_LITRE = 1_000_000L;
+
+    private final FleetStore store;
+    private final int slot;
+    private final long capacityUnits;
+
+    public FuelTank(FleetStore store, int slot, double capacity) {
+        this.store = store;
+        this.slot = slot;
+        this.capacityUnits = toUnits(capacity);
+    }
+
+    public static long toUnits(double litres) {
+        return Math.round(litres * UNITS_PER_LITRE);
+    }
+
+    public static double toLitres(long units) {
+        return (double) units / UNITS_PER_LITRE;
+    }
+
+    public double getLevel() { return toLitres(store.getFuelUnits(slot)); }
+
+    public double getCapacity() { return toLitres(capacityUnits); }
+
+    public boolean isFull() { return store.getFuelUnits(slot) >= capacityUnits; }
+
+    /*
+     * Atomically removes 'litres' from the tank.
+     * Returns false and leaves the tank unchanged if there is not enough fuel.
+     */
+    public boolean tryConsume(double litres) {
+        long needed = toUnits(litres);
+        while (true) {
+            long current = store.getFuelUnits(slot);
+            if (needed > current) {
+                return false;
+            }
+            if (store.compareAndSetFuelUnits(slot, current, current - needed)) {
+                return true;
+            }
+        }
+    }
+
+    /*
+     * Atomically adds up to 'litres', capped at the tank capacity.
+     * Returns the number of litres actually added (0 when the tank was already full).
+     */
+    public double refill(double litres) {
+        long offered = toUnits(litres);
+        while (true) {
+            long current = store.getFuelUnits(slot);
+            long updated = Math.min(capacityUnits, current + offered);
+            if (updated <= current) {
+                return 0.0;
+            }
+            if (store.compareAndSetFuelUnits(slot, current, updated)) {
+                return toLitres(updated - current);
+            }
+        }
+    }
+
+    // Used when restoring saved vehicles; not meant for concurrent use
+    public void set(double litres) {
+        store.setFuelUnits(slot, toUnits(litres));
+    }
+}
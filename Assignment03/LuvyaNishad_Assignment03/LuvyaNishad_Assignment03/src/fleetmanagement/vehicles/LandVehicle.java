@@ -5,9 +5,9 @@ import fleetmanagement.exceptions.InvalidOperationException;
 public abstract class LandVehicle extends Vehicle {
     private int numWheels;
 
-    public LandVehicle(String id, String model, double maxSpeed, int numWheels)
+    public LandVehicle(String id, String model, double maxSpeed, int numWheels, FleetStore store)
             throws InvalidOperationException {
-        super(id, model, maxSpeed);
+        super(id, model, maxSpeed, store);
         this.numWheels = numWheels;
     }
 
@@ -9,28 +9,28 @@ import fleetmanagement.interfaces.Maintainable;
 
 public class Truck extends LandVehicle implements FuelConsumable, CargoCarrier, Maintainable {
 
-    private double fuelLevel;
+    private final FuelTank fuelTank;
     private final double FUEL_CAPACITY = 100.0; // Max capacity
     private final double cargoCapacity = 5000.0;
     private double currentCargo;
-    private boolean maintenanceNeeded;
+    private volatile boolean maintenanceNeeded; // Read by the maintenance index on other threads
 
-    public Truck(String id, String model, double maxSpeed, int numWheels) throws InvalidOperationException {
-        super(id, model, maxSpeed, numWheels);
-        this.fuelLevel = 0.0;
+    public Truck(String id, String model, double maxSpeed, int numWheels, FleetStore store) throws InvalidOperationException {
+        super(id, model, maxSpeed, numWheels, store);
         this.currentCargo = 0.0;
         this.maintenanceNeeded = false;
+        this.fuelTank = new FuelTank(store, slot, FUEL_CAPACITY);
+        store.setEfficiency(slot, calculateFuelEfficiency());
     }
 
     @Override
     public boolean simulateTravel(double distance) {
-        try {
-            consumeFuel(distance);
-            addMileage(distance);
-            return true;
-        } catch (InsufficientFuelException e) {
-            return false;
+        // tryConsumeFuel reports an empty tank without throwing, so a tick allocates nothing
+        if (!tryConsumeFuel(distance)) {
+            return false; // Out of fuel
         }
+        addMileage(distance);
+        return true; // Still has fuel
     }
 
     @Override
@@ -60,35 +60,43 @@ public class Truck extends LandVehicle implements FuelConsumable, CargoCarrier,
     public void refuel(double amount) throws InvalidOperationException {
         if (amount <= 0) throw new InvalidOperationException("Refuel amount must be positive");
 
-        if (fuelLevel >= FUEL_CAPACITY) {
+        if (fuelTank.refill(amount) == 0.0) {
             System.out.println("Truck fuel tank is already full.");
             return;
         }
+        fireFuelChanged();
 
-        fuelLevel += amount;
-        if (fuelLevel > FUEL_CAPACITY) {
-            fuelLevel = FUEL_CAPACITY;
-        }
-
-        if (getStatus().equals("Out of Fuel")) {
+        if (getState() == VehicleState.OUT_OF_FUEL) {
             resumeSimulation();
         }
     }
 
     @Override
-    public double getFuelLevel() { return fuelLevel; }
+    public double getFuelLevel() { return fuelTank.getLevel(); }
+
+    @Override
+    public double getFuelCapacity() { return fuelTank.getCapacity(); }
 
     @Override
     public double consumeFuel(double distance) throws InsufficientFuelException {
         double fuelNeeded = distance / calculateFuelEfficiency();
-        if (fuelNeeded > fuelLevel) {
+        if (!tryConsumeFuel(distance)) {
+            double fuelLevel = getFuelLevel();
             throw new InsufficientFuelException("Not enough fuel. Needed: " +
                     String.format("%.2f", fuelNeeded) + " L, Available: " + fuelLevel + " L");
         }
-        fuelLevel -= fuelNeeded;
         return fuelNeeded;
     }
 
+    @Override
+    public boolean tryConsumeFuel(double distance) {
+        if (!fuelTank.tryConsume(distance / calculateFuelEfficiency())) {
+            return false;
+        }
+        fireFuelChanged();
+        return true;
+    }
+
     // ... (Remaining methods: loadCargo, unloadCargo, getters, etc. unchanged) ...
     @Override
     public void loadCargo(double weight) throws OverloadException {
@@ -98,6 +106,8 @@ public class Truck extends LandVehicle implements FuelConsumable, CargoCarrier,
                     cargoCapacity + " kg, Current: " + currentCargo + " kg");
         }
         currentCargo += weight;
+        store.setEfficiency(slot, calculateFuelEfficiency()); // Heavy loads lower efficiency
+        fireLoadChanged();
     }
 
     @Override
@@ -108,6 +118,8 @@ public class Truck extends LandVehicle implements FuelConsumable, CargoCarrier,
                     " kg. Only " + currentCargo + " kg loaded");
         }
         currentCargo -= weight;
+        store.setEfficiency(slot, calculateFuelEfficiency());
+        fireLoadChanged();
     }
 
     @Override
@@ -116,11 +128,17 @@ public class Truck extends LandVehicle implements FuelConsumable, CargoCarrier,
     public double getCurrentCargo() { return currentCargo; }
 
     @Override
-    public void scheduleMaintenance() { maintenanceNeeded = true; }
+    public void scheduleMaintenance() {
+        maintenanceNeeded = true;
+        fireMaintenanceScheduled();
+    }
+
+    // Only the explicit flag; needsMaintenance() also checks the mileage
+    public boolean isMaintenanceScheduled() { return maintenanceNeeded; }
 
     @Override
     public boolean needsMaintenance() {
-        return maintenanceNeeded || getCurrentMileage() > 10000;
+        return maintenanceNeeded || getCurrentMileage() > SERVICE_INTERVAL_KM;
     }
 
     @Override
@@ -134,18 +152,31 @@ public class Truck extends LandVehicle implements FuelConsumable, CargoCarrier,
     public String toCSVString() {
         return String.format("Truck,%s,%s,%.1f,%d,%.1f,%.1f,%.1f,%b",
                 getId(), getModel(), getMaxSpeed(), getNumWheels(),
-                fuelLevel, currentCargo, getCurrentMileage(), maintenanceNeeded);
+                getFuelLevel(), currentCargo, getCurrentMileage(), maintenanceNeeded);
+    }
+
+    /*
+     * Rebuilds a saved Truck (CSV line, binary snapshot) from its primitive fields.
+     */
+    public static Truck restore(String id, String model, double maxSpeed, int numWheels,
+                                double fuel, double cargo, double mileage, boolean maintenance,
+                                FleetStore store) throws InvalidOperationException {
+        Truck truck = new Truck(id, model, maxSpeed, numWheels, store);
+        truck.fuelTank.set(fuel);
+        truck.currentCargo = cargo;
+        truck.store.setEfficiency(truck.slot, truck.calculateFuelEfficiency());
+        truck.addMileage(mileage);
+        truck.maintenanceNeeded = maintenance;
+        return truck;
     }
 
-    public static Truck fromCSV(String[] data) throws InvalidOperationException {
+    public static Truck fromCSV(String[] data, FleetStore store) throws InvalidOperationException {
         try {
-            Truck truck = new Truck(data[1], data[2],
-                    Double.parseDouble(data[3]), Integer.parseInt(data[4]));
-            truck.fuelLevel = Double.parseDouble(data[5]);
-            truck.currentCargo = Double.parseDouble(data[6]);
-            truck.addMileage(Double.parseDouble(data[7]));
-            truck.maintenanceNeeded = Boolean.parseBoolean(data[8]);
-            return truck;
+            return restore(data[1], data[2],
+                    Double.parseDouble(data[3]), Integer.parseInt(data[4]),
+                    Double.parseDouble(data[5]), Double.parseDouble(data[6]),
+                    Double.parseDouble(data[7]), Boolean.parseBoolean(data[8]),
+                    store);
         } catch (Exception e) {
             throw new InvalidOperationException("Invalid CSV data for Truck: " + String.join(",", data));
         }
@@ -156,7 +187,7 @@ public class Truck extends LandVehicle implements FuelConsumable, CargoCarrier,
         super.displayInfo();
         System.out.println("Type: Truck");
         System.out.println("Cargo: " + currentCargo + "/" + cargoCapacity + " kg");
-        System.out.println("Fuel Level: " + fuelLevel + " L");
+        System.out.println("Fuel Level: " + getFuelLevel() + " L");
         System.out.println("Maintenance Needed: " + (needsMaintenance() ? "Yes" : "No"));
         System.out.println("Efficiency: " + calculateFuelEfficiency() + " km/l");
     }
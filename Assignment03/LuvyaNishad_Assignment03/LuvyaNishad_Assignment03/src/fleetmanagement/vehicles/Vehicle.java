@@ -1,29 +1,58 @@
 package fleetmanagement.vehicles;
 
 import fleetmanagement.exceptions.InvalidOperationException;
+import fleetmanagement.interfaces.CargoCarrier;
+import fleetmanagement.interfaces.FuelConsumable;
 import fleetmanagement.interfaces.HighwayTracker; // Use the new interface
+import fleetmanagement.interfaces.PassengerCarrier;
+import fleetmanagement.interfaces.SimulationEngine;
+import fleetmanagement.interfaces.VehicleListener;
+import fleetmanagement.metrics.FleetMetrics;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
 
 public abstract class Vehicle implements Comparable<Vehicle>, Runnable {
     private String id;
     private String model;
     private double maxSpeed;
-    private double currentMileage;
 
-    private volatile boolean isRunning = true;
-    protected volatile boolean isPaused = false; // Protected so subclasses can check if needed, though accessor is better
-    private volatile String status = "Idle";
+    // This vehicle's row in the columnar store (fuel, mileage, efficiency)
+    protected final FleetStore store;
+    protected final int slot;
+
+    // The whole lifecycle in one word: changed only by compare-and-set, so a status
+    // read never sees a half-applied pause/stop (see VehicleState for legal moves)
+    private volatile VehicleState state = VehicleState.IDLE;
+    private static final VarHandle STATE;
+
+    static {
+        try {
+            STATE = MethodHandles.lookup().findVarHandle(Vehicle.class, "state", VehicleState.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
 
     // Decoupled: Uses Interface instead of GUI class directly
     private HighwayTracker simulator;
+    private volatile SimulationEngine engine;
+    private volatile FleetControl control;
 
-    public Vehicle(String id, String model, double maxSpeed) throws InvalidOperationException {
+    // Copy-on-write: adding a listener replaces the array, so firing needs no lock
+    private static final VehicleListener[] NO_LISTENERS = new VehicleListener[0];
+    private volatile VehicleListener[] listeners = NO_LISTENERS;
+
+    public Vehicle(String id, String model, double maxSpeed, FleetStore store) throws InvalidOperationException {
         if (id == null || id.trim().isEmpty()) {
             throw new InvalidOperationException("Vehicle ID cannot be empty");
         }
         this.id = id;
         this.model = model;
         this.maxSpeed = maxSpeed;
-        this.currentMileage = 0.0;
+        this.store = store;
+        this.slot = store.allocate();
     }
 
     // Updated setter to accept the Interface
@@ -31,69 +60,261 @@ public abstract class Vehicle implements Comparable<Vehicle>, Runnable {
         this.simulator = simulator;
     }
 
+    public HighwayTracker getSimulator() { return simulator; }
+
+    // Set by the engine in start(); lets resumeSimulation() hand a parked vehicle back to it
+    public void setEngine(SimulationEngine engine) {
+        this.engine = engine;
+    }
+
+    // Shared by the whole fleet; pauses, resumes or stops every vehicle at once
+    public void setFleetControl(FleetControl control) {
+        this.control = control;
+    }
+
+    public FleetControl getFleetControl() { return control; }
+
+    public synchronized void addVehicleListener(VehicleListener listener) {
+        VehicleListener[] grown = Arrays.copyOf(listeners, listeners.length + 1);
+        grown[listeners.length] = listener;
+        listeners = grown;
+    }
+
+    public synchronized void removeVehicleListener(VehicleListener listener) {
+        for (int i = 0; i < listeners.length; i++) {
+            if (listeners[i] == listener) {
+                VehicleListener[] shrunk = new VehicleListener[listeners.length - 1];
+                System.arraycopy(listeners, 0, shrunk, 0, i);
+                System.arraycopy(listeners, i + 1, shrunk, i, shrunk.length - i);
+                listeners = shrunk.length == 0 ? NO_LISTENERS : shrunk;
+                return;
+            }
+        }
+    }
+
+    /*
+     * Performs one simulation step (1 km of travel) and updates the shared counter.
+     * Returns false when the vehicle is paused, out of fuel or stopped, so the
+     * engine can park it instead of keeping a thread busy on its behalf.
+     */
+    public boolean tick() {
+        FleetControl fleetControl = control;
+        if (fleetControl != null && !fleetControl.isRunning()) {
+            return false; // Fleet paused or stopped: this is the tick boundary it takes effect at
+        }
+        VehicleState current = state;
+        if (current == VehicleState.IDLE) {
+            compareAndSetState(VehicleState.IDLE, VehicleState.RUNNING); // First tick
+            current = state;
+        }
+        if (current != VehicleState.RUNNING) {
+            return false;
+        }
+
+        // Simulate Travel
+        boolean stillHasFuel = simulateTravel(1.0);
+
+        if (stillHasFuel) {
+            // Update Shared Counter via Interface
+            if (simulator != null) {
+                simulator.incrementHighwayCounter();
+            }
+            return true;
+        }
+
+        // Out of Fuel (unless a pause or stop won the race, which parks it just the same)
+        compareAndSetState(VehicleState.RUNNING, VehicleState.OUT_OF_FUEL);
+        return false;
+    }
+
+    /*
+     * Legacy thread-per-vehicle mode: new Thread(vehicle).start().
+     * Engines call tick() directly and never use this method.
+     */
     @Override
     public void run() {
-        this.status = "Running";
-        while (isRunning) {
+        compareAndSetState(VehicleState.IDLE, VehicleState.RUNNING);
+        while (getState() != VehicleState.STOPPED) {
             try {
+                FleetControl fleetControl = control;
+                if (fleetControl != null) {
+                    fleetControl.awaitRunning();
+                }
                 // --- OPTIMIZATION FIX (Feedback Point 1) ---
                 // Replaced polling (sleep loop) with efficient wait/notify
-                synchronized (this) {
-                    while (isPaused) {
-                        if (!this.status.equals("Out of Fuel")) {
-                            this.status = "Paused";
-                        }
-                        wait(); // Releases lock and waits efficiently until notified
+                Object monitor = haltMonitor();
+                synchronized (monitor) {
+                    while (state.isHalted() && getState() != VehicleState.STOPPED) {
+                        monitor.wait(); // Releases lock and waits until resumed or stopped
                     }
                 }
                 // -------------------------------------------
-
-                if (!this.status.equals("Out of Fuel")) {
-                    this.status = "Running";
+                if (getState() == VehicleState.STOPPED) {
+                    break;
                 }
 
-                // Simulate Travel
-                boolean stillHasFuel = simulateTravel(1.0);
-
-                if (stillHasFuel) {
-                    // Update Shared Counter via Interface
-                    if (simulator != null) {
-                        simulator.incrementHighwayCounter();
-                    }
-                } else {
-                    // Out of Fuel
-                    this.status = "Out of Fuel";
-                    this.isPaused = true; // Will catch on next loop iteration
-                }
+                FleetMetrics metrics = FleetMetrics.global();
+                long tickStart = System.nanoTime();
+                tick();
+                long sleepStart = System.nanoTime();
+                metrics.recordTick(this, sleepStart - tickStart);
 
                 Thread.sleep(1000); // Simulate 1 second of travel
+                metrics.recordLag(System.nanoTime() - sleepStart - 1_000_000_000L); // Oversleep
 
             } catch (InterruptedException e) {
-                this.isRunning = false;
-                this.status = "Stopped";
+                moveTo(VehicleState.STOPPED);
                 Thread.currentThread().interrupt(); // Restore interrupt status
             }
         }
-        this.status = "Stopped";
     }
 
+    // Takes effect at once: a running vehicle's next tick returns false
     public void stopSimulation() {
-        this.isRunning = false;
+        moveTo(VehicleState.STOPPED);
+        wakeHalted();
     }
 
-    // Synchronized to ensure thread safety with wait/notify logic
-    public synchronized void pauseSimulation() {
-        this.isPaused = true;
+    // No lock needed: pausing is a single CAS, and nobody waits for a vehicle to pause
+    public void pauseSimulation() {
+        moveTo(VehicleState.PAUSED);
     }
 
     // Updated to use notifyAll() to wake up the waiting thread
-    public synchronized void resumeSimulation() {
-        this.isPaused = false;
-        this.status = "Running";
-        notifyAll(); // Wakes up the thread paused in the run() method
+    public void resumeSimulation() {
+        moveTo(VehicleState.RUNNING);
+        wakeHalted(); // Wakes up the thread paused in the run() method
+        // Parked vehicles hold no thread; ask the engine to schedule ticks again
+        SimulationEngine current = engine;
+        if (current != null) {
+            current.wake(this);
+        }
+    }
+
+    /*
+     * Where a halted vehicle waits in run(): the fleet control if it has one, so the
+     * notifyAll() of a fleet-wide stop ends the wait without visiting every vehicle;
+     * otherwise the vehicle itself. Set the fleet control before run() starts.
+     */
+    private Object haltMonitor() {
+        FleetControl fleetControl = control;
+        return fleetControl != null ? fleetControl : this;
+    }
+
+    // The state changes before the notify, and run() checks it under the same monitor
+    private void wakeHalted() {
+        Object monitor = haltMonitor();
+        synchronized (monitor) {
+            monitor.notifyAll();
+        }
+    }
+
+    public boolean isRunnable() {
+        VehicleState current = state;
+        FleetControl fleetControl = control;
+        return (current == VehicleState.RUNNING || current == VehicleState.IDLE)
+                && (fleetControl == null || fleetControl.isRunning());
+    }
+
+    /*
+     * The state as users see it: a stopped fleet stops every vehicle, and a paused
+     * fleet shows its running vehicles as PAUSED (the vehicle's own state is kept,
+     * so resuming the fleet does not resume vehicles that were paused on their own).
+     */
+    public VehicleState getState() {
+        VehicleState own = state;
+        FleetControl fleetControl = control;
+        if (fleetControl == null || own == VehicleState.STOPPED) {
+            return own;
+        }
+        VehicleState phase = fleetControl.getPhase();
+        if (phase == VehicleState.STOPPED) return VehicleState.STOPPED;
+        if (phase == VehicleState.PAUSED && own == VehicleState.RUNNING) return VehicleState.PAUSED;
+        return own;
+    }
+
+    // The vehicle's own state, without the fleet phase (what onStateChanged() reports)
+    public VehicleState getOwnState() { return state; }
+
+    // Display label of the current state ("Running", "Out of Fuel", ...)
+    public String getStatus() { return getState().getLabel(); }
+
+    // --- STATE TRANSITIONS ---
+
+    /*
+     * Atomically moves from 'expected' to 'next'. Fails (returns false) if the vehicle
+     * is no longer in 'expected' or the move is not a legal transition. Listeners and
+     * metrics hear about every successful move exactly once.
+     */
+    public boolean compareAndSetState(VehicleState expected, VehicleState next) {
+        if (!expected.canMoveTo(next) || !STATE.compareAndSet(this, expected, next)) {
+            return false;
+        }
+        FleetMetrics.global().recordTransition(expected, next);
+        for (VehicleListener l : listeners) {
+            l.onStateChanged(this, expected, next);
+        }
+        return true;
+    }
+
+    // Moves to 'next' from whatever the current state is, if that move is legal
+    private boolean moveTo(VehicleState next) {
+        while (true) {
+            VehicleState current = state;
+            if (!current.canMoveTo(next)) {
+                return false;
+            }
+            if (compareAndSetState(current, next)) {
+                return true;
+            }
+        }
+    }
+
+    // --- CHANGE EVENTS (nothing is computed when there are no listeners) ---
+
+    // Called by FuelConsumable subclasses after their tank changed
+    protected void fireFuelChanged() {
+        VehicleListener[] current = listeners;
+        if (current.length == 0) {
+            return;
+        }
+        double level = ((FuelConsumable) this).getFuelLevel();
+        for (VehicleListener l : current) {
+            l.onFuelChanged(this, level);
+        }
+    }
+
+    // Called by CargoCarrier / PassengerCarrier subclasses after loading or unloading
+    protected void fireLoadChanged() {
+        VehicleListener[] current = listeners;
+        if (current.length == 0) {
+            return;
+        }
+        double cargo = this instanceof CargoCarrier ? ((CargoCarrier) this).getCurrentCargo() : 0.0;
+        int passengers = this instanceof PassengerCarrier ? ((PassengerCarrier) this).getCurrentPassengers() : 0;
+        for (VehicleListener l : current) {
+            l.onLoadChanged(this, cargo, passengers);
+        }
+    }
+
+    // Called by Maintainable subclasses from scheduleMaintenance()
+    protected void fireMaintenanceScheduled() {
+        for (VehicleListener l : listeners) {
+            l.onMaintenanceScheduled(this);
+        }
+    }
+
+    private void fireMileageChanged() {
+        VehicleListener[] current = listeners;
+        if (current.length == 0) {
+            return;
+        }
+        double mileage = getCurrentMileage();
+        for (VehicleListener l : current) {
+            l.onMileageChanged(this, mileage);
+        }
     }
 
-    public String getStatus() { return status; }
     public abstract boolean simulateTravel(double distance);
     public abstract void move(double distance) throws InvalidOperationException;
     public abstract double calculateFuelEfficiency();
@@ -102,9 +323,19 @@ public abstract class Vehicle implements Comparable<Vehicle>, Runnable {
     public String getId() { return id; }
     public String getModel() { return model; }
     public double getMaxSpeed() { return maxSpeed; }
-    public double getCurrentMileage() { return currentMileage; }
-    protected void addMileage(double distance) { if (distance > 0) currentMileage += distance; }
-    public void resetMileage() { this.currentMileage = 0.0; }
+    public double getCurrentMileage() { return store.getMileage(slot); }
+    protected void addMileage(double distance) {
+        if (distance > 0) {
+            store.addMileage(slot, distance);
+            fireMileageChanged();
+        }
+    }
+    public void resetMileage() {
+        store.setMileage(slot, 0.0);
+        fireMileageChanged();
+    }
+    public FleetStore getStore() { return store; }
+    public int getSlot() { return slot; }
     public void displayInfo() { System.out.println("ID: " + id + ", Model: " + model); }
     @Override public int compareTo(Vehicle other) { return Double.compare(other.calculateFuelEfficiency(), this.calculateFuelEfficiency()); }
     public String getDetails() { return String.format("%s: %s (ID: %s)", getClass().getSimpleName(), model, id); }
@@ -0,0 +1,41 @@
+package fleetmanagement.vehicles;
+
+import fleetmanagement.exceptions.InvalidOperationException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Builds fleets of fully fuelled vehicles, cycling Car -> Truck -> Airplane.
+ * Vehicle i gets the id C001 / T001 / A001, C002, ... so a fleet of three
+ * matches the original hand-built GUI fleet.
+ */
+public class VehicleFactory {
+
+    // Large fleets should get their own store so they can be ticked in bulk
+    public static List<Vehicle> createFleet(int size, FleetStore store) throws InvalidOperationException {
+        List<Vehicle> fleet = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            fleet.add(createVehicle(i, store));
+        }
+        return fleet;
+    }
+
+    public static Vehicle createVehicle(int index, FleetStore store) throws InvalidOperationException {
+        String number = String.format("%03d", index / 3 + 1);
+        switch (index % 3) {
+            case 0:
+                Car car = new Car("C" + number, "Toyota Camry", 180.0, 4, store);
+                car.refuel(50.0);
+                return car;
+            case 1:
+                Truck truck = new Truck("T" + number, "Ford F-150", 120.0, 6, store);
+                truck.refuel(100.0);
+                return truck;
+            default:
+                Airplane plane = new Airplane("A" + number, "Boeing 737", 850.0, 35000.0, store);
+                plane.refuel(500.0);
+                return plane;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package fleetmanagement.vehicles;
+
+/*
+ * Lifecycle of a vehicle. The legal transitions are:
+ *
+ *   IDLE        -> RUNNING, PAUSED, STOPPED
+ *   RUNNING     -> PAUSED, OUT_OF_FUEL, STOPPED
+ *   PAUSED      -> RUNNING, STOPPED
+ *   OUT_OF_FUEL -> RUNNING (after a refuel or resume), STOPPED
+ *   STOPPED     (final)
+ */
+public enum VehicleState {
+    IDLE("Idle"),
+    RUNNING("Running"),
+    PAUSED("Paused"),
+    OUT_OF_FUEL("Out of Fuel"),
+    STOPPED("Stopped");
+
+    private final String label;
+
+    VehicleState(String label) {
+        this.label = label;
+    }
+
+    // The text shown in the GUI and written to reports
+    public String getLabel() { return label; }
+
+    public boolean canMoveTo(VehicleState next) {
+        switch (this) {
+            case IDLE: return next == RUNNING || next == PAUSED || next == STOPPED;
+            case RUNNING: return next == PAUSED || next == OUT_OF_FUEL || next == STOPPED;
+            case PAUSED:
+            case OUT_OF_FUEL: return next == RUNNING || next == STOPPED;
+            default: return false;
+        }
+    }
+
+    // Paused by the user or stalled on an empty tank; resumeSimulation() restarts it
+    public boolean isHalted() { return this == PAUSED || this == OUT_OF_FUEL; }
+
+    @Override
+    public String toString() { return label; }
+}
@@ -0,0 +1,178 @@
+package fleetmanagement.persistence;
+
+import fleetmanagement.interfaces.CargoCarrier;
+import fleetmanagement.interfaces.PassengerCarrier;
+import fleetmanagement.vehicles.Airplane;
+import fleetmanagement.vehicles.Car;
+import fleetmanagement.vehicles.FleetStore;
+import fleetmanagement.vehicles.Truck;
+import fleetmanagement.vehicles.Vehicle;
+import fleetmanagement.vehicles.VehicleFactory;
+import fleetmanagement.vehicles.VehicleState;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/*
+ * Crash recovery from the journal directory. A "crash" is a journal that is synced
+ * and then abandoned: recover() only sees what is on disk. The recovered fleet must
+ * match the fleet at the last sync field by field; a torn last frame ends recovery
+ * at the commit before it, and a checkpoint that died before its snapshot was
+ * renamed into place recovers from the previous generation.
+ */
+class EventJournalTest {
+
+    private static final int VEHICLES = 9;
+    private static final long NO_TIMED_COMMITS = 60_000; // Only sync() commits during a test
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void recoverRestoresEveryField() throws Exception {
+        List<Vehicle> fleet = VehicleFactory.createFleet(VEHICLES, new FleetStore());
+        EventJournal journal = new EventJournal(directory, fleet, NO_TIMED_COMMITS);
+        try {
+            drive(fleet, 25);
+            ((PassengerCarrier) fleet.get(0)).boardPassengers(3);
+            ((CargoCarrier) fleet.get(1)).loadCargo(1200.0);
+            ((PassengerCarrier) fleet.get(2)).boardPassengers(150);
+            ((CargoCarrier) fleet.get(2)).loadCargo(800.0);
+            ((Truck) fleet.get(4)).scheduleMaintenance();
+            fleet.get(5).pauseSimulation();
+            fleet.get(6).stopSimulation();
+            journal.sync();
+
+            assertSameFleet(fleet, EventJournal.recover(directory, new FleetStore()));
+        } finally {
+            journal.close();
+        }
+    }
+
+    @Test
+    void recoveryStopsAtATornLastFrame() throws Exception {
+        List<Vehicle> fleet = VehicleFactory.createFleet(VEHICLES, new FleetStore());
+        EventJournal journal = new EventJournal(directory, fleet, NO_TIMED_COMMITS);
+        Path log = directory.resolve("journal-" + journal.getGeneration() + ".log");
+        List<Vehicle> atLastGoodCommit;
+        try {
+            drive(fleet, 10);
+            journal.sync();
+            atLastGoodCommit = EventJournal.recover(directory, new FleetStore());
+            long goodLength = Files.size(log);
+
+            drive(fleet, 10);
+            journal.sync(); // One more frame, which the "crash" tears
+            long fullLength = Files.size(log);
+            assertTrue(fullLength > goodLength, "the second commit wrote nothing");
+            try (FileChannel file = FileChannel.open(log, StandardOpenOption.WRITE)) {
+                file.truncate(fullLength - 1);
+            }
+        } finally {
+            journal.close();
+        }
+
+        List<Vehicle> recovered = EventJournal.recover(directory, new FleetStore());
+        assertSameFleet(atLastGoodCommit, recovered);
+        assertTrue(recovered.get(0).getCurrentMileage() < fleet.get(0).getCurrentMileage(),
+                "the torn frame was replayed");
+    }
+
+    @Test
+    void crashBeforeTheSnapshotRenameUsesThePreviousGeneration() throws Exception {
+        List<Vehicle> fleet = VehicleFactory.createFleet(VEHICLES, new FleetStore());
+        EventJournal journal = new EventJournal(directory, fleet, NO_TIMED_COMMITS);
+        Path previousSnapshot = directory.resolve("snapshot-0.bin");
+        Path previousJournal = directory.resolve("journal-0.log");
+        byte[] snapshotBytes;
+        byte[] journalBytes;
+        try {
+            drive(fleet, 10);
+            journal.sync();
+            snapshotBytes = Files.readAllBytes(previousSnapshot);
+            journalBytes = Files.readAllBytes(previousJournal);
+
+            journal.checkpoint(); // Generation 1
+            drive(fleet, 10);
+            ((CargoCarrier) fleet.get(1)).loadCargo(500.0);
+            journal.sync();
+        } finally {
+            journal.close();
+        }
+
+        /*
+         * Turn the directory back into what a crash just before the rename leaves: the
+         * new journal in place, the new snapshot still a (here half-written) temporary
+         * file, and generation 0 not yet deleted.
+         */
+        Path snapshot = directory.resolve("snapshot-1.bin");
+        Path partial = directory.resolve("snapshot-1.bin.tmp");
+        Files.move(snapshot, partial, StandardCopyOption.ATOMIC_MOVE);
+        try (FileChannel file = FileChannel.open(partial, StandardOpenOption.WRITE)) {
+            file.truncate(file.size() / 2);
+        }
+        Files.write(previousSnapshot, snapshotBytes);
+        Files.write(previousJournal, journalBytes);
+        assertFalse(Files.exists(snapshot));
+
+        assertTrue(EventJournal.canRecover(directory));
+        assertSameFleet(fleet, EventJournal.recover(directory, new FleetStore()));
+    }
+
+    // --- HELPERS ---
+
+    private static void drive(List<Vehicle> fleet, int ticks) {
+        for (int t = 0; t < ticks; t++) {
+            for (Vehicle v : fleet) v.tick();
+        }
+    }
+
+    private static void assertSameFleet(List<Vehicle> expected, List<Vehicle> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Vehicle e = expected.get(i);
+            Vehicle a = actual.get(i);
+            String where = e.getId() + ": ";
+            assertEquals(e.getClass(), a.getClass(), where + "type");
+            assertEquals(e.getId(), a.getId(), where + "id");
+            assertEquals(e.getModel(), a.getModel(), where + "model");
+            assertEquals(e.getMaxSpeed(), a.getMaxSpeed(), where + "max speed");
+            assertEquals(e.getStore().getFuelUnits(e.getSlot()), a.getStore().getFuelUnits(a.getSlot()), where + "fuel");
+            assertEquals(e.getCurrentMileage(), a.getCurrentMileage(), where + "mileage");
+            assertEquals(cargoOf(e), cargoOf(a), where + "cargo");
+            assertEquals(passengersOf(e), passengersOf(a), where + "passengers");
+            assertEquals(isScheduled(e), isScheduled(a), where + "maintenance");
+            assertEquals(recoveredState(e.getOwnState()), a.getOwnState(), where + "state");
+        }
+    }
+
+    // Recovery brings a vehicle back IDLE unless it was paused or stopped
+    private static VehicleState recoveredState(VehicleState state) {
+        return state == VehicleState.PAUSED || state == VehicleState.STOPPED ? state : VehicleState.IDLE;
+    }
+
+    private static double cargoOf(Vehicle v) {
+        return v instanceof CargoCarrier ? ((CargoCarrier) v).getCurrentCargo() : 0.0;
+    }
+
+    private static int passengersOf(Vehicle v) {
+        return v instanceof PassengerCarrier ? ((PassengerCarrier) v).getCurrentPassengers() : 0;
+    }
+
+    private static boolean isScheduled(Vehicle v) {
+        if (v instanceof Car) return ((Car) v).isMaintenanceScheduled();
+        if (v instanceof Truck) return ((Truck) v).isMaintenanceScheduled();
+        if (v instanceof Airplane) return ((Airplane) v).isMaintenanceScheduled();
+        return false;
+    }
+}
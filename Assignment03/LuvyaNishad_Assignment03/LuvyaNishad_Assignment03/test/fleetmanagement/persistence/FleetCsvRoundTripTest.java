@@ -0,0 +1,116 @@
+package fleetmanagement.persistence;
+
+import fleetmanagement.exceptions.InvalidOperationException;
+import fleetmanagement.interfaces.CargoCarrier;
+import fleetmanagement.interfaces.PassengerCarrier;
+import fleetmanagement.vehicles.Airplane;
+import fleetmanagement.vehicles.Car;
+import fleetmanagement.vehicles.FleetStore;
+import fleetmanagement.vehicles.Truck;
+import fleetmanagement.vehicles.Vehicle;
+import fleetmanagement.vehicles.VehicleFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/*
+ * FleetCsvWriter output read back by FleetCsvReader must give the same vehicles,
+ * compared through toCSVString(): the format both sides follow. Covers a file large
+ * enough to be parsed in several chunks, Windows line endings, a non-ASCII model,
+ * and a bad line, which must fail the import and name the line.
+ */
+class FleetCsvRoundTripTest {
+
+    // About 11 MB: more than two of the reader's 4 MB minimum chunks
+    private static final int LARGE_FLEET = 200_000;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void multiChunkFileReadsBackInOrder() throws Exception {
+        List<Vehicle> fleet = VehicleFactory.createFleet(LARGE_FLEET, new FleetStore());
+        vary(fleet);
+        Path file = directory.resolve("fleet.csv");
+        FleetCsvWriter.write(file, fleet);
+        assertTrue(Files.size(file) > 8L << 20, "file too small for several chunks: " + Files.size(file));
+
+        assertSameCsv(fleet, FleetCsvReader.read(file, new FleetStore()));
+    }
+
+    @Test
+    void crlfLineEndingsAreAccepted() throws Exception {
+        List<Vehicle> fleet = VehicleFactory.createFleet(30, new FleetStore());
+        vary(fleet);
+        Path file = directory.resolve("fleet.csv");
+        FleetCsvWriter.write(file, fleet);
+        String unix = Files.readString(file, StandardCharsets.UTF_8);
+        Files.writeString(file, unix.replace("\n", "\r\n"), StandardCharsets.UTF_8);
+
+        assertSameCsv(fleet, FleetCsvReader.read(file, new FleetStore()));
+    }
+
+    @Test
+    void nonAsciiModelSurvives() throws Exception {
+        FleetStore store = new FleetStore();
+        List<Vehicle> fleet = new ArrayList<>();
+        fleet.add(Car.restore("C-Ž1", "Škoda Octávia", 180.0, 4, 31.5, 2, 1234.5, false, store));
+        fleet.add(Truck.restore("T1", "Mercedes-Benz Actros «Große»", 120.0, 18, 80.0, 4500.0, 98765.4, true, store));
+        fleet.add(Airplane.restore("A1", "Boeing 787 ドリームライナー", 900.0, 13100.0, 420.0, 180, 8000.0, 5.0, false, store));
+        Path file = directory.resolve("fleet.csv");
+        FleetCsvWriter.write(file, fleet);
+
+        List<Vehicle> read = FleetCsvReader.read(file, new FleetStore());
+        assertSameCsv(fleet, read);
+        assertEquals("Škoda Octávia", read.get(0).getModel());
+        assertEquals("C-Ž1", read.get(0).getId());
+    }
+
+    @Test
+    void badLineFailsTheImport() throws Exception {
+        List<Vehicle> fleet = VehicleFactory.createFleet(LARGE_FLEET, new FleetStore());
+        Path file = directory.resolve("fleet.csv");
+        FleetCsvWriter.write(file, fleet);
+        String bad = "Truck,T-BAD,Volvo FH,120.0,eighteen,400.0,0.0,0.0,false";
+        List<String> lines = new ArrayList<>(Files.readAllLines(file, StandardCharsets.UTF_8));
+        lines.add(lines.size() * 3 / 4, bad); // In a later chunk than the first
+        Files.write(file, lines, StandardCharsets.UTF_8);
+
+        InvalidOperationException e = assertThrows(InvalidOperationException.class,
+                () -> FleetCsvReader.read(file, new FleetStore()));
+        assertTrue(e.getMessage().contains(bad), "the bad line is not named: " + e.getMessage());
+    }
+
+    // --- HELPERS ---
+
+    // Fractional fuel and mileage, loads and maintenance flags, so every column varies
+    private static void vary(List<Vehicle> fleet) throws Exception {
+        for (int i = 0; i < fleet.size(); i++) {
+            Vehicle v = fleet.get(i);
+            for (int t = i % 7; t > 0; t--) v.tick();
+            if (v instanceof PassengerCarrier) ((PassengerCarrier) v).boardPassengers(1 + i % 4);
+            if (v instanceof CargoCarrier) ((CargoCarrier) v).loadCargo(10.5 * (i % 9));
+            if (i % 5 == 0) {
+                if (v instanceof Car) ((Car) v).scheduleMaintenance();
+                if (v instanceof Truck) ((Truck) v).scheduleMaintenance();
+                if (v instanceof Airplane) ((Airplane) v).scheduleMaintenance();
+            }
+        }
+    }
+
+    private static void assertSameCsv(List<Vehicle> expected, List<Vehicle> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).toCSVString(), actual.get(i).toCSVString(), "vehicle " + i);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package fleetmanagement.simulation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/*
+ * Many threads adding to one counter at once, as the vehicle threads do. Once they
+ * are done the total must be exact, and the stripes must add up to it: a CAS that
+ * failed and moved to another stripe may neither lose nor double its distance.
+ */
+class StripedHighwayCounterTest {
+
+    private static final int ADDS = 200_000;
+
+    @Test
+    void concurrentAddsAreExact() throws Exception {
+        assertExact(new StripedHighwayCounter(), 1);
+    }
+
+    @Test
+    void concurrentAddsOnFewStripesAreExact() throws Exception {
+        // More threads than stripes, so the CAS retry path runs all the time
+        assertExact(new StripedHighwayCounter(2), 7);
+    }
+
+    private static void assertExact(StripedHighwayCounter counter, long distance) throws Exception {
+        int threads = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                workers.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < ADDS; i++) {
+                        counter.add(distance);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> worker : workers) worker.get();
+
+            long expected = (long) threads * ADDS * distance;
+            assertEquals(expected, counter.getHighwayDistance());
+            long stripes = 0;
+            for (long value : counter.getStripeDistribution()) stripes += value;
+            assertEquals(expected, stripes, "the stripes do not add up to the total");
+            assertEquals(counter.getStripeCount(), counter.getStripeDistribution().length);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
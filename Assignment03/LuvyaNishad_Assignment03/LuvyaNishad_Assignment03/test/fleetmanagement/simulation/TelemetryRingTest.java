@@ -0,0 +1,171 @@
+package fleetmanagement.simulation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/*
+ * The ring's delivery guarantees: every record a publish() accepted reaches the
+ * consumers, even when close() races with the producers; BLOCK never loses a record;
+ * and DROP / SAMPLE account for every record they did not deliver.
+ */
+class TelemetryRingTest {
+
+    private static final int PRODUCERS = 4;
+
+    @Test
+    void closeDeliversEveryAcceptedRecord() throws Exception {
+        // Many short rounds, so close() lands between a producer's check and its claim now and then
+        for (int round = 0; round < 200; round++) {
+            TelemetryRing ring = new TelemetryRing(TelemetryRing.Policy.DROP, 1 << 12, 256, 8);
+            AtomicLong delivered = new AtomicLong();
+            ring.subscribe(batch -> delivered.addAndGet(batch.getWeightedTotal()));
+            ring.start();
+
+            ExecutorService pool = Executors.newFixedThreadPool(PRODUCERS);
+            CountDownLatch start = new CountDownLatch(1);
+            try {
+                List<Future<Long>> producers = new ArrayList<>();
+                for (int p = 0; p < PRODUCERS; p++) {
+                    int source = p;
+                    producers.add(pool.submit(() -> {
+                        start.await();
+                        long accepted = 0;
+                        int misses = 0;
+                        while (misses < 1000) { // Until the ring has been closed for a while
+                            if (ring.publish(source, 1)) {
+                                accepted++;
+                                misses = 0;
+                            } else {
+                                misses++;
+                            }
+                        }
+                        return accepted;
+                    }));
+                }
+                start.countDown();
+                Thread.sleep(round % 3);
+                ring.close();
+
+                long accepted = 0;
+                for (Future<Long> producer : producers) accepted += producer.get();
+                assertEquals(accepted, delivered.get(), "round " + round + ": accepted records were lost");
+                assertEquals(accepted, ring.getDelivered());
+                assertEquals(0, ring.getBacklog());
+            } finally {
+                pool.shutdownNow();
+            }
+        }
+    }
+
+    @Test
+    void blockLosesNothing() throws Exception {
+        final int perProducer = 50_000;
+        TelemetryRing ring = new TelemetryRing(TelemetryRing.Policy.BLOCK, 64, 16, 8);
+        AtomicLong delivered = new AtomicLong();
+        ring.subscribe(batch -> {
+            delivered.addAndGet(batch.getWeightedTotal());
+            Thread.onSpinWait(); // A slow consumer, so the producers keep finding the ring full
+        });
+        ring.start();
+
+        ExecutorService pool = Executors.newFixedThreadPool(PRODUCERS);
+        try {
+            List<Future<Boolean>> producers = new ArrayList<>();
+            for (int p = 0; p < PRODUCERS; p++) {
+                int source = p;
+                producers.add(pool.submit(() -> {
+                    boolean all = true;
+                    for (int i = 0; i < perProducer; i++) {
+                        all &= ring.publish(source, 3);
+                    }
+                    return all;
+                }));
+            }
+            for (Future<Boolean> producer : producers) {
+                assertTrue(producer.get(), "BLOCK refused a record while open");
+            }
+            ring.close();
+
+            assertEquals(3L * PRODUCERS * perProducer, delivered.get());
+            assertEquals((long) PRODUCERS * perProducer, ring.getDelivered());
+            assertEquals(0, ring.getDropped());
+            assertEquals(0, ring.getSampledOut());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void dropCountsWhatDidNotFit() throws Exception {
+        final int records = 10_000;
+        TelemetryRing ring = new TelemetryRing(TelemetryRing.Policy.DROP, 64, 16, 8);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicLong delivered = new AtomicLong();
+        ring.subscribe(batch -> {
+            awaitQuietly(release); // Holds the drain thread, so the ring fills up
+            delivered.addAndGet(batch.getWeightedTotal());
+        });
+        ring.start();
+
+        long accepted = 0;
+        for (int i = 0; i < records; i++) {
+            if (ring.publish(0, 1)) accepted++;
+        }
+        release.countDown();
+        ring.close();
+
+        assertTrue(ring.getDropped() > 0, "the ring never filled up");
+        assertEquals(records, accepted + ring.getDropped());
+        assertEquals(accepted, ring.getDelivered());
+        assertEquals(accepted, delivered.get());
+        assertEquals(0, ring.getSampledOut());
+        assertFalse(ring.publish(0, 1), "a closed ring accepted a record");
+        assertEquals(records + 1, accepted + ring.getDropped());
+    }
+
+    @Test
+    void sampleCountsWhatItThinnedOut() throws Exception {
+        final int records = 10_000;
+        final int sampleEvery = 8;
+        TelemetryRing ring = new TelemetryRing(TelemetryRing.Policy.SAMPLE, 64, 16, sampleEvery);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicLong weights = new AtomicLong();
+        ring.subscribe(batch -> {
+            awaitQuietly(release);
+            for (int i = 0; i < batch.size(); i++) weights.addAndGet(batch.getWeight(i));
+        });
+        ring.start();
+
+        for (int i = 0; i < records; i++) {
+            ring.publish(0, 1);
+        }
+        release.countDown();
+        ring.close();
+
+        // Every record was delivered, thinned out or dropped, and nothing twice
+        assertTrue(ring.getSampledOut() > 0, "the ring never got half full");
+        assertEquals(records, ring.getDelivered() + ring.getSampledOut() + ring.getDropped());
+        // A kept record stands for 1 or sampleEvery records
+        assertTrue(weights.get() >= ring.getDelivered());
+        assertTrue(weights.get() <= ring.getDelivered() * sampleEvery);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // Restore interrupt status
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package fleetmanagement.vehicles;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/*
+ * Many threads consuming from and refilling one tank at the same time, as the
+ * simulation threads and the GUI do. Every thread counts the fuel it took and added;
+ * the tank must never go below empty or above capacity, and what is left must be
+ * exactly what was there plus what was added minus what was taken.
+ */
+class FuelTankStressTest {
+
+    private static final double CAPACITY = 50.0;
+    private static final int OPERATIONS = 200_000;
+
+    @Test
+    void concurrentConsumeAndRefillConserveFuel() throws Exception {
+        FleetStore store = new FleetStore();
+        FuelTank tank = new FuelTank(store, store.allocate(), CAPACITY);
+        tank.set(CAPACITY / 2);
+        long initial = FuelTank.toUnits(CAPACITY / 2);
+        long capacity = FuelTank.toUnits(CAPACITY);
+
+        int threads = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+        ExecutorService pool = Executors.newFixedThreadPool(threads + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicBoolean outOfRange = new AtomicBoolean();
+        try {
+            // Watches the level while the workers run
+            Future<?> observer = pool.submit(() -> {
+                while (!done.get()) {
+                    long level = store.getFuelUnits(0);
+                    if (level < 0 || level > capacity) outOfRange.set(true);
+                }
+            });
+
+            List<Future<long[]>> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                long seed = t;
+                workers.add(pool.submit(() -> {
+                    Random random = new Random(seed);
+                    long consumed = 0;
+                    long added = 0;
+                    start.await();
+                    for (int op = 0; op < OPERATIONS; op++) {
+                        double litres = 0.1 + random.nextInt(50) * 0.1;
+                        if (random.nextInt(3) == 0) {
+                            added += FuelTank.toUnits(tank.refill(litres));
+                        } else if (tank.tryConsume(litres)) {
+                            consumed += FuelTank.toUnits(litres);
+                        }
+                    }
+                    return new long[]{consumed, added};
+                }));
+            }
+            start.countDown();
+
+            long consumed = 0;
+            long added = 0;
+            for (Future<long[]> worker : workers) {
+                long[] totals = worker.get();
+                consumed += totals[0];
+                added += totals[1];
+            }
+            done.set(true);
+            observer.get();
+
+            long left = store.getFuelUnits(0);
+            assertFalse(outOfRange.get(), "level left [0, capacity] while the threads ran");
+            assertTrue(left >= 0 && left <= capacity, "final level out of range: " + left);
+            assertEquals(initial + added - consumed, left, "fuel was created or lost");
+            assertTrue(consumed > 0 && added > 0, "the threads never contended");
+        } finally {
+            done.set(true);
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void consumeNeverOverdraws() throws Exception {
+        FleetStore store = new FleetStore();
+        FuelTank tank = new FuelTank(store, store.allocate(), CAPACITY);
+        tank.set(CAPACITY);
+
+        // Every thread drains 1 L at a time until the tank refuses: exactly 50 L are handed out
+        int threads = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                workers.add(pool.submit(() -> {
+                    start.await();
+                    int litres = 0;
+                    while (tank.tryConsume(1.0)) litres++;
+                    return litres;
+                }));
+            }
+            start.countDown();
+            int total = 0;
+            for (Future<Integer> worker : workers) total += worker.get();
+
+            assertEquals((int) CAPACITY, total);
+            assertEquals(0L, store.getFuelUnits(0));
+            assertFalse(tank.tryConsume(0.000001));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package fleetmanagement.vehicles;
+
+import fleetmanagement.exceptions.InvalidOperationException;
+import fleetmanagement.interfaces.FuelConsumable;
+import fleetmanagement.simulation.StripedHighwayCounter;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/*
+ * The engines call tick() for every vehicle every second, so it must not allocate in
+ * the steady state. Each check warms the path up until the JIT has compiled it, then
+ * counts this thread's allocated bytes (HotSpot ThreadMXBean) over many calls.
+ */
+class TickAllocationTest {
+
+    private static final int WARMUP = 200_000;
+    private static final int CALLS = 1_000_000;
+    // Far below one object per call; leaves room for a stray allocation by the JVM itself
+    private static final long MAX_BYTES = 4_096;
+
+    private static com.sun.management.ThreadMXBean threads;
+
+    @BeforeAll
+    static void allocationCounter() {
+        Object bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean, "no per-thread allocation counter");
+        threads = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threads.isThreadAllocatedMemorySupported(), "no per-thread allocation counter");
+        threads.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    @Test
+    void tickDoesNotAllocate() throws InvalidOperationException {
+        StripedHighwayCounter counter = new StripedHighwayCounter();
+        for (Vehicle v : fleet()) {
+            v.setSimulator(counter);
+            FuelConsumable tank = (FuelConsumable) v;
+            Step tick = () -> {
+                if (!v.tick()) tank.refuel(tank.getFuelCapacity());
+            };
+            assertAllocationFree(v.getClass().getSimpleName() + ".tick()", tick);
+        }
+    }
+
+    @Test
+    void tryConsumeFuelDoesNotAllocate() throws InvalidOperationException {
+        for (Vehicle v : fleet()) {
+            FuelConsumable tank = (FuelConsumable) v;
+            Step consume = () -> {
+                if (!tank.tryConsumeFuel(1.0)) tank.refuel(tank.getFuelCapacity());
+            };
+            assertAllocationFree(v.getClass().getSimpleName() + ".tryConsumeFuel()", consume);
+        }
+    }
+
+    // An empty tank is reported with a false, not with an exception
+    @Test
+    void emptyTankDoesNotAllocate() throws InvalidOperationException {
+        for (Vehicle v : fleet()) {
+            FuelConsumable tank = (FuelConsumable) v;
+            while (tank.tryConsumeFuel(1.0)) {
+                // Drain it
+            }
+            Step refused = () -> {
+                if (tank.tryConsumeFuel(1.0)) throw new IllegalStateException("tank should be empty");
+            };
+            assertAllocationFree(v.getClass().getSimpleName() + ".tryConsumeFuel() on an empty tank", refused);
+        }
+    }
+
+    // --- HELPERS ---
+
+    private interface Step {
+        void run() throws InvalidOperationException;
+    }
+
+    // One Car, Truck and Airplane
+    private static List<Vehicle> fleet() throws InvalidOperationException {
+        return VehicleFactory.createFleet(3, new FleetStore());
+    }
+
+    private static void assertAllocationFree(String name, Step step) throws InvalidOperationException {
+        for (int i = 0; i < WARMUP; i++) step.run();
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < CALLS; i++) step.run();
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+        assertTrue(allocated <= MAX_BYTES, name + " allocated " + allocated + " bytes over " + CALLS + " calls");
+    }
+}